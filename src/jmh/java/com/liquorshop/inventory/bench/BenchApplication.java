@@ -0,0 +1,46 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.InventoryApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The application, started once per benchmark fork against the database of one dataset.
+ * <p>
+ * Each dataset lives in its own PostgreSQL database, by default
+ * {@code jdbc:postgresql://localhost:2345/inventory_bench_<dataset>} (10k, 1m, 10m sale lines).
+ * Create the database, let the first run create the schema, and fill it to the dataset's size
+ * with {@code ./gradlew generateData} ({@link com.liquorshop.inventory.bench.data.DataGenerator})
+ * before comparing numbers. The connection is set with {@code -Dbench.db.url} (a format string
+ * taking the dataset), {@code -Dbench.db.user} and {@code -Dbench.db.password}; the Gradle jmh
+ * task passes every {@code bench.*} system property on to the forks.
+ */
+final class BenchApplication {
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchApplication() {
+    }
+
+    static synchronized ConfigurableApplicationContext start(String dataset) {
+        if (context == null) {
+            String url = System.getProperty("bench.db.url", "jdbc:postgresql://localhost:2345/inventory_bench_%s");
+            // Command-line arguments, so they win over application.yaml
+            context = new SpringApplicationBuilder(InventoryApiApplication.class).run(
+                    "--spring.datasource.url=" + url.formatted(dataset),
+                    "--spring.datasource.username=" + System.getProperty("bench.db.user", "inventory"),
+                    "--spring.datasource.password=" + System.getProperty("bench.db.password", "inventory"),
+                    "--spring.jpa.show-sql=false",
+                    "--server.port=0",
+                    "--logging.level.root=WARN");
+        }
+        return context;
+    }
+
+    static synchronized void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.dto.ProductRequest;
+import com.liquorshop.inventory.dto.PurchaseInput;
+import com.liquorshop.inventory.dto.PurchaseLineInput;
+import com.liquorshop.inventory.dto.SupplierRequest;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.entity.SupplierEntity;
+import com.liquorshop.inventory.repository.ProductRepository;
+import com.liquorshop.inventory.repository.SupplierRepository;
+import com.liquorshop.inventory.service.ProductService;
+import com.liquorshop.inventory.service.PurchaseService;
+import com.liquorshop.inventory.service.SupplierService;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products and a supplier the write benchmarks can use on any dataset. Created on first use and
+ * found again by barcode / name afterwards; stock is topped up so that sales never run out
+ * mid-run.
+ */
+final class BenchFixtures {
+
+    static final String SUPPLIER = "Bench Supplier";
+
+    // Enough for any measurement run to keep selling one unit per line
+    private static final int MIN_STOCK = 1_000_000;
+
+    private BenchFixtures() {
+    }
+
+    static Long supplier(ApplicationContext context) {
+        return context.getBean(SupplierRepository.class).findByNameIgnoreCase(SUPPLIER)
+                .map(SupplierEntity::getId)
+                .orElseGet(() -> {
+                    SupplierRequest request = new SupplierRequest();
+                    request.setName(SUPPLIER);
+                    return context.getBean(SupplierService.class).create(request).getId();
+                });
+    }
+
+    /**
+     * Ids of {@code count} bench products, each with at least {@link #MIN_STOCK} units in stock.
+     */
+    static List<Long> stockedProducts(ApplicationContext context, int count) {
+        ProductRepository products = context.getBean(ProductRepository.class);
+        ProductService productService = context.getBean(ProductService.class);
+
+        List<Long> ids = new ArrayList<>();
+        List<PurchaseLineInput> topUps = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            String barcode = "BENCH-%04d".formatted(i);
+            ProductEntity product = products.findByBarcodeAndDeletedFalse(barcode).orElse(null);
+            Long id;
+            int stock;
+            if (product == null) {
+                ProductRequest request = new ProductRequest();
+                request.setName("Bench product " + i);
+                request.setCategory("Bench");
+                request.setBarcode(barcode);
+                request.setSellingPrice(BigDecimal.valueOf(100 + i));
+                id = productService.create(request).getId();
+                stock = 0;
+            } else {
+                id = product.getId();
+                stock = product.getCurrentStock();
+            }
+            ids.add(id);
+            if (stock < MIN_STOCK) {
+                PurchaseLineInput line = new PurchaseLineInput();
+                line.setProductId(id);
+                line.setQuantity(MIN_STOCK * 2);
+                line.setPurchasePrice(BigDecimal.valueOf(60 + i));
+                topUps.add(line);
+            }
+        }
+
+        if (!topUps.isEmpty()) {
+            PurchaseInput purchase = new PurchaseInput();
+            purchase.setSupplierId(supplier(context));
+            purchase.setInvoiceAmount(BigDecimal.ZERO);
+            purchase.setLines(topUps);
+            context.getBean(PurchaseService.class).create(purchase);
+        }
+        return ids;
+    }
+}
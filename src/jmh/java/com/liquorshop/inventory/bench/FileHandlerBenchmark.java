@@ -0,0 +1,101 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.service.bulk.FileHandler;
+import com.liquorshop.inventory.service.bulk.ImportRun;
+import com.liquorshop.inventory.service.bulk.ImportSource;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileHandler.streamRows over a sales import file (CSV or .xlsx) of {@code rows} lines, five
+ * lines per invoice, grouped by invoice as BulkSalesService does. Parsing only; nothing is
+ * written. The fixture is generated once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileHandlerBenchmark {
+
+    private static final String[] HEADER = {"sale_date", "customer", "payment_status", "barcode", "quantity",
+            "unit_price", "discount", "notes"};
+
+    @Param({"csv", "xlsx"})
+    public String format;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("bench-sales-", "." + format);
+        if ("csv".equals(format)) {
+            try (Writer out = Files.newBufferedWriter(file)) {
+                out.write(String.join(",", HEADER));
+                out.write('\n');
+                for (int i = 0; i < rows; i++) {
+                    out.write(String.join(",", row(i)));
+                    out.write('\n');
+                }
+            }
+        } else {
+            try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); OutputStream out = Files.newOutputStream(file)) {
+                Sheet sheet = workbook.createSheet("sales");
+                write(sheet.createRow(0), HEADER);
+                for (int i = 0; i < rows; i++) {
+                    write(sheet.createRow(i + 1), row(i));
+                }
+                workbook.write(out);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int streamRows(Blackhole bh) throws Exception {
+        ImportRun run = new ImportRun(new ImportSource(file.getFileName().toString(), null, Files.size(file),
+                new FileSystemResource(file), file));
+        FileHandler.streamRows(run, 500, r -> r[0] + "|" + r[1], bh::consume);
+        return run.getResult().getTotalRows();
+    }
+
+    private static String[] row(int i) {
+        int invoice = i / 5;
+        return new String[]{
+                LocalDate.of(2024, 1, 1).plusDays(invoice % 365).toString(),
+                "Customer " + (invoice % 200),
+                invoice % 3 == 0 ? "CREDIT" : "PAID",
+                "BENCH-%04d".formatted(i % 50 + 1),
+                Integer.toString(1 + i % 12),
+                "%d.50".formatted(100 + i % 400),
+                "0",
+                ""
+        };
+    }
+
+    private static void write(Row row, String[] cells) {
+        for (int c = 0; c < cells.length; c++) {
+            row.createCell(c).setCellValue(cells[c]);
+        }
+    }
+}
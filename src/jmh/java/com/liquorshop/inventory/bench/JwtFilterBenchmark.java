@@ -0,0 +1,58 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.security.JwtAuthenticationFilter;
+import com.liquorshop.inventory.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter on a request with a valid bearer token: token parse and signature
+ * check, user lookup and security context setup. The user lookup is an in-memory hit, as with
+ * the user cache warm, so this measures the filter itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "bench-secret-key-long-enough-for-hmac-sha-256-signatures";
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+
+        UserDetails user = User.withUsername("bench").password("{noop}bench").roles("ADMIN").build();
+        filter = new JwtAuthenticationFilter(tokenProvider, username -> user, JsonMapper.builder().build());
+        authorization = "Bearer " + tokenProvider.generateToken("bench");
+    }
+
+    @Benchmark
+    public void authenticate(Blackhole bh) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,64 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.dto.PurchaseInput;
+import com.liquorshop.inventory.dto.PurchaseLineInput;
+import com.liquorshop.inventory.dto.PurchaseResponse;
+import com.liquorshop.inventory.service.PurchaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PurchaseService.create end to end: supplier and product locks, one batch per line, the
+ * weighted-average-cost update of every product, the supplier ledger posting and the re-read
+ * for the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PurchaseBenchmark {
+
+    @Param("10k")
+    public String dataset;
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    private PurchaseService purchaseService;
+    private PurchaseInput input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext context = BenchApplication.start(dataset);
+        List<Long> products = BenchFixtures.stockedProducts(context, lines);
+        purchaseService = context.getBean(PurchaseService.class);
+
+        input = new PurchaseInput();
+        input.setSupplierId(BenchFixtures.supplier(context));
+        input.setInvoiceAmount(BigDecimal.valueOf(lines * 700L));
+        input.setLines(products.stream().map(id -> {
+            PurchaseLineInput line = new PurchaseLineInput();
+            line.setProductId(id);
+            line.setQuantity(10);
+            // Away from the fixture cost so the average actually moves
+            line.setPurchasePrice(BigDecimal.valueOf(70));
+            return line;
+        }).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchApplication.stop();
+    }
+
+    @Benchmark
+    public PurchaseResponse create() {
+        return purchaseService.create(input);
+    }
+}
@@ -0,0 +1,68 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.service.ReportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every ReportService query over the last {@code days} days. Reads only, so the dataset is not
+ * changed by running it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportBenchmark {
+
+    @Param("10k")
+    public String dataset;
+
+    @Param({"dailySales", "profitLoss", "purchaseReport", "vatReport", "stockMovement", "fastMoving",
+            "deadStock", "supplierOutstanding", "categorySales", "dashboard"})
+    public String report;
+
+    @Param({"30", "365"})
+    public int days;
+
+    private ReportService reportService;
+    private Long productId;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext context = BenchApplication.start(dataset);
+        reportService = context.getBean(ReportService.class);
+        productId = BenchFixtures.stockedProducts(context, 1).getFirst();
+        to = LocalDate.now();
+        from = to.minusDays(days - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchApplication.stop();
+    }
+
+    @Benchmark
+    public Object run() {
+        return switch (report) {
+            case "dailySales" -> reportService.getDailySales(from, to);
+            case "profitLoss" -> reportService.getProfitLoss(from, to);
+            case "purchaseReport" -> reportService.getPurchaseReport(from, to, null);
+            case "vatReport" -> reportService.getVatReport(from, to);
+            case "stockMovement" -> reportService.getStockMovement(productId, from, to);
+            case "fastMoving" -> reportService.getFastMovingProducts(from, to, 20);
+            case "deadStock" -> reportService.getDeadStock(days);
+            case "supplierOutstanding" -> reportService.getSupplierOutstanding();
+            case "categorySales" -> reportService.getCategorySales(from, to);
+            case "dashboard" -> reportService.getDashboard();
+            default -> throw new IllegalArgumentException("Unknown report: " + report);
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.liquorshop.inventory.bench;
+
+import com.liquorshop.inventory.dto.SaleInput;
+import com.liquorshop.inventory.dto.SaleItemInput;
+import com.liquorshop.inventory.dto.SaleResponse;
+import com.liquorshop.inventory.service.SaleService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SaleService.create end to end: product locks, batch allocation, invoice numbering, outbox row
+ * and the re-read for the response. Walk-in sales of one unit per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaleBenchmark {
+
+    @Param("10k")
+    public String dataset;
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    private SaleService saleService;
+    private SaleInput input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurableApplicationContext context = BenchApplication.start(dataset);
+        List<Long> products = BenchFixtures.stockedProducts(context, lines);
+        saleService = context.getBean(SaleService.class);
+
+        input = new SaleInput();
+        input.setItems(products.stream().map(id -> {
+            SaleItemInput item = new SaleItemInput();
+            item.setProductId(id);
+            item.setQuantity(1);
+            return item;
+        }).toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchApplication.stop();
+    }
+
+    @Benchmark
+    public SaleResponse create() {
+        return saleService.create(input);
+    }
+}
@@ -0,0 +1,45 @@
+package com.liquorshop.inventory.bench.data;
+
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+
+/**
+ * Rows for one table in COPY text format, sent in one COPY statement per flush. Values are
+ * written with {@code toString()} and must not contain tabs, newlines or backslashes; null is
+ * written as \N.
+ */
+final class CopyBuffer {
+
+    private final String sql;
+    private final StringBuilder rows = new StringBuilder(1 << 16);
+    private long total;
+
+    CopyBuffer(String table, String columns) {
+        sql = "COPY " + table + " (" + columns + ") FROM STDIN";
+    }
+
+    void row(Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                rows.append('\t');
+            }
+            rows.append(values[i] == null ? "\\N" : values[i].toString());
+        }
+        rows.append('\n');
+        total++;
+    }
+
+    void flush(CopyManager copy) throws SQLException, IOException {
+        if (!rows.isEmpty()) {
+            copy.copyIn(sql, new StringReader(rows.toString()));
+            rows.setLength(0);
+        }
+    }
+
+    long total() {
+        return total;
+    }
+}
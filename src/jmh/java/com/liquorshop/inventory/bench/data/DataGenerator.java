@@ -0,0 +1,563 @@
+package com.liquorshop.inventory.bench.data;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Writes a synthetic multi-year shop history into an empty database, for benchmarks and report
+ * tuning: products, suppliers, customers with price templates, purchases with their batches and
+ * supplier payments, sales allocated from those batches and customer payments.
+ * <p>
+ * The history is simulated day by day. Sales per day follow {@link Seasonality}, products and
+ * customers are picked by {@link Popularity}, and a product is reordered from its supplier the
+ * day after it falls below its reorder point, so stock, batch quantities, weighted average cost
+ * and balances stay consistent with what the application would have written. Rows go in with
+ * COPY, {@code batch-size} sale lines per commit.
+ * <p>
+ * Rollups, ledgers and supplier totals are not written: the application builds them from this
+ * history the first time it starts against the database.
+ * <p>
+ * {@code ./gradlew generateData -PgenArgs='--url=jdbc:postgresql://localhost:2345/inventory_bench_1m --sale-lines=1m'}
+ */
+public final class DataGenerator {
+
+    private static final String[] CATEGORIES = {"Whisky", "Beer", "Wine", "Vodka", "Rum", "Gin", "Brandy",
+            "Tequila", "Liqueur", "Cider"};
+    private static final int[] VOLUMES = {180, 375, 750, 1000};
+    private static final int VAT_PERCENT = 13;
+    // Trading hours, in seconds of the day
+    private static final int OPENS = 10 * 3600;
+    private static final int OPEN_SECONDS = 12 * 3600;
+
+    private final GeneratorConfig config;
+    private final Connection connection;
+    private final CopyManager copy;
+    private final SplittableRandom random;
+    private final LocalDate end;
+
+    // Master data buffers, written once
+    private final CopyBuffer products = new CopyBuffer("products",
+            "id, average_cost, barcode, brand, category, created_at, current_stock, deleted, min_stock, name, selling_price, status, type, volume_ml");
+    private final CopyBuffer suppliers = new CopyBuffer("suppliers",
+            "id, created_at, name, contact_person, phone, status, vat_pan_number");
+    private final CopyBuffer customers = new CopyBuffer("customers",
+            "id, created_at, credit_limit, name, outstanding_balance, phone");
+    private final CopyBuffer templates = new CopyBuffer("customer_price_templates",
+            "id, selling_price, customer_id, product_id");
+
+    // History buffers, flushed in this (foreign key) order
+    private final CopyBuffer purchases = new CopyBuffer("purchases",
+            "id, created_at, discount, invoice_amount, purchase_date, vat_amount, vat_bill_number, supplier_id");
+    private final CopyBuffer batches = new CopyBuffer("batches",
+            "id, batch_code, created_at, current_quantity, expiry_date, original_quantity, purchase_date, purchase_price, product_id");
+    private final CopyBuffer purchaseLines = new CopyBuffer("purchase_lines",
+            "id, purchase_price, quantity, vat_percent, batch_id, product_id, purchase_id");
+    private final CopyBuffer purchasePayments = new CopyBuffer("purchase_payments",
+            "id, amount, payment_date, payment_method, purchase_id, supplier_id");
+    private final CopyBuffer sales = new CopyBuffer("sales",
+            "id, created_at, discount, invoice_number, payment_status, sale_date, total_amount, vat_amount, customer_id");
+    private final CopyBuffer saleLines = new CopyBuffer("sale_lines",
+            "id, cost_price_at_sale, line_total, quantity, unit_price, batch_id, product_id, sale_id");
+    private final CopyBuffer salePayments = new CopyBuffer("sale_payments",
+            "id, amount, payment_date, payment_method, customer_id, sale_id");
+
+    // Ids already taken in the database; generated rows continue after them
+    private long productBase;
+    private long customerBase;
+    private long supplierBase;
+    private long firstBatchId;
+    private long templateId;
+    private long batchId;
+    private long purchaseId;
+    private long purchaseLineId;
+    private long purchasePaymentId;
+    private long saleId;
+    private long saleLineId;
+    private long salePaymentId;
+
+    // Product state, by product index; money in paisa (1/100)
+    private int[] stock;
+    private long[] averageCost;
+    private long[] baseCost;
+    private long[] sellingPrice;
+    private int[] supplierOf;
+    private int[] reorderPoint;
+    private int[] orderQuantity;
+    private LocalDate[] lastSold;
+    private boolean[] reorderPending;
+    private ArrayDeque<Long>[] openBatches;
+    private final List<Integer> toReorder = new ArrayList<>();
+
+    // Batch quantities, by batch id - firstBatchId - 1
+    private int[] batchOriginal = new int[1 << 16];
+    private int[] batchRemaining = new int[1 << 16];
+
+    private long[] outstanding;
+    private final Map<Long, Long> templatePrices = new HashMap<>();
+    private final Map<Integer, Long> invoicesPerYear = new TreeMap<>();
+
+    private Popularity productPopularity;
+    private Popularity customerPopularity;
+    private long linesSinceFlush;
+
+    private DataGenerator(GeneratorConfig config, Connection connection) throws SQLException {
+        this.config = config;
+        this.connection = connection;
+        this.copy = connection.unwrap(PGConnection.class).getCopyAPI();
+        this.random = new SplittableRandom(config.seed());
+        this.end = config.endDate();
+    }
+
+    public static void main(String[] args) throws Exception {
+        GeneratorConfig config = GeneratorConfig.parse(args);
+        try (Connection connection = DriverManager.getConnection(config.url(), config.user(), config.password())) {
+            connection.setAutoCommit(false);
+            new DataGenerator(config, connection).run();
+        }
+    }
+
+    private void run() throws SQLException, IOException {
+        long started = System.nanoTime();
+        checkDatabase();
+        writeMasterData();
+
+        Seasonality season = new Seasonality(config);
+        double salesInRange = config.saleLines() / expectedLinesPerSale();
+        planStock(season);
+
+        for (int d = 0; d < season.days(); d++) {
+            LocalDate day = season.day(d);
+            restock(day);
+
+            double expected = salesInRange * season.share(d);
+            int count = (int) expected + (random.nextDouble() < expected - (int) expected ? 1 : 0);
+            int[] times = new int[count];
+            for (int i = 0; i < count; i++) {
+                // Busier towards the evening
+                times[i] = OPENS + (int) (OPEN_SECONDS * (1 - Math.pow(random.nextDouble(), 1.6)));
+            }
+            Arrays.sort(times);
+            for (int time : times) {
+                sale(day.atStartOfDay().plusSeconds(time));
+            }
+
+            if (linesSinceFlush >= config.batchSize()) {
+                flushHistory();
+            }
+            if (day.getDayOfMonth() == 1 && day.getMonthValue() == 1) {
+                log(started, "reached " + day);
+            }
+        }
+        flushHistory();
+        finish();
+        log(started, "done");
+        System.out.println("Start the application once against this database: it builds the sales rollups, "
+                + "customer and supplier ledgers and supplier totals from the generated history.");
+    }
+
+    // ── Setup ────────────────────────────────────────────────────────────────
+
+    private void checkDatabase() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT to_regclass('public.sales') IS NOT NULL")) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    throw new IllegalStateException("No schema in " + config.url()
+                            + "; start the application against it once to create the tables");
+                }
+            }
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT EXISTS (SELECT 1 FROM sales) OR EXISTS (SELECT 1 FROM purchases)")) {
+                rs.next();
+                if (rs.getBoolean(1)) {
+                    throw new IllegalStateException(config.url() + " already has sales or purchases; "
+                            + "generate into an empty database");
+                }
+            }
+            productBase = maxId(st, "products");
+            customerBase = maxId(st, "customers");
+            supplierBase = maxId(st, "suppliers");
+            templateId = maxId(st, "customer_price_templates");
+            firstBatchId = batchId = maxId(st, "batches");
+            purchaseId = maxId(st, "purchases");
+            purchaseLineId = maxId(st, "purchase_lines");
+            purchasePaymentId = maxId(st, "purchase_payments");
+            saleId = maxId(st, "sales");
+            saleLineId = maxId(st, "sale_lines");
+            salePaymentId = maxId(st, "sale_payments");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeMasterData() throws SQLException, IOException {
+        LocalDateTime created = config.startDate().atTime(8, 0);
+        int n = config.products();
+
+        stock = new int[n];
+        averageCost = new long[n];
+        baseCost = new long[n];
+        sellingPrice = new long[n];
+        supplierOf = new int[n];
+        reorderPoint = new int[n];
+        orderQuantity = new int[n];
+        lastSold = new LocalDate[n];
+        reorderPending = new boolean[n];
+        openBatches = new ArrayDeque[n];
+
+        for (int s = 0; s < config.suppliers(); s++) {
+            suppliers.row(supplierBase + s + 1, created, "Supplier " + (s + 1), "Contact " + (s + 1),
+                    "98%08d".formatted(s), "ACTIVE", "PAN%07d".formatted(supplierBase + s + 1));
+        }
+        for (int p = 0; p < n; p++) {
+            baseCost[p] = 10_000 + random.nextLong(490_000);
+            sellingPrice[p] = Math.round(baseCost[p] * (1.2 + random.nextDouble(0.15)) / 100.0) * 100;
+            supplierOf[p] = random.nextInt(config.suppliers());
+            openBatches[p] = new ArrayDeque<>(4);
+        }
+        customerPopularity = new Popularity(config.customers(), 1.0, random);
+        productPopularity = new Popularity(n, config.zipf(), random);
+
+        outstanding = new long[config.customers()];
+        for (int c = 0; c < config.customers(); c++) {
+            customers.row(customerBase + c + 1, created, "0.00", "Customer " + (customerBase + c + 1),
+                    "0.00", "97%08d".formatted(c));
+        }
+
+        // The busiest tenth of the customers get template prices on popular products
+        int templated = Math.max(1, config.customers() / 10);
+        int popularProducts = Math.min(n, 200);
+        for (int rank = 0; rank < templated; rank++) {
+            int c = customerPopularity.item(rank);
+            for (int k = 0; k < Math.min(20, popularProducts); k++) {
+                int p = productPopularity.item(random.nextInt(popularProducts));
+                long key = (long) c * n + p;
+                if (!templatePrices.containsKey(key)) {
+                    long price = Math.round(sellingPrice[p] * (0.9 + random.nextDouble(0.07)));
+                    templatePrices.put(key, price);
+                    templates.row(++templateId, money(price), customerBase + c + 1, productBase + p + 1);
+                }
+            }
+        }
+
+        suppliers.flush(copy);
+        // Products are written after planStock has set their min stock
+    }
+
+    // Reorder point and order size from each product's expected daily demand
+    private void planStock(Seasonality season) throws SQLException, IOException {
+        double unitsPerDay = config.saleLines() * expectedQuantity() / season.days();
+        LocalDateTime created = config.startDate().atTime(8, 0);
+        for (int p = 0; p < config.products(); p++) {
+            double demand = unitsPerDay * productPopularity.share(p);
+            int minStock = (int) Math.max(1, Math.round(demand * 3));
+            reorderPoint[p] = (int) Math.max(minStock, Math.ceil(demand * 7));
+            orderQuantity[p] = (int) Math.max(12, Math.ceil(demand * 30 / 12) * 12);
+            products.row(productBase + p + 1, "0.00", "GEN-%07d".formatted(productBase + p + 1),
+                    "Brand " + (p % 97 + 1), CATEGORIES[p % CATEGORIES.length], created, 0, false, minStock,
+                    "Product " + (productBase + p + 1), money(sellingPrice[p]), "ACTIVE", "LIQUOR",
+                    Integer.toString(VOLUMES[p % VOLUMES.length]));
+            // Opening stock is bought on the first day
+            toReorder.add(p);
+            reorderPending[p] = true;
+        }
+        products.flush(copy);
+        customers.flush(copy);
+        templates.flush(copy);
+        connection.commit();
+    }
+
+    // ── Simulation ───────────────────────────────────────────────────────────
+
+    // One purchase per supplier for everything that fell below its reorder point
+    private void restock(LocalDate day) {
+        if (toReorder.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Integer>> bySupplier = new TreeMap<>();
+        for (int p : toReorder) {
+            bySupplier.computeIfAbsent(supplierOf[p], s -> new ArrayList<>()).add(p);
+        }
+        toReorder.clear();
+
+        LocalDateTime at = day.atTime(9, 0);
+        for (Map.Entry<Integer, List<Integer>> entry : bySupplier.entrySet()) {
+            long id = ++purchaseId;
+            long supplierId = supplierBase + entry.getKey() + 1;
+            long subtotal = 0;
+            for (int p : entry.getValue()) {
+                int quantity = orderQuantity[p];
+                long price = Math.round(baseCost[p] * (0.95 + random.nextDouble(0.1)));
+                long batch = ++batchId;
+                int slot = batchSlot(batch);
+                batchOriginal[slot] = quantity;
+                batchRemaining[slot] = quantity;
+                batches.row(batch, "GEN-" + batch, at, quantity, day.plusDays(180 + random.nextInt(540)), quantity,
+                        day, money(price), productBase + p + 1);
+                purchaseLines.row(++purchaseLineId, money(price), quantity, VAT_PERCENT, batch, productBase + p + 1, id);
+
+                // Weighted average cost, as PurchaseService keeps it
+                averageCost[p] = Math.round((averageCost[p] * (double) stock[p] + price * (double) quantity)
+                        / (stock[p] + quantity));
+                stock[p] += quantity;
+                openBatches[p].addLast(batch);
+                reorderPending[p] = false;
+                subtotal += price * quantity;
+            }
+            long vat = Math.round(subtotal * VAT_PERCENT / 100.0);
+            long invoice = subtotal + vat;
+            purchases.row(id, at, "0.00", money(invoice), day, money(vat), "GEN-P" + id, supplierId);
+
+            // Most suppliers are paid in full within six weeks, the rest in two parts
+            if (random.nextDouble() < 0.85) {
+                purchasePayment(id, supplierId, invoice, day.plusDays(random.nextInt(45)));
+            } else {
+                long first = invoice / 2;
+                purchasePayment(id, supplierId, first, day.plusDays(random.nextInt(30)));
+                if (random.nextBoolean()) {
+                    purchasePayment(id, supplierId, invoice - first, day.plusDays(30 + random.nextInt(60)));
+                }
+            }
+        }
+    }
+
+    private void sale(LocalDateTime at) {
+        LocalDate day = at.toLocalDate();
+        int customer = random.nextDouble() < config.creditShare() ? customerPopularity.next(random) : -1;
+        long id = saleId + 1;
+
+        int wanted = lineCount();
+        int[] picked = new int[wanted];
+        int lines = 0;
+        long total = 0;
+        for (int k = 0; k < wanted; k++) {
+            int p = productPopularity.next(random);
+            if (contains(picked, lines, p)) {
+                continue;
+            }
+            int quantity = Math.min(random.nextDouble() < 0.7 ? 1 : 2 + random.nextInt(5), stock[p]);
+            if (quantity == 0) {
+                markReorder(p);
+                continue;
+            }
+            picked[lines++] = p;
+
+            long price = customer >= 0
+                    ? templatePrices.getOrDefault((long) customer * config.products() + p, sellingPrice[p])
+                    : sellingPrice[p];
+            // Batches in the order they were received, which is close to expiry order
+            int left = quantity;
+            while (left > 0) {
+                long batch = openBatches[p].peekFirst();
+                int slot = batchSlot(batch);
+                int take = Math.min(left, batchRemaining[slot]);
+                batchRemaining[slot] -= take;
+                if (batchRemaining[slot] == 0) {
+                    openBatches[p].pollFirst();
+                }
+                saleLines.row(++saleLineId, money(averageCost[p]), money(price * take), take, money(price), batch,
+                        productBase + p + 1, id);
+                linesSinceFlush++;
+                left -= take;
+            }
+            stock[p] -= quantity;
+            lastSold[p] = day;
+            total += price * quantity;
+            if (stock[p] < reorderPoint[p]) {
+                markReorder(p);
+            }
+        }
+        if (lines == 0) {
+            return;
+        }
+        saleId = id;
+
+        String status = "PAID";
+        if (customer >= 0 && random.nextBoolean()) {
+            // On account: usually settled within two months, sometimes only in part
+            long paid = 0;
+            if (random.nextDouble() < 0.9) {
+                paid += salePayment(id, customer, total, day.plusDays(1 + random.nextInt(60)));
+            } else {
+                paid += salePayment(id, customer, total * (3 + random.nextInt(5)) / 10, day.plusDays(1 + random.nextInt(30)));
+            }
+            status = paid >= total ? "PAID" : paid > 0 ? "PARTIAL" : "CREDIT";
+            outstanding[customer] += total - paid;
+        }
+
+        long number = invoicesPerYear.merge(day.getYear(), 1L, Long::sum);
+        sales.row(id, at, "0.00", "INV-" + day.getYear() + "-" + "%05d".formatted(number), status, at,
+                money(total), "0.00", customer >= 0 ? customerBase + customer + 1 : null);
+    }
+
+    private void purchasePayment(long purchase, long supplierId, long amount, LocalDate day) {
+        if (!day.isAfter(end)) {
+            purchasePayments.row(++purchasePaymentId, money(amount), day.atTime(11, 0), paymentMethod(), purchase,
+                    supplierId);
+        }
+    }
+
+    // Returns the amount recorded: payments that would fall after the end date are left out
+    private long salePayment(long sale, int customer, long amount, LocalDate day) {
+        if (day.isAfter(end) || amount <= 0) {
+            return 0;
+        }
+        salePayments.row(++salePaymentId, money(amount), day.atTime(12, 0), paymentMethod(),
+                customerBase + customer + 1, sale);
+        return amount;
+    }
+
+    private void markReorder(int p) {
+        if (!reorderPending[p]) {
+            reorderPending[p] = true;
+            toReorder.add(p);
+        }
+    }
+
+    // ── Writing ──────────────────────────────────────────────────────────────
+
+    private void flushHistory() throws SQLException, IOException {
+        purchases.flush(copy);
+        batches.flush(copy);
+        purchaseLines.flush(copy);
+        purchasePayments.flush(copy);
+        sales.flush(copy);
+        saleLines.flush(copy);
+        salePayments.flush(copy);
+        connection.commit();
+        linesSinceFlush = 0;
+    }
+
+    // Final stock, costs, balances and invoice counters, then identity sequences past the new ids
+    private void finish() throws SQLException, IOException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TEMP TABLE gen_products (id BIGINT, current_stock INT, average_cost NUMERIC, last_sold_date DATE)");
+            st.execute("CREATE TEMP TABLE gen_batches (id BIGINT, current_quantity INT)");
+            st.execute("CREATE TEMP TABLE gen_customers (id BIGINT, outstanding_balance NUMERIC)");
+
+            CopyBuffer productState = new CopyBuffer("gen_products", "id, current_stock, average_cost, last_sold_date");
+            for (int p = 0; p < config.products(); p++) {
+                productState.row(productBase + p + 1, stock[p], money(averageCost[p]), lastSold[p]);
+            }
+            productState.flush(copy);
+            CopyBuffer batchState = new CopyBuffer("gen_batches", "id, current_quantity");
+            for (long b = firstBatchId + 1; b <= batchId; b++) {
+                int slot = batchSlot(b);
+                if (batchRemaining[slot] != batchOriginal[slot]) {
+                    batchState.row(b, batchRemaining[slot]);
+                }
+            }
+            batchState.flush(copy);
+            CopyBuffer customerState = new CopyBuffer("gen_customers", "id, outstanding_balance");
+            for (int c = 0; c < config.customers(); c++) {
+                customerState.row(customerBase + c + 1, money(outstanding[c]));
+            }
+            customerState.flush(copy);
+
+            st.execute("""
+                    UPDATE products p SET current_stock = g.current_stock, average_cost = g.average_cost,
+                                          last_sold_date = g.last_sold_date
+                    FROM gen_products g WHERE g.id = p.id
+                    """);
+            st.execute("UPDATE batches b SET current_quantity = g.current_quantity FROM gen_batches g WHERE g.id = b.id");
+            st.execute("UPDATE customers c SET outstanding_balance = g.outstanding_balance FROM gen_customers g WHERE g.id = c.id");
+
+            for (Map.Entry<Integer, Long> year : invoicesPerYear.entrySet()) {
+                st.execute("""
+                        INSERT INTO invoice_sequences (seq_year, last_value) VALUES (%d, %d)
+                        ON CONFLICT (seq_year) DO UPDATE SET last_value = GREATEST(invoice_sequences.last_value, EXCLUDED.last_value)
+                        """.formatted(year.getKey(), year.getValue()));
+            }
+            for (String table : List.of("products", "customers", "suppliers", "customer_price_templates", "batches",
+                    "purchases", "purchase_lines", "purchase_payments", "sales", "sale_lines", "sale_payments")) {
+                st.execute("SELECT setval(pg_get_serial_sequence('%s', 'id'), (SELECT MAX(id) FROM %s))"
+                        .formatted(table, table));
+            }
+            connection.commit();
+
+            connection.setAutoCommit(true);
+            st.execute("ANALYZE");
+        }
+        System.out.printf("Wrote %,d products, %,d customers, %,d purchases (%,d batches), %,d sales (%,d lines), "
+                        + "%,d customer and %,d supplier payments%n",
+                config.products(), config.customers(), purchases.total(), batches.total(), sales.total(),
+                saleLines.total(), salePayments.total(), purchasePayments.total());
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private int lineCount() {
+        double mean = config.linesPerSale();
+        if (mean <= 1) {
+            return 1;
+        }
+        // Geometric with the configured mean
+        double p = 1 / mean;
+        return (int) Math.min(50, 1 + Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+    }
+
+    // Lines per sale come out a little below the mean: repeated picks and sold-out products are dropped
+    private double expectedLinesPerSale() {
+        return config.linesPerSale();
+    }
+
+    private static double expectedQuantity() {
+        // 70% single units, otherwise 2..6
+        return 0.7 + 0.3 * 4;
+    }
+
+    private String paymentMethod() {
+        double r = random.nextDouble();
+        return r < 0.6 ? "CASH" : r < 0.9 ? "ONLINE" : "CHEQUE";
+    }
+
+    private int batchSlot(long batch) {
+        int slot = (int) (batch - firstBatchId - 1);
+        if (slot >= batchRemaining.length) {
+            batchRemaining = Arrays.copyOf(batchRemaining, batchRemaining.length * 2);
+            batchOriginal = Arrays.copyOf(batchOriginal, batchOriginal.length * 2);
+        }
+        return slot;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long maxId(Statement st, String table) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String money(long paisa) {
+        long abs = Math.abs(paisa);
+        return (paisa < 0 ? "-" : "") + abs / 100 + "." + (abs % 100 < 10 ? "0" : "") + abs % 100;
+    }
+
+    private static void log(long started, String message) {
+        System.out.printf("[%5.1fs] %s%n", (System.nanoTime() - started) / 1e9, message);
+    }
+}
@@ -0,0 +1,81 @@
+package com.liquorshop.inventory.bench.data;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of {@link DataGenerator}, given as {@code --name=value}. Counts accept k / m suffixes
+ * ({@code --sale-lines=10m}).
+ *
+ * @param saleLines       total sale lines to generate; sales per day follow from it
+ * @param linesPerSale    mean lines per invoice (geometric, at least 1)
+ * @param zipf            exponent of product popularity; ~1 means a few SKUs sell most of the volume
+ * @param weekly          relative sales Monday..Sunday
+ * @param seasonalAmplitude yearly swing around the mean, peaking on {@code peakDayOfYear}
+ * @param growth          yearly growth of sales volume
+ * @param creditShare     share of sales to account customers (the rest are walk-in)
+ * @param batchSize       sale lines per COPY round / commit
+ */
+record GeneratorConfig(String url, String user, String password,
+                       int years, LocalDate endDate, long seed,
+                       int products, int customers, int suppliers,
+                       long saleLines, double linesPerSale, double zipf,
+                       double[] weekly, double seasonalAmplitude, int peakDayOfYear, double growth,
+                       double creditShare, int batchSize) {
+
+    private static final Set<String> KNOWN = Set.of("url", "user", "password", "years",
+            "end-date", "seed", "products", "customers", "suppliers", "sale-lines", "lines-per-sale", "zipf",
+            "weekly", "seasonal-amplitude", "peak-day-of-year", "growth", "credit-share", "batch-size");
+
+    static GeneratorConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        GeneratorConfig config = new GeneratorConfig(
+                options.getOrDefault("url", "jdbc:postgresql://localhost:2345/inventory_bench_10k"),
+                options.getOrDefault("user", "inventory"),
+                options.getOrDefault("password", "inventory"),
+                Integer.parseInt(options.getOrDefault("years", "5")),
+                LocalDate.parse(options.getOrDefault("end-date", LocalDate.now().minusDays(1).toString())),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                (int) count(options.getOrDefault("products", "5k")),
+                (int) count(options.getOrDefault("customers", "500")),
+                (int) count(options.getOrDefault("suppliers", "50")),
+                count(options.getOrDefault("sale-lines", "1m")),
+                Double.parseDouble(options.getOrDefault("lines-per-sale", "3")),
+                Double.parseDouble(options.getOrDefault("zipf", "1.07")),
+                Arrays.stream(options.getOrDefault("weekly", "0.8,0.8,0.85,0.95,1.2,1.5,1.1").split(","))
+                        .mapToDouble(Double::parseDouble).toArray(),
+                Double.parseDouble(options.getOrDefault("seasonal-amplitude", "0.3")),
+                Integer.parseInt(options.getOrDefault("peak-day-of-year", "295")),
+                Double.parseDouble(options.getOrDefault("growth", "0.08")),
+                Double.parseDouble(options.getOrDefault("credit-share", "0.25")),
+                (int) count(options.getOrDefault("batch-size", "50k")));
+        options.keySet().removeAll(KNOWN);
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + options.keySet());
+        }
+        if (config.weekly.length != 7) {
+            throw new IllegalArgumentException("--weekly needs 7 values, Monday to Sunday");
+        }
+        return config;
+    }
+
+    LocalDate startDate() {
+        return endDate.minusYears(years).plusDays(1);
+    }
+
+    private static long count(String value) {
+        String v = value.trim().toLowerCase();
+        long factor = v.endsWith("k") ? 1_000 : v.endsWith("m") ? 1_000_000 : 1;
+        return Long.parseLong(factor == 1 ? v : v.substring(0, v.length() - 1)) * factor;
+    }
+}
@@ -0,0 +1,59 @@
+package com.liquorshop.inventory.bench.data;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipf-distributed choice among {@code n} items: the item of rank r is drawn with probability
+ * proportional to 1 / r^s. Ranks are shuffled over the item indexes, so popular items are spread
+ * over the id range instead of being the first ids.
+ */
+final class Popularity {
+
+    private final double[] cumulative;
+    private final int[] itemOfRank;
+    private final int[] rankOfItem;
+
+    Popularity(int n, double exponent, RandomGenerator random) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        itemOfRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            itemOfRank[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = itemOfRank[i];
+            itemOfRank[i] = itemOfRank[j];
+            itemOfRank[j] = t;
+        }
+        rankOfItem = new int[n];
+        for (int rank = 0; rank < n; rank++) {
+            rankOfItem[itemOfRank[rank]] = rank;
+        }
+    }
+
+    int next(RandomGenerator random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        return itemOfRank[Math.min(rank < 0 ? -rank - 1 : rank, itemOfRank.length - 1)];
+    }
+
+    /** Share of all draws that go to {@code item}. */
+    double share(int item) {
+        int rank = rankOfItem[item];
+        return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+    }
+
+    /** Item of the given popularity rank (0 = most popular). */
+    int item(int rank) {
+        return itemOfRank[rank];
+    }
+}
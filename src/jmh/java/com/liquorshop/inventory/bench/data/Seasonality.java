@@ -0,0 +1,46 @@
+package com.liquorshop.inventory.bench.data;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Relative sales volume of a day: weekday profile × yearly cycle × growth trend. The factors of
+ * the generated range are normalised so that they spread a fixed total over the days.
+ */
+final class Seasonality {
+
+    private final LocalDate start;
+    private final double[] factors;
+
+    Seasonality(GeneratorConfig config) {
+        start = config.startDate();
+        int days = (int) ChronoUnit.DAYS.between(start, config.endDate()) + 1;
+        factors = new double[days];
+        double sum = 0;
+        for (int d = 0; d < days; d++) {
+            LocalDate day = start.plusDays(d);
+            double weekly = config.weekly()[day.getDayOfWeek().getValue() - 1];
+            double yearly = 1 + config.seasonalAmplitude()
+                    * Math.cos(2 * Math.PI * (day.getDayOfYear() - config.peakDayOfYear()) / 365.25);
+            double trend = Math.pow(1 + config.growth(), d / 365.25);
+            factors[d] = weekly * yearly * trend;
+            sum += factors[d];
+        }
+        for (int d = 0; d < days; d++) {
+            factors[d] /= sum;
+        }
+    }
+
+    int days() {
+        return factors.length;
+    }
+
+    LocalDate day(int index) {
+        return start.plusDays(index);
+    }
+
+    /** This day's share of the whole range's volume. */
+    double share(int index) {
+        return factors[index];
+    }
+}
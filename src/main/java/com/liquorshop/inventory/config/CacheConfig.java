@@ -0,0 +1,94 @@
+package com.liquorshop.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+
+/**
+ * In-memory caches. Each cache is registered by name with its own Caffeine spec (size bound,
+ * expiry, recordStats) so hit/miss/eviction counts show up under the actuator "cache.*" metrics.
+ * Evictions are deferred until the surrounding transaction commits.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // customerId → (productId → template selling price); read and invalidated by CustomerService
+    public static final String PRICE_TEMPLATES = "priceTemplates";
+
+    // barcode → ProductResponse for every live product; kept current by BarcodeCache, never expires
+    public static final String BARCODES = "barcodes";
+
+    // barcodes looked up in the database and not found
+    public static final String UNKNOWN_BARCODES = "unknownBarcodes";
+
+    // username → UserDetails for bearer-token requests; evicted when the user or their refresh tokens change
+    public static final String USER_DETAILS = "userDetails";
+
+    @Value("${inventory.cache.price-templates:maximumSize=1000,expireAfterWrite=1h,recordStats}")
+    private String priceTemplatesSpec;
+
+    @Value("${inventory.cache.barcodes:recordStats}")
+    private String barcodesSpec;
+
+    @Value("${inventory.cache.unknown-barcodes:maximumSize=10000,expireAfterWrite=10m,recordStats}")
+    private String unknownBarcodesSpec;
+
+    @Value("${inventory.cache.user-details:maximumSize=1000,expireAfterWrite=60s,recordStats}")
+    private String userDetailsSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.registerCustomCache(PRICE_TEMPLATES, Caffeine.from(priceTemplatesSpec).build());
+        manager.registerCustomCache(BARCODES, Caffeine.from(barcodesSpec).build());
+        manager.registerCustomCache(UNKNOWN_BARCODES, Caffeine.from(unknownBarcodesSpec).build());
+        manager.registerCustomCache(USER_DETAILS, Caffeine.from(userDetailsSpec).build());
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+
+    // Hit ratio since startup per cache, next to the cache.gets{result=hit|miss} counters
+    @Bean
+    public MeterBinder cacheHitRatios(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                    Gauge.builder("inventory.cache.hit.ratio", caffeine, c -> c.stats().hitRate())
+                            .tag("cache", name)
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    /**
+     * The Caffeine cache behind a registered cache, without the transaction-aware decorator: puts
+     * and invalidations take effect at once, for callers that order them against commits themselves.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> com.github.benmanes.caffeine.cache.Cache<K, V> nativeCache(CacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        return (com.github.benmanes.caffeine.cache.Cache<K, V>) ((CaffeineCache) cache).getNativeCache();
+    }
+
+    @Bean
+    public UserCache userCache(CacheManager cacheManager) {
+        return new SpringCacheBasedUserCache(cacheManager.getCache(USER_DETAILS));
+    }
+}
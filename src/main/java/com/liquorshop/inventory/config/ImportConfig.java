@@ -0,0 +1,45 @@
+package com.liquorshop.inventory.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for bulk import.
+ * <p>
+ * Background jobs get a small pool on purpose: each job holds a connection and product row
+ * locks while a batch commits, so running many at once only adds contention. Jobs beyond the
+ * queue capacity are rejected rather than piling up.
+ * <p>
+ * Parallel imports write product-disjoint partitions on the worker pool, one connection per
+ * worker; keep it well below the connection pool size.
+ */
+@Configuration
+public class ImportConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor importJobExecutor(
+            @Value("${inventory.import.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${inventory.import.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        // Let running jobs reach a chunk boundary on shutdown instead of being interrupted mid-batch
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor importWorkerExecutor(
+            @Value("${inventory.import.parallel.workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("import-worker-");
+        return executor;
+    }
+}
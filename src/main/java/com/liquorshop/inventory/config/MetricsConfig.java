@@ -0,0 +1,40 @@
+package com.liquorshop.inventory.config;
+
+import com.liquorshop.inventory.service.metrics.SqlBudgetInterceptor;
+import com.liquorshop.inventory.service.metrics.SqlStatementCounter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Custom metrics, exported with the built-in ones at /actuator/prometheus.
+ * <p>
+ * Checkout and purchase phases come from PhaseTimers ({@code inventory.sale.create},
+ * {@code inventory.purchase.create}; bulk-imported invoices under {@code inventory.sale.import} and
+ * {@code inventory.purchase.import}), reports from {@code @Timed} on ReportService
+ * ({@code inventory.report}), SQL statements per request from RequestSqlMetricsFilter, import
+ * throughput from ImportJobService and cache hit ratios from CacheConfig. Histogram buckets for
+ * all of them are switched on in application.yaml.
+ * <p>
+ * The same statement counter backs the per-handler {@code @SqlBudget} check.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final SqlBudgetInterceptor sqlBudgetInterceptor;
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounter() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlBudgetInterceptor);
+    }
+}
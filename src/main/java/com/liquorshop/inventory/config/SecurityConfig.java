@@ -3,6 +3,7 @@ package com.liquorshop.inventory.config;
 import com.liquorshop.inventory.security.CustomUserDetailsService;
 import com.liquorshop.inventory.security.JwtAuthenticationFilter;
 import com.liquorshop.inventory.security.JwtTokenProvider;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +15,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.authentication.CachingUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -36,6 +40,7 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsServiceForFilter;
+    private final UserCache userCache;
     private final JsonMapper jsonMapper;
 
     @Bean
@@ -57,7 +62,16 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsServiceForFilter, jsonMapper);
+        return new JwtAuthenticationFilter(jwtTokenProvider, cachingUserDetailsService(), jsonMapper);
+    }
+
+    // Bearer requests read the user through the short-lived user cache; login always goes to the database.
+    // The cache holds an immutable copy rather than the managed UserEntity.
+    private UserDetailsService cachingUserDetailsService() {
+        CachingUserDetailsService cachingService = new CachingUserDetailsService(
+                username -> User.withUserDetails(userDetailsServiceForFilter.loadUserByUsername(username)).build());
+        cachingService.setUserCache(userCache);
+        return cachingService;
     }
 
     @Bean
@@ -69,6 +83,8 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // Completion of streamed responses (SSE); the original request was already authorised
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
             .authenticationProvider(authenticationProvider())
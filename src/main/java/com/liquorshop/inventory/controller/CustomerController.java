@@ -8,12 +8,15 @@ import com.liquorshop.inventory.dto.PriceTemplateRequest;
 import com.liquorshop.inventory.dto.PriceTemplateResponse;
 import com.liquorshop.inventory.service.CustomerService;
 import com.liquorshop.inventory.service.SaleService;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,30 +24,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CustomerController {
 
+    private static final int MAX_STATEMENT_PAGE_SIZE = 500;
+
     private final CustomerService customerService;
     private final SaleService saleService;
 
+    @SqlBudget(1)
     @GetMapping
     public ResponseEntity<List<CustomerResponse>> getAll() {
         return ResponseEntity.ok(customerService.getAll());
     }
 
+    @SqlBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<CustomerResponse> getById(@PathVariable Long id) {
         return ResponseEntity.ok(customerService.getById(id));
     }
 
+    @SqlBudget(2)
     @PostMapping
     public ResponseEntity<CustomerResponse> create(@Valid @RequestBody CustomerRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(customerService.create(request));
     }
 
+    @SqlBudget(2)
     @PutMapping("/{id}")
     public ResponseEntity<CustomerResponse> update(@PathVariable Long id,
                                                     @Valid @RequestBody CustomerRequest request) {
         return ResponseEntity.ok(customerService.update(id, request));
     }
 
+    @SqlBudget(3)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         customerService.delete(id);
@@ -53,11 +63,13 @@ public class CustomerController {
 
     // ── Price Template ──────────────────────────────────────────────────────
 
+    @SqlBudget(2)
     @GetMapping("/{id}/price-template")
     public ResponseEntity<List<PriceTemplateResponse>> getTemplate(@PathVariable Long id) {
         return ResponseEntity.ok(customerService.getTemplate(id));
     }
 
+    @SqlBudget(4)
     @PostMapping("/{id}/price-template")
     public ResponseEntity<PriceTemplateResponse> upsertTemplateEntry(
             @PathVariable Long id,
@@ -65,6 +77,7 @@ public class CustomerController {
         return ResponseEntity.ok(customerService.upsertTemplateEntry(id, request));
     }
 
+    @SqlBudget(3)
     @DeleteMapping("/{id}/price-template/{productId}")
     public ResponseEntity<Void> deleteTemplateEntry(@PathVariable Long id,
                                                      @PathVariable Long productId) {
@@ -74,11 +87,19 @@ public class CustomerController {
 
     // ── Statement & Payment History ─────────────────────────────────────────
 
+    @SqlBudget(4)
     @GetMapping("/{id}/statement")
-    public ResponseEntity<CustomerStatementResponse> getStatement(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getStatement(id));
+    public ResponseEntity<CustomerStatementResponse> getStatement(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_STATEMENT_PAGE_SIZE);
+        return ResponseEntity.ok(customerService.getStatement(id, from, to, cursor, pageSize));
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}/payments")
     public ResponseEntity<List<PaymentResponse>> getPayments(@PathVariable Long id) {
         return ResponseEntity.ok(saleService.getCustomerPayments(id));
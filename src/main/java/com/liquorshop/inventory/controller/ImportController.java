@@ -1,18 +1,27 @@
 package com.liquorshop.inventory.controller;
 
+import com.liquorshop.inventory.dto.ImportJobResponse;
 import com.liquorshop.inventory.dto.ImportResult;
 import com.liquorshop.inventory.service.bulk.BulkCustomerService;
 import com.liquorshop.inventory.service.bulk.BulkProductService;
 import com.liquorshop.inventory.service.bulk.BulkPurchasesService;
 import com.liquorshop.inventory.service.bulk.BulkSalesService;
+import com.liquorshop.inventory.service.bulk.ImportJobService;
+import com.liquorshop.inventory.service.bulk.ImportType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 /**
  * Bulk import endpoints — accept CSV or Excel (.xlsx) files.
  * <p>
@@ -23,6 +32,16 @@ import org.springframework.web.multipart.MultipartFile;
  * <p>
  * All endpoints accept a multipart/form-data request with a single field named "file".
  * They return an ImportResult describing how many rows succeeded and which rows failed with reasons.
+ * <p>
+ * POST /api/import/purchases/parallel, /api/import/sales/parallel — one or more "file" parts,
+ * imported side by side; invoices touching the same product still apply in file order.
+ * Returns one ImportResult per file.
+ * <p>
+ * Large files can run as background jobs instead:
+ * POST   /api/import/{type}/jobs  — start an import job (type: products, customers, purchases, sales)
+ * GET    /api/import/jobs         — recent jobs
+ * GET    /api/import/jobs/{id}    — progress: rows processed, throughput, errors so far, ETA
+ * DELETE /api/import/jobs/{id}    — cancel; stops at the next chunk boundary
  */
 @RestController
 @RequestMapping("/api/import")
@@ -33,6 +52,7 @@ public class ImportController {
     private final BulkPurchasesService bulkPurchasesService;
     private final BulkSalesService bulkSalesService;
     private final BulkProductService bulkProductService;
+    private final ImportJobService importJobService;
 
     @PostMapping("/products")
     public ResponseEntity<ImportResult> importProducts(@RequestParam("file") MultipartFile file) throws Exception {
@@ -53,4 +73,45 @@ public class ImportController {
     public ResponseEntity<ImportResult> importSales(@RequestParam("file") MultipartFile file) throws Exception {
         return ResponseEntity.ok(bulkSalesService.importSales(file));
     }
+
+    @PostMapping("/purchases/parallel")
+    public ResponseEntity<List<ImportResult>> importPurchasesParallel(
+            @RequestParam("file") List<MultipartFile> files) throws Exception {
+        return ResponseEntity.ok(bulkPurchasesService.importPurchasesParallel(files));
+    }
+
+    @PostMapping("/sales/parallel")
+    public ResponseEntity<List<ImportResult>> importSalesParallel(
+            @RequestParam("file") List<MultipartFile> files) throws Exception {
+        return ResponseEntity.ok(bulkSalesService.importSalesParallel(files));
+    }
+
+    // ── Background jobs ──────────────────────────────────────────────────────
+
+    @PostMapping("/{type}/jobs")
+    public ResponseEntity<ImportJobResponse> submitJob(@PathVariable String type,
+                                                       @RequestParam("file") MultipartFile file) throws Exception {
+        ImportType importType;
+        try {
+            importType = ImportType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown import type: " + type);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.submit(importType, file));
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ImportJobResponse>> getJobs() {
+        return ResponseEntity.ok(importJobService.getJobs());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(importJobService.getJob(id));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ImportJobResponse> cancelJob(@PathVariable String id) {
+        return ResponseEntity.ok(importJobService.cancel(id));
+    }
 }
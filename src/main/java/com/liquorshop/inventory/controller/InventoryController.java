@@ -4,6 +4,7 @@ import com.liquorshop.inventory.dto.CurrentInventoryResponse;
 import com.liquorshop.inventory.dto.ExpiringBatchResponse;
 import com.liquorshop.inventory.dto.LowStockResponse;
 import com.liquorshop.inventory.service.InventoryService;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,16 +18,19 @@ public class InventoryController {
 
     private final InventoryService inventoryService;
 
+    @SqlBudget(1)
     @GetMapping
     public ResponseEntity<List<CurrentInventoryResponse>> getCurrentInventory() {
         return ResponseEntity.ok(inventoryService.getCurrentInventory());
     }
 
+    @SqlBudget(1)
     @GetMapping("/low-stock")
     public ResponseEntity<List<LowStockResponse>> getLowStock() {
         return ResponseEntity.ok(inventoryService.getLowStock());
     }
 
+    @SqlBudget(2)
     @GetMapping("/expiring")
     public ResponseEntity<List<ExpiringBatchResponse>> getExpiringBatches(
             @RequestParam(required = false) Integer days) {
@@ -0,0 +1,25 @@
+package com.liquorshop.inventory.controller;
+
+import com.liquorshop.inventory.service.live.LiveFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/live")
+@RequiredArgsConstructor
+public class LiveController {
+
+    private final LiveFeed liveFeed;
+
+    /**
+     * Server-sent event stream of committed sales, low-stock and restocked products, batches that
+     * are received inside or enter the expiry warning window, and payments. Browsers resend the last event id on reconnect; events still
+     * in the replay buffer after it are sent first.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return liveFeed.subscribe(lastEventId);
+    }
+}
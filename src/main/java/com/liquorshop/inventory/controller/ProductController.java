@@ -2,7 +2,9 @@ package com.liquorshop.inventory.controller;
 
 import com.liquorshop.inventory.dto.ProductRequest;
 import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.dto.ProductSearchResponse;
 import com.liquorshop.inventory.service.ProductService;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,35 +18,62 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductService productService;
 
+    @SqlBudget(2)
     @GetMapping
     public ResponseEntity<List<ProductResponse>> getAll(@RequestParam(required = false) boolean excludeQuantityZero) {
         return ResponseEntity.ok(productService.getAll(excludeQuantityZero));
     }
 
+    @SqlBudget(1)
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String volumeMl,
+            @RequestParam(required = false) boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.search(q, category, volumeMl, inStock,
+                Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE)));
+    }
+
+    @SqlBudget(1)
+    @GetMapping("/barcode/{barcode}")
+    public ResponseEntity<ProductResponse> getByBarcode(@PathVariable String barcode) {
+        return ResponseEntity.ok(productService.getByBarcode(barcode));
+    }
+
+    @SqlBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getById(id));
     }
 
+    @SqlBudget(2)
     @PostMapping
     public ResponseEntity<ProductResponse> create(@Valid @RequestBody ProductRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(productService.create(request));
     }
 
+    @SqlBudget(2)
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> update(@PathVariable Long id,
                                                    @Valid @RequestBody ProductRequest request) {
         return ResponseEntity.ok(productService.update(id, request));
     }
 
+    @SqlBudget(2)
     @PatchMapping("/{id}/toggle-status")
     public ResponseEntity<Void> toggleStatus(@PathVariable Long id) {
         productService.toggleStatus(id);
         return ResponseEntity.noContent().build();
     }
 
+    @SqlBudget(2)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         productService.delete(id);
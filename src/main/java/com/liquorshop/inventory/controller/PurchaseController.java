@@ -1,16 +1,20 @@
 package com.liquorshop.inventory.controller;
 
+import com.liquorshop.inventory.dto.CursorPage;
 import com.liquorshop.inventory.dto.PaymentRequest;
 import com.liquorshop.inventory.dto.PaymentResponse;
 import com.liquorshop.inventory.dto.PurchaseInput;
 import com.liquorshop.inventory.dto.PurchaseResponse;
 import com.liquorshop.inventory.service.PurchaseService;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,13 +22,23 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PurchaseController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final PurchaseService purchaseService;
 
+    @SqlBudget(1)
     @GetMapping
-    public ResponseEntity<List<PurchaseResponse>> getAll() {
-        return ResponseEntity.ok(purchaseService.getAll());
+    public ResponseEntity<CursorPage<PurchaseResponse>> getAll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return ResponseEntity.ok(purchaseService.getPage(from, to, supplierId, cursor, pageSize));
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<PurchaseResponse> getById(@PathVariable Long id) {
         return ResponseEntity.ok(purchaseService.getById(id));
@@ -35,12 +49,14 @@ public class PurchaseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(purchaseService.create(input));
     }
 
+    @SqlBudget(7)
     @PostMapping("/{id}/payments")
     public ResponseEntity<PaymentResponse> addPayment(@PathVariable Long id,
                                                        @Valid @RequestBody PaymentRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(purchaseService.addPayment(id, request));
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}/payments")
     public ResponseEntity<List<PaymentResponse>> getPayments(@PathVariable Long id) {
         return ResponseEntity.ok(purchaseService.getPayments(id));
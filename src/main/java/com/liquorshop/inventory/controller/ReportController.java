@@ -1,14 +1,21 @@
 package com.liquorshop.inventory.controller;
 
 import com.liquorshop.inventory.dto.*;
+import com.liquorshop.inventory.service.DashboardSnapshotService;
 import com.liquorshop.inventory.service.ReportService;
+import com.liquorshop.inventory.service.SalesRollupService;
+import com.liquorshop.inventory.service.export.ExportFormat;
+import com.liquorshop.inventory.service.export.RowExporter;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -16,11 +23,15 @@ import java.util.List;
 public class ReportController {
 
     private final ReportService reportService;
+    private final SalesRollupService salesRollupService;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final RowExporter rowExporter;
 
     /**
      * Daily sales summary — one row per calendar day in the range.
      * Includes total sales, profit, VAT, walk-in vs customer split.
      */
+    @SqlBudget(1)
     @GetMapping("/daily-sales")
     public ResponseEntity<List<DailySalesRow>> getDailySales(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
@@ -30,9 +41,47 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getDailySales(from, to));
     }
 
+    /**
+     * Daily sales streamed as NDJSON (default) or CSV.
+     */
+    @GetMapping("/daily-sales/export")
+    public ResponseEntity<StreamingResponseBody> exportDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        LocalDate start = from != null ? from : LocalDate.now().minusDays(30);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return rowExporter.export("daily-sales", ExportFormat.of(format), DailySalesRow.class,
+                sink -> reportService.exportDailySales(start, end, sink));
+    }
+
+    /**
+     * Compares the daily sales rollup with a full recompute from sales / sale_lines.
+     */
+    @SqlBudget(3)
+    @GetMapping("/daily-sales/rollup/check")
+    public ResponseEntity<RollupCheckResponse> checkDailySalesRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from == null) from = LocalDate.now().minusDays(30);
+        if (to == null) to = LocalDate.now();
+        return ResponseEntity.ok(salesRollupService.check(from, to));
+    }
+
+    /**
+     * Rebuilds the daily sales rollup from sales / sale_lines. Without dates, rebuilds all days.
+     */
+    @PostMapping("/daily-sales/rollup/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDailySalesRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(Map.of("daysRebuilt", salesRollupService.rebuild(from, to)));
+    }
+
     /**
      * Per-product profit & loss — revenue, cost (WAC), profit, margin %.
      */
+    @SqlBudget(1)
     @GetMapping("/profit-loss")
     public ResponseEntity<List<ProfitLossRow>> getProfitLoss(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
@@ -42,10 +91,25 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getProfitLoss(from, to));
     }
 
+    /**
+     * Per-product profit & loss streamed as NDJSON (default) or CSV.
+     */
+    @GetMapping("/profit-loss/export")
+    public ResponseEntity<StreamingResponseBody> exportProfitLoss(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        LocalDate start = from != null ? from : LocalDate.now().minusDays(30);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return rowExporter.export("profit-loss", ExportFormat.of(format), ProfitLossRow.class,
+                sink -> reportService.exportProfitLoss(start, end, sink));
+    }
+
     /**
      * Purchase history with per-purchase payment totals and outstanding balance.
      * Optional supplierId filter.
      */
+    @SqlBudget(1)
     @GetMapping("/purchase-report")
     public ResponseEntity<List<PurchaseReportRow>> getPurchaseReport(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
@@ -59,6 +123,7 @@ public class ReportController {
     /**
      * VAT report — purchase VAT input, sales VAT output, net liability.
      */
+    @SqlBudget(2)
     @GetMapping("/vat-report")
     public ResponseEntity<VatReportResponse> getVatReport(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
@@ -72,6 +137,7 @@ public class ReportController {
      * Full stock movement for a single product — purchases IN, sales OUT,
      * with a running balance column.
      */
+    @SqlBudget(1)
     @GetMapping("/stock-movement")
     public ResponseEntity<List<StockMovementRow>> getStockMovement(
             @RequestParam Long productId,
@@ -82,9 +148,25 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getStockMovement(productId, from, to));
     }
 
+    /**
+     * Stock movement for a product streamed as NDJSON (default) or CSV.
+     */
+    @GetMapping("/stock-movement/export")
+    public ResponseEntity<StreamingResponseBody> exportStockMovement(
+            @RequestParam Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        LocalDate start = from != null ? from : LocalDate.now().minusDays(90);
+        LocalDate end = to != null ? to : LocalDate.now();
+        return rowExporter.export("stock-movement-" + productId, ExportFormat.of(format), StockMovementRow.class,
+                sink -> reportService.exportStockMovement(productId, start, end, sink));
+    }
+
     /**
      * Top N products by quantity sold in the period. Default limit = 10.
      */
+    @SqlBudget(1)
     @GetMapping("/fast-moving-products")
     public ResponseEntity<List<FastMovingProductRow>> getFastMovingProducts(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
@@ -99,6 +181,7 @@ public class ReportController {
      * Products with current stock > 0 that have had no sales in the last
      * {@code days} days (default 30). Products never sold are included.
      */
+    @SqlBudget(1)
     @GetMapping("/dead-stock")
     public ResponseEntity<List<DeadStockRow>> getDeadStock(
             @RequestParam(defaultValue = "30") int days) {
@@ -108,22 +191,27 @@ public class ReportController {
     /**
      * Suppliers with unpaid invoice balances, ordered by outstanding amount.
      */
+    @SqlBudget(1)
     @GetMapping("/supplier-outstanding")
     public ResponseEntity<List<SupplierOutstandingRow>> getSupplierOutstanding() {
         return ResponseEntity.ok(reportService.getSupplierOutstanding());
     }
 
     /**
-     * Owner dashboard — today's KPIs plus inventory and credit health summary.
+     * Owner dashboard — today's KPIs plus inventory and credit health summary, served from an
+     * in-memory snapshot kept current as transactions commit and reconciled with the database
+     * every inventory.dashboard.reconcile-interval.
      */
+    @SqlBudget(7)
     @GetMapping("/dashboard")
     public ResponseEntity<DashboardResponse> getDashboard() {
-        return ResponseEntity.ok(reportService.getDashboard());
+        return ResponseEntity.ok(dashboardSnapshotService.get());
     }
 
     /**
      * Sales grouped by product category with revenue share %.
      */
+    @SqlBudget(1)
     @GetMapping("/category-sales")
     public ResponseEntity<List<CategorySalesRow>> getCategorySales(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
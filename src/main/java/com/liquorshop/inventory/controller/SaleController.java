@@ -1,16 +1,23 @@
 package com.liquorshop.inventory.controller;
 
+import com.liquorshop.inventory.dto.CursorPage;
 import com.liquorshop.inventory.dto.PaymentRequest;
 import com.liquorshop.inventory.dto.PaymentResponse;
 import com.liquorshop.inventory.dto.SaleInput;
 import com.liquorshop.inventory.dto.SaleResponse;
 import com.liquorshop.inventory.service.SaleService;
+import com.liquorshop.inventory.service.export.ExportFormat;
+import com.liquorshop.inventory.service.export.RowExporter;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,13 +25,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SaleController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final SaleService saleService;
+    private final RowExporter rowExporter;
 
+    @SqlBudget(1)
     @GetMapping
-    public ResponseEntity<List<SaleResponse>> getAll() {
-        return ResponseEntity.ok(saleService.getAll());
+    public ResponseEntity<CursorPage<SaleResponse>> getAll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return ResponseEntity.ok(saleService.getPage(from, to, customerId, paymentStatus, cursor, pageSize));
+    }
+
+    // Every matching sale, streamed as NDJSON (default) or CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        return rowExporter.export("sales", ExportFormat.of(format), SaleResponse.class,
+                sink -> saleService.exportSales(from, to, customerId, paymentStatus, sink));
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<SaleResponse> getById(@PathVariable Long id) {
         return ResponseEntity.ok(saleService.getById(id));
@@ -35,12 +66,14 @@ public class SaleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saleService.create(input));
     }
 
+    @SqlBudget(9)
     @PostMapping("/{id}/payments")
     public ResponseEntity<PaymentResponse> addPayment(@PathVariable Long id,
                                                        @Valid @RequestBody PaymentRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(saleService.addPayment(id, request));
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}/payments")
     public ResponseEntity<List<PaymentResponse>> getPayments(@PathVariable Long id) {
         return ResponseEntity.ok(saleService.getPayments(id));
@@ -1,52 +1,99 @@
 package com.liquorshop.inventory.controller;
 
+import com.liquorshop.inventory.dto.SupplierReconciliationResponse;
 import com.liquorshop.inventory.dto.SupplierRequest;
 import com.liquorshop.inventory.dto.SupplierResponse;
+import com.liquorshop.inventory.dto.SupplierStatementResponse;
+import com.liquorshop.inventory.service.SupplierLedgerService;
 import com.liquorshop.inventory.service.SupplierService;
+import com.liquorshop.inventory.service.metrics.SqlBudget;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/suppliers")
 @RequiredArgsConstructor
 public class SupplierController {
 
+    private static final int MAX_STATEMENT_PAGE_SIZE = 500;
+
     private final SupplierService supplierService;
+    private final SupplierLedgerService supplierLedgerService;
 
+    @SqlBudget(1)
     @GetMapping
     public ResponseEntity<List<SupplierResponse>> getAll() {
         return ResponseEntity.ok(supplierService.getAll());
     }
 
+    @SqlBudget(1)
     @GetMapping("/active")
     public ResponseEntity<List<SupplierResponse>> getActive() {
         return ResponseEntity.ok(supplierService.getActive());
     }
 
+    @SqlBudget(1)
     @GetMapping("/{id}")
     public ResponseEntity<SupplierResponse> getById(@PathVariable Long id) {
         return ResponseEntity.ok(supplierService.getById(id));
     }
 
+    @SqlBudget(1)
     @PostMapping
     public ResponseEntity<SupplierResponse> create(@Valid @RequestBody SupplierRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(supplierService.create(request));
     }
 
+    @SqlBudget(2)
     @PutMapping("/{id}")
     public ResponseEntity<SupplierResponse> update(@PathVariable Long id,
                                                     @Valid @RequestBody SupplierRequest request) {
         return ResponseEntity.ok(supplierService.update(id, request));
     }
 
+    @SqlBudget(2)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         supplierService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // ── Statement & Reconciliation ──────────────────────────────────────────
+
+    @SqlBudget(4)
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<SupplierStatementResponse> getStatement(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_STATEMENT_PAGE_SIZE);
+        return ResponseEntity.ok(supplierService.getStatement(id, from, to, cursor, pageSize));
+    }
+
+    /**
+     * Compares every supplier's stored totals and ledger with purchases / purchase_payments.
+     */
+    @SqlBudget(1)
+    @GetMapping("/reconciliation")
+    public ResponseEntity<SupplierReconciliationResponse> reconcile() {
+        return ResponseEntity.ok(supplierLedgerService.check());
+    }
+
+    /**
+     * Rewrites every supplier's totals and ledger from purchases / purchase_payments.
+     */
+    @PostMapping("/reconciliation/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        return ResponseEntity.ok(Map.of("ledgerRowsRebuilt", supplierLedgerService.rebuild()));
+    }
 }
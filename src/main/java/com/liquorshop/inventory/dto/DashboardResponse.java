@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -19,4 +20,8 @@ public class DashboardResponse {
     private BigDecimal pendingCustomerCredit;
     /** Total purchase invoices minus total purchase payments made */
     private BigDecimal pendingSupplierPayments;
+    /** When the figures were last recomputed from the database; sales, payments and stock changes are applied since */
+    private LocalDateTime computedAt;
+    /** Milliseconds since computedAt */
+    private long snapshotAgeMs;
 }
@@ -0,0 +1,33 @@
+package com.liquorshop.inventory.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ImportJobResponse {
+
+    private String jobId;
+    private String type;
+    private String fileName;
+    /** QUEUED, RUNNING, COMPLETED, FAILED or CANCELLED */
+    private String status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Counts as of the last completed chunk
+    private int rowsProcessed;
+    private int successCount;
+    private int failureCount;
+    private double rowsPerSecond;
+    /** Share of the file read so far (0–100); null until the reader has started */
+    private Double percentComplete;
+    /** Estimated seconds left, extrapolated from read progress; null when not running */
+    private Long etaSeconds;
+    /** Reason the job failed, if it did */
+    private String message;
+    /** First 100 row errors; failureCount has the full count */
+    private List<ImportResult.RowError> errors;
+}
@@ -1,5 +1,6 @@
 package com.liquorshop.inventory.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.ArrayList;
@@ -8,6 +9,9 @@ import java.util.List;
 @Data
 public class ImportResult {
 
+    /** Set when several files are imported in one request */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String fileName;
     private int totalRows;
     private int successCount;
     private int failureCount;
@@ -22,6 +26,10 @@ public class ImportResult {
         successCount++;
     }
 
+    public void incrementSuccess(int count) {
+        successCount += count;
+    }
+
     @Data
     public static class RowError {
         private final int row;
@@ -0,0 +1,18 @@
+package com.liquorshop.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private List<ProductResponse> items;
+    // Matches across all pages
+    private int total;
+    private int page;
+    private int size;
+}
@@ -0,0 +1,53 @@
+package com.liquorshop.inventory.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of comparing the sales rollups with a full recompute from sales / sale_lines.
+ */
+@Data
+@NoArgsConstructor
+public class RollupCheckResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    /** Days that have a rollup row, recomputed sales, or both */
+    private int daysChecked;
+    private List<Mismatch> mismatches = new ArrayList<>();
+    /** First 100 product days that differ from product_daily_sales */
+    private List<ProductDayMismatch> productDayMismatches = new ArrayList<>();
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty() && productDayMismatches.isEmpty();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Mismatch {
+        private LocalDate date;
+        /** Null when the day has sales but no rollup row */
+        private DailySalesRow rollup;
+        /** Null when the rollup has a row for a day without sales */
+        private DailySalesRow recomputed;
+    }
+
+    /** Null rollup / recomputed values mean the row is missing on that side */
+    @Data
+    @NoArgsConstructor
+    public static class ProductDayMismatch {
+        private Long productId;
+        private LocalDate date;
+        private Long rollupQuantity;
+        private Long recomputedQuantity;
+        private BigDecimal rollupRevenue;
+        private BigDecimal recomputedRevenue;
+        private BigDecimal rollupProfit;
+        private BigDecimal recomputedProfit;
+    }
+}
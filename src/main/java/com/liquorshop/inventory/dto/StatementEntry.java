@@ -0,0 +1,21 @@
+package com.liquorshop.inventory.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One ledger row on a customer or supplier statement.
+ */
+@Data
+public class StatementEntry {
+    private LocalDateTime date;
+    private String type;           // SALE | PURCHASE | PAYMENT
+    private String reference;      // invoice or VAT bill number, or payment ID
+    private String paymentMethod;  // null for SALE and PURCHASE entries
+    private String referenceNumber;// cheque/txn ID for payments
+    private BigDecimal debit;      // amount added to the balance (SALE, PURCHASE)
+    private BigDecimal credit;     // amount reducing the balance (PAYMENT)
+    private BigDecimal balance;    // balance after this entry
+}
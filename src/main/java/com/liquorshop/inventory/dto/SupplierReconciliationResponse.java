@@ -0,0 +1,41 @@
+package com.liquorshop.inventory.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of comparing the suppliers' stored totals and ledger balances with a recompute from
+ * purchases / purchase_payments.
+ */
+@Data
+@NoArgsConstructor
+public class SupplierReconciliationResponse {
+
+    private int suppliersChecked;
+    private List<Mismatch> mismatches = new ArrayList<>();
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Mismatch {
+        private Long supplierId;
+        private String supplierName;
+        /** Stored on the supplier */
+        private int purchaseCount;
+        private BigDecimal totalPurchased;
+        private BigDecimal totalPaid;
+        /** From purchases / purchase_payments */
+        private int recomputedPurchaseCount;
+        private BigDecimal recomputedTotalPurchased;
+        private BigDecimal recomputedTotalPaid;
+        /** SUM(debit - credit) of the supplier's ledger rows */
+        private BigDecimal ledgerBalance;
+    }
+}
@@ -2,6 +2,7 @@ package com.liquorshop.inventory.dto;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,5 +15,9 @@ public class SupplierResponse {
     private String address;
     private String vatPanNumber;
     private String status;
+    private int purchaseCount;
+    private BigDecimal totalPurchased;
+    private BigDecimal totalPaid;
+    private BigDecimal outstandingBalance;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,20 @@
+package com.liquorshop.inventory.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class SupplierStatementResponse {
+
+    private Long supplierId;
+    private String supplierName;
+    private BigDecimal outstandingBalance;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal openingBalance;    // balance before the first entry of this page
+    private List<StatementEntry> entries;
+    private String nextCursor;            // null on the last page
+}
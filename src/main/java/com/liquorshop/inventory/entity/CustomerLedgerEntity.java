@@ -0,0 +1,23 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One posting to a customer's account (SALE or PAYMENT), written by CustomerLedgerService in the
+ * same transaction as the sale or payment. A sale settled at the till is posted with an equal
+ * credit, so SUM(debit - credit) over a customer's rows is their outstanding balance.
+ */
+@Entity
+@Table(name = "customer_ledger")
+@AttributeOverride(name = "accountId", column = @Column(name = "customer_id", nullable = false))
+@Getter
+@Setter
+@NoArgsConstructor
+public class CustomerLedgerEntity extends LedgerEntryEntity {
+
+    @Column(name = "sale_id")
+    private Long saleId;
+}
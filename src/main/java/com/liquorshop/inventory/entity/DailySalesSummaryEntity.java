@@ -0,0 +1,45 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row per calendar day with sales, maintained by SalesRollupService as the outbox delivers
+ * each committed sale. Reports read these rows instead of aggregating sales and sale_lines.
+ */
+@Entity
+@Table(name = "daily_sales_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailySalesSummaryEntity {
+
+    @Id
+    @Column(name = "summary_date")
+    private LocalDate summaryDate;
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount = 0L;
+
+    @Column(name = "total_sales", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalSales = BigDecimal.ZERO;
+
+    @Column(name = "total_vat", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalVat = BigDecimal.ZERO;
+
+    // Sales without a customer
+    @Column(name = "walk_in_sales", nullable = false, precision = 14, scale = 2)
+    private BigDecimal walkInSales = BigDecimal.ZERO;
+
+    @Column(name = "customer_sales", nullable = false, precision = 14, scale = 2)
+    private BigDecimal customerSales = BigDecimal.ZERO;
+
+    // SUM(quantity * (unit_price - cost_price_at_sale)) over the day's sale lines
+    @Column(name = "total_profit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalProfit = BigDecimal.ZERO;
+}
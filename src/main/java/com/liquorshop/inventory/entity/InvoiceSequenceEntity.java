@@ -0,0 +1,23 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "invoice_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+public class InvoiceSequenceEntity {
+
+    // Calendar year the sequence belongs to: INV-<seqYear>-NNNNN
+    @Id
+    @Column(name = "seq_year")
+    private Integer seqYear;
+
+    // Last number handed out for this year; incremented in the sale's own transaction
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue = 0L;
+}
@@ -0,0 +1,58 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns shared by the customer and supplier ledgers. Each subclass maps {@code accountId} to its
+ * own column (customer_id, supplier_id) and adds the document the entry came from. SUM(debit - credit)
+ * over an account's rows is its balance.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class LedgerEntryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDateTime entryDate;
+
+    // SALE | PURCHASE | PAYMENT
+    @Column(name = "entry_type", nullable = false)
+    private String entryType;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    // Invoice or VAT bill number, or PAY-<payment id>
+    @Column(name = "reference", nullable = false)
+    private String reference;
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    @Column(name = "reference_number")
+    private String referenceNumber;
+
+    @Column(name = "debit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal debit = BigDecimal.ZERO;
+
+    @Column(name = "credit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal credit = BigDecimal.ZERO;
+
+    public BigDecimal net() {
+        return debit.subtract(credit);
+    }
+}
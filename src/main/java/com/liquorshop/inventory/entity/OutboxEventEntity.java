@@ -0,0 +1,59 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect of a committed write, waiting for OutboxDispatcher. Written in the same
+ * transaction as the sale or purchase it refers to, so it exists exactly when that write does.
+ * Dispatched rows are kept for {@code inventory.outbox.retention} and then deleted.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SALE_CREATED | PURCHASE_CREATED
+    @Column(name = "event_type", nullable = false, length = 40)
+    private String eventType;
+
+    // Id of the sale or purchase; handlers read it back rather than trusting a copy
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Not picked up before this; pushed back after a failed attempt
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    @ColumnDefault("0")
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales per product per calendar day, maintained by SalesRollupService alongside
+ * daily_sales_summary. The per-product reports (profit & loss, fast moving, category sales) sum
+ * these rows instead of scanning sale_lines.
+ */
+@Entity
+@Table(name = "product_daily_sales")
+@IdClass(ProductDailySalesEntity.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductDailySalesEntity {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "sale_date")
+    private LocalDate saleDate;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity = 0L;
+
+    // SUM(line_total)
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    // SUM(quantity * cost_price_at_sale)
+    @Column(name = "cost", nullable = false, precision = 14, scale = 2)
+    private BigDecimal cost = BigDecimal.ZERO;
+
+    // SUM(quantity * (unit_price - cost_price_at_sale))
+    @Column(name = "profit", nullable = false, precision = 14, scale = 2)
+    private BigDecimal profit = BigDecimal.ZERO;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long productId;
+        private LocalDate saleDate;
+    }
+}
@@ -1,5 +1,6 @@
 package com.liquorshop.inventory.entity;
 
+import com.liquorshop.inventory.service.catalog.ProductChangeTracker;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -7,12 +8,15 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductChangeTracker.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -62,6 +66,10 @@ public class ProductEntity {
     @Column(name = "average_cost", nullable = false, precision = 10, scale = 2)
     private BigDecimal averageCost = BigDecimal.ZERO;
 
+    // Date of the latest sale; kept by SalesRollupService in SQL only, never written from here
+    @Column(name = "last_sold_date", insertable = false, updatable = false)
+    private LocalDate lastSoldDate;
+
     // ACTIVE | INACTIVE
     @Column(name = "status", nullable = false)
     private String status = "ACTIVE";
@@ -73,6 +81,12 @@ public class ProductEntity {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Bumped on every write (a write from a stale copy fails), so it orders the snapshots ProductChangeTracker publishes
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// Keyset pagination on the sales list walks these in (sale_date, id) order, optionally within one
+// customer or payment status
 @Table(name = "sales")
 @Getter
 @Setter
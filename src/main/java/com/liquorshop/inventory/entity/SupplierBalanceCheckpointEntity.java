@@ -0,0 +1,45 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A supplier's balance at the start of a month: SUM(debit - credit) of its ledger rows dated
+ * before {@code asOf}. One row per supplier per month with postings, so a statement's opening
+ * balance sums at most one month of ledger rows.
+ */
+@Entity
+@Table(name = "supplier_balance_checkpoints")
+@IdClass(SupplierBalanceCheckpointEntity.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class SupplierBalanceCheckpointEntity {
+
+    @Id
+    @Column(name = "supplier_id")
+    private Long supplierId;
+
+    @Id
+    @Column(name = "as_of")
+    private LocalDate asOf;
+
+    @Column(name = "balance", nullable = false, precision = 14, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long supplierId;
+        private LocalDate asOf;
+    }
+}
@@ -5,7 +5,9 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -38,6 +40,20 @@ public class SupplierEntity {
     @Column(name = "status", nullable = false)
     private String status = "ACTIVE";
 
+    // Running totals kept by SupplierLedgerService with every purchase and payment. Added to in SQL
+    // at commit, so never written back from the entity, which may hold values read before that.
+    @ColumnDefault("0")
+    @Column(name = "purchase_count", nullable = false, updatable = false)
+    private Integer purchaseCount = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "total_purchased", nullable = false, updatable = false, precision = 14, scale = 2)
+    private BigDecimal totalPurchased = BigDecimal.ZERO;
+
+    @ColumnDefault("0")
+    @Column(name = "total_paid", nullable = false, updatable = false, precision = 14, scale = 2)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,23 @@
+package com.liquorshop.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One posting to a supplier's account, written by SupplierLedgerService in the same transaction
+ * as the purchase or payment: a PURCHASE debits its invoice amount, a PAYMENT credits its amount.
+ * SUM(debit - credit) over a supplier's rows is what is owed to them.
+ */
+@Entity
+@Table(name = "supplier_ledger")
+@AttributeOverride(name = "accountId", column = @Column(name = "supplier_id", nullable = false))
+@Getter
+@Setter
+@NoArgsConstructor
+public class SupplierLedgerEntity extends LedgerEntryEntity {
+
+    @Column(name = "purchase_id")
+    private Long purchaseId;
+}
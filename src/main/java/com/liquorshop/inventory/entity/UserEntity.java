@@ -1,5 +1,6 @@
 package com.liquorshop.inventory.entity;
 
+import com.liquorshop.inventory.security.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -15,6 +16,7 @@ import java.util.Collections;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,5 +1,6 @@
 package com.liquorshop.inventory.exception;
 
+import com.liquorshop.inventory.service.metrics.SqlBudgetExceededException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -143,6 +144,14 @@ public class GlobalExceptionHandler {
         return buildResponse(ex, HttpStatus.METHOD_NOT_ALLOWED, request);
     }
 
+    // A handler went over its @SqlBudget with fail-on-exceed set: a bug, not a bad request
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<Object> handleSqlBudgetExceeded(
+            SqlBudgetExceededException ex, WebRequest request) {
+
+        return buildResponse(ex, HttpStatus.INTERNAL_SERVER_ERROR, request);
+    }
+
     // Handle entity not found
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<Object> handleEntityNotFound(
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,6 +26,18 @@ public interface BatchRepository extends JpaRepository<BatchEntity, Long> {
         """)
     List<BatchEntity> findAvailableByProductId(@Param("productId") Long productId);
 
+    // Same allocation order as findAvailableByProductId, for every product on an invoice at once
+    @Query("""
+        SELECT b FROM BatchEntity b
+        WHERE b.product.id IN :productIds AND b.currentQuantity > 0
+        ORDER BY
+            b.product.id ASC,
+            CASE WHEN b.expiryDate IS NULL THEN 1 ELSE 0 END ASC,
+            b.expiryDate ASC NULLS LAST,
+            b.createdAt ASC
+        """)
+    List<BatchEntity> findAvailableByProductIds(@Param("productIds") Collection<Long> productIds);
+
     // Batches expiring on or before the given date with stock remaining
     @Query("""
         SELECT b FROM BatchEntity b
@@ -35,6 +48,16 @@ public interface BatchRepository extends JpaRepository<BatchEntity, Long> {
         """)
     List<BatchEntity> findExpiringWithStock(@Param("cutoffDate") LocalDate cutoffDate);
 
+    // Batches with stock expiring in (after, until], with their products
+    @Query("""
+        SELECT b FROM BatchEntity b JOIN FETCH b.product
+        WHERE b.expiryDate > :after
+          AND b.expiryDate <= :until
+          AND b.currentQuantity > 0
+        ORDER BY b.expiryDate ASC, b.id ASC
+        """)
+    List<BatchEntity> findWithStockExpiringBetween(@Param("after") LocalDate after, @Param("until") LocalDate until);
+
     // Total current stock for a product across all batches
     @Query("SELECT COALESCE(SUM(b.currentQuantity), 0) FROM BatchEntity b WHERE b.product.id = :productId")
     Integer sumCurrentQuantityByProductId(@Param("productId") Long productId);
@@ -15,6 +15,10 @@ public interface CustomerPriceTemplateRepository extends JpaRepository<CustomerP
     @Query("SELECT t FROM CustomerPriceTemplateEntity t JOIN FETCH t.product WHERE t.customer.id = :customerId")
     List<CustomerPriceTemplateEntity> findByCustomerIdWithProduct(@Param("customerId") Long customerId);
 
+    // [productId, sellingPrice] for every template entry of a customer
+    @Query("SELECT t.product.id, t.sellingPrice FROM CustomerPriceTemplateEntity t WHERE t.customer.id = :customerId")
+    List<Object[]> findPricesByCustomerId(@Param("customerId") Long customerId);
+
     Optional<CustomerPriceTemplateEntity> findByCustomerIdAndProductId(Long customerId, Long productId);
 
     void deleteByCustomerIdAndProductId(Long customerId, Long productId);
@@ -1,9 +1,14 @@
 package com.liquorshop.inventory.repository;
 
 import com.liquorshop.inventory.entity.CustomerEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,12 @@ public interface CustomerRepository extends JpaRepository<CustomerEntity, Long>
     List<CustomerEntity> findAllByOrderByNameAsc();
 
     Optional<CustomerEntity> findByNameIgnoreCase(String name);
+
+    // Case-insensitive match for many names at once; pass the names lower-cased
+    @Query("SELECT c FROM CustomerEntity c WHERE LOWER(c.name) IN :lowerNames")
+    List<CustomerEntity> findAllByLowerNameIn(@Param("lowerNames") Collection<String> lowerNames);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CustomerEntity c WHERE c.id = :id")
+    Optional<CustomerEntity> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,50 @@
+package com.liquorshop.inventory.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Position of the last row on a page, ordered by (date, id) — descending for the sale and purchase
+ * lists, ascending for customer statements. The next page starts strictly after it, so any page
+ * costs one index range scan no matter how deep it is.
+ * <p>
+ * Encoded as an opaque URL-safe token; clients only hand it back.
+ */
+public record Keyset(LocalDateTime date, long id) {
+
+    /**
+     * Fetches up to {@code limit} rows through {@code fetch}, which is given the number of rows to
+     * read, and the cursor after the last of them, null when no rows follow.
+     */
+    public static <T> Page<T> page(int limit, IntFunction<List<T>> fetch, Function<T, Keyset> positionOf) {
+        // One row past the page tells whether another page exists
+        List<T> rows = fetch.apply(limit + 1);
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        rows = rows.subList(0, limit);
+        return new Page<>(rows, positionOf.apply(rows.getLast()).encode());
+    }
+
+    public record Page<T>(List<T> rows, String nextCursor) {
+    }
+
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Keyset decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new Keyset(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
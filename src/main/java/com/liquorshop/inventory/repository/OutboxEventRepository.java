@@ -0,0 +1,49 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.OutboxEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    // Oldest events due for dispatch, locked; rows another dispatcher holds are skipped, not waited for
+    @Query(value = """
+            SELECT * FROM outbox_events
+            WHERE dispatched_at IS NULL AND available_at <= :now AND attempts < :maxAttempts
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEventEntity> claimBatch(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+                                       @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM outbox_events
+            WHERE id = :id AND dispatched_at IS NULL
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<OutboxEventEntity> claim(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+            UPDATE OutboxEventEntity e
+            SET e.attempts = e.attempts + 1, e.lastError = :error, e.availableAt = :retryAt
+            WHERE e.id = :id
+            """)
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("retryAt") LocalDateTime retryAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEventEntity e WHERE e.dispatchedAt < :cutoff")
+    int deleteDispatchedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT COUNT(e) FROM OutboxEventEntity e WHERE e.dispatchedAt IS NULL AND e.attempts >= :maxAttempts")
+    long countParked(@Param("maxAttempts") int maxAttempts);
+}
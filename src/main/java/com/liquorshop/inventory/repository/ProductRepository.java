@@ -5,11 +5,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import javax.swing.text.html.Option;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductRepositoryCustom {
 
     // Exclude soft-deleted products
     List<ProductEntity> findAllByDeletedFalseOrderByNameAsc();
@@ -18,6 +19,8 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
 
     Optional<ProductEntity> findByBarcodeAndDeletedFalse(String barcode);
 
+    List<ProductEntity> findAllByBarcodeInAndDeletedFalse(Collection<String> barcodes);
+
     boolean existsByBarcodeAndDeletedFalse(String barcode);
 
     Optional<ProductEntity> findByIdAndDeletedFalse(Long id);
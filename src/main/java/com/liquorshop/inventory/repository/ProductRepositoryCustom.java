@@ -0,0 +1,19 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.ProductEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * The products with these ids, row-locked (SELECT ... FOR UPDATE) in id order so concurrent
+     * invoices never deadlock. Every stock mutation of a product's batches happens while holding
+     * its product row lock.
+     * <p>
+     * Products this persistence context already holds are re-read when another transaction has
+     * written them since they were loaded, so callers always modify the locked, committed state.
+     */
+    List<ProductEntity> findAllByIdForUpdate(Collection<Long> ids);
+}
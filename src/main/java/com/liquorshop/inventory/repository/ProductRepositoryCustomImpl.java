@@ -0,0 +1,76 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.ProductEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ProductEntity> findAllByIdForUpdate(Collection<Long> ids) {
+        Map<Long, ProductEntity> held = held(ids);
+        if (held.isEmpty()) {
+            return em.createQuery("SELECT p FROM ProductEntity p WHERE p.id IN :ids ORDER BY p.id", ProductEntity.class)
+                    .setParameter("ids", ids)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+        }
+
+        // A locking query would hand back the held instances as they are (Hibernate refuses one
+        // whose version has moved on), so the rows are locked first and stale instances re-read
+        List<Object[]> locked = em.createQuery(
+                        "SELECT p.id, p.version FROM ProductEntity p WHERE p.id IN :ids ORDER BY p.id", Object[].class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        Collection<Long> missing = new TreeSet<>();
+        for (Object[] row : locked) {
+            ProductEntity product = held.get((Long) row[0]);
+            if (product == null) {
+                missing.add((Long) row[0]);
+            } else if (!Objects.equals(product.getVersion(), row[1])) {
+                em.refresh(product);
+            }
+        }
+        if (!missing.isEmpty()) {
+            em.createQuery("SELECT p FROM ProductEntity p WHERE p.id IN :ids", ProductEntity.class)
+                    .setParameter("ids", missing)
+                    .getResultList()
+                    .forEach(product -> held.put(product.getId(), product));
+        }
+
+        List<ProductEntity> products = new ArrayList<>(locked.size());
+        for (Object[] row : locked) {
+            products.add(held.get((Long) row[0]));
+        }
+        return products;
+    }
+
+    // The products among these that this persistence context already holds
+    private Map<Long, ProductEntity> held(Collection<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(ProductEntity.class);
+        Map<Long, ProductEntity> held = new HashMap<>();
+        for (Long id : ids) {
+            Object product = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (product != null) {
+                held.put(id, (ProductEntity) product);
+            }
+        }
+        return held;
+    }
+}
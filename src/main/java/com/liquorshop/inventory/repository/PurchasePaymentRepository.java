@@ -12,7 +12,14 @@ import java.util.List;
 @Repository
 public interface PurchasePaymentRepository extends JpaRepository<PurchasePaymentEntity, Long> {
 
-    List<PurchasePaymentEntity> findByPurchaseIdOrderByPaymentDateDesc(Long purchaseId);
+    // Supplier fetched with the payments: the responses carry its name
+    @Query("""
+        SELECT p FROM PurchasePaymentEntity p
+        JOIN FETCH p.supplier
+        WHERE p.purchase.id = :purchaseId
+        ORDER BY p.paymentDate DESC
+        """)
+    List<PurchasePaymentEntity> findByPurchaseIdOrderByPaymentDateDesc(@Param("purchaseId") Long purchaseId);
 
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM PurchasePaymentEntity p WHERE p.purchase.id = :purchaseId")
     BigDecimal sumAmountByPurchaseId(@Param("purchaseId") Long purchaseId);
@@ -6,11 +6,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PurchaseRepository extends JpaRepository<PurchaseEntity, Long> {
+public interface PurchaseRepository extends JpaRepository<PurchaseEntity, Long>, PurchaseRepositoryCustom {
 
     @Query("""
         SELECT p FROM PurchaseEntity p
@@ -22,8 +21,5 @@ public interface PurchaseRepository extends JpaRepository<PurchaseEntity, Long>
         """)
     Optional<PurchaseEntity> findByIdWithDetails(@Param("id") Long id);
 
-    @Query("SELECT p FROM PurchaseEntity p JOIN FETCH p.supplier ORDER BY p.purchaseDate DESC")
-    List<PurchaseEntity> findAllWithSupplier();
-
     boolean existsByVatBillNumber(String vatBillNumber);
 }
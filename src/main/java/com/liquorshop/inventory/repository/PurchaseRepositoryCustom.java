@@ -0,0 +1,15 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.PurchaseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PurchaseRepositoryCustom {
+
+    /**
+     * Up to {@code limit} purchases newest first, starting after {@code after} (null for the
+     * first page). Every filter is optional; {@code to} is inclusive.
+     */
+    List<PurchaseEntity> findPage(LocalDate from, LocalDate to, Long supplierId, Keyset after, int limit);
+}
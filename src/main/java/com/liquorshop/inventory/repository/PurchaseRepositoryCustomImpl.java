@@ -0,0 +1,46 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.PurchaseEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PurchaseRepositoryCustomImpl implements PurchaseRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<PurchaseEntity> findPage(LocalDate from, LocalDate to, Long supplierId, Keyset after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT p FROM PurchaseEntity p JOIN FETCH p.supplier WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (from != null) {
+            jpql.append(" AND p.purchaseDate >= :fromDate");
+            params.put("fromDate", from);
+        }
+        if (to != null) {
+            jpql.append(" AND p.purchaseDate <= :toDate");
+            params.put("toDate", to);
+        }
+        if (supplierId != null) {
+            jpql.append(" AND p.supplier.id = :supplierId");
+            params.put("supplierId", supplierId);
+        }
+        if (after != null) {
+            // purchase_date is a DATE; the cursor carries it at midnight
+            jpql.append(" AND (p.purchaseDate, p.id) < (:afterDate, :afterId)");
+            params.put("afterDate", after.date().toLocalDate());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY p.purchaseDate DESC, p.id DESC");
+
+        var query = em.createQuery(jpql.toString(), PurchaseEntity.class).setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
@@ -14,7 +14,14 @@ public interface SalePaymentRepository extends JpaRepository<SalePaymentEntity,
 
     List<SalePaymentEntity> findByCustomerIdOrderByPaymentDateDesc(Long customerId);
 
-    List<SalePaymentEntity> findBySaleIdOrderByPaymentDateDesc(Long saleId);
+    // Customer fetched with the payments: the responses carry its name
+    @Query("""
+        SELECT p FROM SalePaymentEntity p
+        JOIN FETCH p.customer
+        WHERE p.sale.id = :saleId
+        ORDER BY p.paymentDate DESC
+        """)
+    List<SalePaymentEntity> findBySaleIdOrderByPaymentDateDesc(@Param("saleId") Long saleId);
 
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM SalePaymentEntity p WHERE p.sale.id = :saleId")
     BigDecimal sumAmountBySaleId(@Param("saleId") Long saleId);
@@ -10,7 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SaleRepository extends JpaRepository<SaleEntity, Long> {
+public interface SaleRepository extends JpaRepository<SaleEntity, Long>, SaleRepositoryCustom {
 
     @Query("""
         SELECT s FROM SaleEntity s
@@ -22,12 +22,9 @@ public interface SaleRepository extends JpaRepository<SaleEntity, Long> {
         """)
     Optional<SaleEntity> findByIdWithDetails(@Param("id") Long id);
 
-    @Query("SELECT s FROM SaleEntity s LEFT JOIN FETCH s.customer ORDER BY s.saleDate DESC")
-    List<SaleEntity> findAllWithCustomer();
-
     List<SaleEntity> findByCustomerIdOrderBySaleDateDesc(Long customerId);
 
-    // Next invoice sequence number for the given year prefix
+    // Invoices already issued under a year prefix; seeds invoice_sequences for a new year
     @Query("SELECT COUNT(s) FROM SaleEntity s WHERE s.invoiceNumber LIKE :prefix%")
     long countByInvoiceNumberPrefix(@Param("prefix") String prefix);
 }
@@ -0,0 +1,23 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.SaleEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface SaleRepositoryCustom {
+
+    /**
+     * Up to {@code limit} sales newest first, starting after {@code after} (null for the first
+     * page). Every filter is optional; {@code to} is inclusive.
+     */
+    List<SaleEntity> findPage(LocalDate from, LocalDate to, Long customerId, String paymentStatus,
+                              Keyset after, int limit);
+
+    /**
+     * Every sale matching the filters, newest first, read through a forward-only cursor. Must be
+     * consumed and closed inside a transaction.
+     */
+    Stream<SaleEntity> streamAll(LocalDate from, LocalDate to, Long customerId, String paymentStatus);
+}
@@ -0,0 +1,73 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.entity.SaleEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class SaleRepositoryCustomImpl implements SaleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${inventory.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Override
+    public List<SaleEntity> findPage(LocalDate from, LocalDate to, Long customerId, String paymentStatus,
+                                     Keyset after, int limit) {
+        return query(from, to, customerId, paymentStatus, after).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<SaleEntity> streamAll(LocalDate from, LocalDate to, Long customerId, String paymentStatus) {
+        // Each sale is detached once read so the persistence context does not grow with the export
+        return query(from, to, customerId, paymentStatus, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(em::detach);
+    }
+
+    private TypedQuery<SaleEntity> query(LocalDate from, LocalDate to, Long customerId, String paymentStatus,
+                                         Keyset after) {
+        // Only the filters in use go into the query, so each combination gets a plan on its own index
+        StringBuilder jpql = new StringBuilder("SELECT s FROM SaleEntity s LEFT JOIN FETCH s.customer WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (from != null) {
+            jpql.append(" AND s.saleDate >= :fromTs");
+            params.put("fromTs", from.atStartOfDay());
+        }
+        if (to != null) {
+            jpql.append(" AND s.saleDate < :toTs");
+            params.put("toTs", to.plusDays(1).atStartOfDay());
+        }
+        if (customerId != null) {
+            jpql.append(" AND s.customer.id = :customerId");
+            params.put("customerId", customerId);
+        }
+        if (paymentStatus != null) {
+            jpql.append(" AND s.paymentStatus = :paymentStatus");
+            params.put("paymentStatus", paymentStatus);
+        }
+        if (after != null) {
+            jpql.append(" AND (s.saleDate, s.id) < (:afterDate, :afterId)");
+            params.put("afterDate", after.date());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY s.saleDate DESC, s.id DESC");
+
+        TypedQuery<SaleEntity> query = em.createQuery(jpql.toString(), SaleEntity.class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -2,8 +2,11 @@ package com.liquorshop.inventory.repository;
 
 import com.liquorshop.inventory.entity.SupplierEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,8 @@ public interface SupplierRepository extends JpaRepository<SupplierEntity, Long>
     List<SupplierEntity> findAllByStatusOrderByNameAsc(String status);
 
     Optional<SupplierEntity> findByNameIgnoreCase(String name);
+
+    // Case-insensitive match for many names at once; pass the names lower-cased
+    @Query("SELECT s FROM SupplierEntity s WHERE LOWER(s.name) IN :lowerNames")
+    List<SupplierEntity> findAllByLowerNameIn(@Param("lowerNames") Collection<String> lowerNames);
 }
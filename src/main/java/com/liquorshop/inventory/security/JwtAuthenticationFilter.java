@@ -1,8 +1,7 @@
 package com.liquorshop.inventory.security;
 
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.SignatureException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -37,59 +36,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt)) {
+                // One parse verifies signature and expiry and yields the subject
+                String username;
                 try {
-                    // Check if token is expired
-                    if (tokenProvider.isTokenExpired(jwt)) {
-                        handleAuthenticationError(response, "Token expired", "TOKEN_EXPIRED", 
-                                "Your session has expired. Please login again.");
-                        return;
-                    }
-
-                    // Validate token format and signature
-                    if (!tokenProvider.isTokenValidFormat(jwt)) {
-                        handleAuthenticationError(response, "Invalid token", "INVALID_TOKEN", 
-                                "The provided token is invalid.");
-                        return;
-                    }
-
-                    // Validate token
-                    if (tokenProvider.validateToken(jwt)) {
-                        String username = tokenProvider.getUsernameFromToken(jwt);
-
-                        try {
-                            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                            // Check if user is still active/enabled
-                            if (!userDetails.isEnabled()) {
-                                handleAuthenticationError(response, "User account is disabled", "USER_DISABLED", 
-                                        "Your account has been disabled. Please contact administrator.");
-                                return;
-                            }
-
-                            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
-                            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                            SecurityContextHolder.getContext().setAuthentication(authentication);
-                        } catch (UsernameNotFoundException ex) {
-                            handleAuthenticationError(response, "User not found", "USER_NOT_FOUND", 
-                                    "User account not found.");
-                            return;
-                        }
-                    } else {
-                        handleAuthenticationError(response, "Invalid token", "INVALID_TOKEN", 
-                                "The provided token is invalid.");
-                        return;
-                    }
+                    username = tokenProvider.parseClaims(jwt).getSubject();
                 } catch (ExpiredJwtException ex) {
                     handleAuthenticationError(response, "Token expired", "TOKEN_EXPIRED", 
                             "Your session has expired. Please login again.");
                     return;
-                } catch (MalformedJwtException | SignatureException ex) {
+                } catch (JwtException | IllegalArgumentException ex) {
                     handleAuthenticationError(response, "Invalid token", "INVALID_TOKEN", 
                             "The provided token is invalid.");
                     return;
                 }
+
+                try {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+
+                    // Check if user is still active/enabled
+                    if (!userDetails.isEnabled()) {
+                        handleAuthenticationError(response, "User account is disabled", "USER_DISABLED", 
+                                "Your account has been disabled. Please contact administrator.");
+                        return;
+                    }
+
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } catch (UsernameNotFoundException ex) {
+                    handleAuthenticationError(response, "User not found", "USER_NOT_FOUND", 
+                            "User account not found.");
+                    return;
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
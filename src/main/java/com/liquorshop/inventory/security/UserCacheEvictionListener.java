@@ -0,0 +1,25 @@
+package com.liquorshop.inventory.security;
+
+import com.liquorshop.inventory.entity.UserEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops a user from the bearer-request user cache whenever the row changes (disabled, password or
+ * role changed, deleted). The cache is transaction-aware, so the eviction happens on commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final UserCache userCache;
+
+    @PostUpdate
+    @PostRemove
+    void changed(UserEntity user) {
+        userCache.removeUserFromCache(user.getUsername());
+    }
+}
@@ -0,0 +1,258 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.dto.StatementEntry;
+import com.liquorshop.inventory.entity.LedgerEntryEntity;
+import com.liquorshop.inventory.repository.Keyset;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.liquorshop.inventory.service.ReportService.*;
+
+/**
+ * Postings, monthly balance checkpoints and statements of an account ledger — the customer ledger
+ * (see {@link CustomerLedgerService}) and the supplier ledger (see {@link SupplierLedgerService})
+ * are the same two tables under different names, described by a {@link Definition}.
+ * <p>
+ * A posting's row is written straight away; its checkpoint upkeep waits for the commit. Just before
+ * it, every account the transaction posted to is locked, in id order, and its checkpoints are
+ * brought up to date: later checkpoints shift by the net of each back-dated entry, then the start of
+ * each month posted to gets a checkpoint if it has none yet. The account row is only held from there
+ * to the commit, so transactions posting to the same account overlap until then. A statement needs
+ * the nearest checkpoint plus at most one month of rows for its opening balance, and pages through
+ * the rest on (account, entry_date, id).
+ */
+@Service
+public class AccountLedger {
+
+    // Stand-ins for an open-ended date range
+    private static final LocalDateTime START_OF_TIME = LocalDate.of(1900, 1, 1).atStartOfDay();
+    private static final LocalDateTime END_OF_TIME = LocalDate.of(9999, 12, 31).atStartOfDay();
+
+    /**
+     * A ledger's entry type, its table, its checkpoint table (account column, as_of, balance), the
+     * account column both are keyed by and the table of the accounts themselves.
+     */
+    public record Definition<E extends LedgerEntryEntity>(Class<E> entryType, String table,
+                                                           String checkpointTable, String accountColumn,
+                                                           String accountTable) {
+    }
+
+    /**
+     * One page of a statement: the balance before it, its rows with the balance after each, and the
+     * cursor of the next page (null on the last).
+     */
+    public record Statement(BigDecimal openingBalance, List<StatementEntry> entries, String nextCursor) {
+    }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    // Entries posted by the current transaction, per ledger and account; their checkpoints are
+    // brought up to date just before it commits
+    private final TransactionScoped<Map<Definition<?>, Map<Long, List<LedgerEntryEntity>>>> pendingPostings =
+            TransactionScoped.<Map<Definition<?>, Map<Long, List<LedgerEntryEntity>>>>of(LinkedHashMap::new)
+                    .beforeCommit(pending -> pending.forEach((ledger, accounts) -> accounts.forEach(
+                            (accountId, entries) -> checkpoint(ledger, accountId, entries))));
+
+    /**
+     * Writes {@code entry}; its account's checkpoints catch up with it when the current transaction
+     * commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void post(Definition<?> ledger, LedgerEntryEntity entry) {
+        em.persist(entry);
+        pendingPostings.get()
+                .computeIfAbsent(ledger, l -> new TreeMap<>())
+                .computeIfAbsent(entry.getAccountId(), id -> new ArrayList<>())
+                .add(entry);
+    }
+
+    /**
+     * One page of the account's rows dated in [from, to] (open-ended when null), oldest first,
+     * continuing after {@code cursor} when given.
+     */
+    @Transactional(readOnly = true)
+    public <E extends LedgerEntryEntity> Statement statement(Definition<E> ledger, Long accountId,
+                                                             LocalDate from, LocalDate to, String cursor, int limit) {
+        Keyset after = cursor != null ? Keyset.decode(cursor) : startOf(from);
+        LocalDateTime toTs = to != null ? to.plusDays(1).atStartOfDay() : END_OF_TIME;
+        BigDecimal opening = balanceAt(ledger, accountId, after);
+
+        Keyset.Page<E> page = Keyset.page(limit,
+                n -> em.createQuery("""
+                                SELECT l FROM %s l
+                                WHERE l.accountId = :account
+                                  AND (l.entryDate, l.id) > (:afterDate, :afterId)
+                                  AND l.entryDate < :toTs
+                                ORDER BY l.entryDate, l.id
+                                """.formatted(ledger.entryType().getSimpleName()), ledger.entryType())
+                        .setParameter("account", accountId)
+                        .setParameter("afterDate", after.date())
+                        .setParameter("afterId", after.id())
+                        .setParameter("toTs", toTs)
+                        .setMaxResults(n)
+                        .getResultList(),
+                l -> new Keyset(l.getEntryDate(), l.getId()));
+
+        BigDecimal running = opening;
+        List<StatementEntry> entries = new ArrayList<>(page.rows().size());
+        for (LedgerEntryEntity row : page.rows()) {
+            running = running.add(row.net());
+            entries.add(toStatementEntry(row, running));
+        }
+        return new Statement(opening, entries, page.nextCursor());
+    }
+
+    /**
+     * Balance after every ledger row up to and including position {@code at}: the nearest
+     * checkpoint at or before it plus the rows between.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAt(Definition<?> ledger, Long accountId, Keyset at) {
+        // Read as plain values, never as a managed entity, because post updates the rows behind the
+        // persistence context's back
+        List<?> checkpoints = em.createNativeQuery("""
+                        SELECT as_of, balance FROM %s
+                        WHERE %s = :account AND as_of <= :day
+                        ORDER BY as_of DESC
+                        LIMIT 1
+                        """.formatted(ledger.checkpointTable(), ledger.accountColumn()))
+                .setParameter("account", accountId)
+                .setParameter("day", at.date().toLocalDate())
+                .getResultList();
+        Object[] checkpoint = checkpoints.isEmpty() ? null : (Object[]) checkpoints.getFirst();
+        LocalDateTime fromTs = checkpoint != null ? toLocalDate(checkpoint[0]).atStartOfDay() : START_OF_TIME;
+        BigDecimal opening = checkpoint != null ? toBd(checkpoint[1]) : BigDecimal.ZERO;
+
+        BigDecimal rows = em.createQuery("""
+                        SELECT COALESCE(SUM(l.debit - l.credit), 0) FROM %s l
+                        WHERE l.accountId = :account
+                          AND l.entryDate >= :fromTs
+                          AND (l.entryDate, l.id) <= (:atDate, :atId)
+                        """.formatted(ledger.entryType().getSimpleName()), BigDecimal.class)
+                .setParameter("account", accountId)
+                .setParameter("fromTs", fromTs)
+                .setParameter("atDate", at.date())
+                .setParameter("atId", at.id())
+                .getSingleResult();
+        return opening.add(rows);
+    }
+
+    /**
+     * Replaces every row of the ledger with those {@code recomputeLedgerSql} inserts, and its
+     * checkpoints with a recompute from them. The table locks wait for in-flight postings and hold
+     * back new ones until the current transaction commits.
+     *
+     * @return number of ledger rows written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int replace(Definition<?> ledger, String recomputeLedgerSql) {
+        em.createNativeQuery("LOCK TABLE %s, %s IN SHARE ROW EXCLUSIVE MODE"
+                        .formatted(ledger.table(), ledger.checkpointTable()))
+                .executeUpdate();
+        em.createNativeQuery("DELETE FROM " + ledger.checkpointTable()).executeUpdate();
+        em.createNativeQuery("DELETE FROM " + ledger.table()).executeUpdate();
+        int written = em.createNativeQuery(recomputeLedgerSql).executeUpdate();
+
+        // A checkpoint at the start of every month with postings, holding the net of all earlier months
+        em.createNativeQuery("""
+                        INSERT INTO %2$s (%3$s, as_of, balance)
+                        SELECT %3$s, as_of,
+                               COALESCE(SUM(net) OVER (PARTITION BY %3$s ORDER BY as_of
+                                                       ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0)
+                        FROM (
+                          SELECT %3$s, CAST(date_trunc('month', entry_date) AS DATE) AS as_of,
+                                 SUM(debit - credit) AS net
+                          FROM %1$s
+                          GROUP BY %3$s, CAST(date_trunc('month', entry_date) AS DATE)
+                        ) m
+                        """.formatted(ledger.table(), ledger.checkpointTable(), ledger.accountColumn()))
+                .executeUpdate();
+        return written;
+    }
+
+    public boolean isEmpty(Definition<?> ledger) {
+        return em.createNativeQuery("SELECT 1 FROM " + ledger.table() + " LIMIT 1").getResultList().isEmpty();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /**
+     * Brings the account's checkpoints up to date with {@code entries}, all of them written by the
+     * current transaction. The account row lock makes this wait for any other transaction doing the
+     * same for the account, so the checkpoints it reads already count every committed row.
+     */
+    private void checkpoint(Definition<?> ledger, Long accountId, List<LedgerEntryEntity> entries) {
+        // NO KEY: the rows this transaction wrote hold key-share locks on the account through their foreign
+        // keys, and so may other posting transactions' rows; FOR UPDATE would wait on those
+        em.createNativeQuery("SELECT id FROM %s WHERE id = :account FOR NO KEY UPDATE".formatted(ledger.accountTable()))
+                .setParameter("account", accountId)
+                .getResultList();
+
+        // Checkpoints after a back-dated posting already summed everything before them, so they move by its net
+        for (LedgerEntryEntity entry : entries) {
+            BigDecimal net = entry.net();
+            if (net.signum() != 0) {
+                em.createNativeQuery("UPDATE %s SET balance = balance + :delta WHERE %s = :account AND as_of > :day"
+                                .formatted(ledger.checkpointTable(), ledger.accountColumn()))
+                        .setParameter("delta", net)
+                        .setParameter("account", accountId)
+                        .setParameter("day", entry.getEntryDate().toLocalDate())
+                        .executeUpdate();
+            }
+        }
+
+        // First posting of a month: checkpoint the balance before it. Earliest month first, so each new
+        // checkpoint can start from the one before it; the rows summed include this transaction's own.
+        Set<LocalDate> months = new TreeSet<>();
+        entries.forEach(entry -> months.add(entry.getEntryDate().toLocalDate().withDayOfMonth(1)));
+        for (LocalDate month : months) {
+            boolean checkpointed = !em.createNativeQuery("SELECT 1 FROM %s WHERE %s = :account AND as_of = :month"
+                            .formatted(ledger.checkpointTable(), ledger.accountColumn()))
+                    .setParameter("account", accountId)
+                    .setParameter("month", month)
+                    .getResultList().isEmpty();
+            if (!checkpointed) {
+                em.createNativeQuery("INSERT INTO %s (%s, as_of, balance) VALUES (:account, :month, :balance)"
+                                .formatted(ledger.checkpointTable(), ledger.accountColumn()))
+                        .setParameter("account", accountId)
+                        .setParameter("month", month)
+                        .setParameter("balance", balanceAt(ledger, accountId, startOf(month)))
+                        .executeUpdate();
+            }
+        }
+    }
+
+    // Position just before the first row dated on or after from (the first row of all when null)
+    private static Keyset startOf(LocalDate from) {
+        return new Keyset(from != null ? from.atStartOfDay() : START_OF_TIME, 0);
+    }
+
+    private static StatementEntry toStatementEntry(LedgerEntryEntity row, BigDecimal balance) {
+        StatementEntry e = new StatementEntry();
+        e.setDate(row.getEntryDate());
+        e.setType(row.getEntryType());
+        e.setReference(row.getReference());
+        e.setPaymentMethod(row.getPaymentMethod());
+        e.setReferenceNumber(row.getReferenceNumber());
+        e.setDebit(row.getDebit());
+        e.setCredit(row.getCredit());
+        e.setBalance(balance);
+        return e;
+    }
+}
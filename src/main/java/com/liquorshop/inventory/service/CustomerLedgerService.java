@@ -0,0 +1,158 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.entity.CustomerLedgerEntity;
+import com.liquorshop.inventory.entity.SaleEntity;
+import com.liquorshop.inventory.entity.SalePaymentEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Maintains the customer ledger (customer_ledger) and its monthly balance checkpoints
+ * (customer_balance_checkpoints), through {@link AccountLedger}.
+ * <p>
+ * Every sale to a customer and every payment posts one ledger row in the same transaction, with
+ * the customer row locked (see {@link CustomerService#lockOrThrow}), so postings of one customer
+ * are serialised.
+ * <p>
+ * {@link #rebuild} recomputes both tables from sales and sale_payments.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerLedgerService {
+
+    private static final AccountLedger.Definition<CustomerLedgerEntity> LEDGER = new AccountLedger.Definition<>(
+            CustomerLedgerEntity.class, "customer_ledger", "customer_balance_checkpoints", "customer_id", "customers");
+
+    // Sales to customers and their payments, in posting order. A sale is credited in full only when it
+    // was paid at the till: PAID with no payments recorded against it (see SaleService.createSale).
+    private static final String RECOMPUTE_LEDGER_SQL = """
+            INSERT INTO customer_ledger
+              (customer_id, entry_date, entry_type, sale_id, payment_id, reference,
+               payment_method, reference_number, debit, credit)
+            SELECT customer_id, entry_date, entry_type, sale_id, payment_id, reference,
+                   payment_method, reference_number, debit, credit
+            FROM (
+              SELECT s.customer_id, s.sale_date AS entry_date, 'SALE' AS entry_type, s.id AS sale_id,
+                     CAST(NULL AS BIGINT) AS payment_id, s.invoice_number AS reference,
+                     CAST(NULL AS VARCHAR) AS payment_method, CAST(NULL AS VARCHAR) AS reference_number,
+                     s.total_amount AS debit,
+                     CASE WHEN s.payment_status = 'PAID'
+                               AND NOT EXISTS (SELECT 1 FROM sale_payments p WHERE p.sale_id = s.id)
+                          THEN s.total_amount ELSE 0 END AS credit
+              FROM sales s
+              WHERE s.customer_id IS NOT NULL
+              UNION ALL
+              SELECT p.customer_id, p.payment_date, 'PAYMENT', p.sale_id,
+                     p.id, 'PAY-' || p.id,
+                     p.payment_method, p.reference_number,
+                     0, p.amount
+              FROM sale_payments p
+            ) e
+            ORDER BY entry_date, payment_id NULLS FIRST, sale_id
+            """;
+
+    private final AccountLedger accountLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardSnapshotService dashboardSnapshotService;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Posts a newly created sale to its customer's ledger. The customer row must be locked by the
+     * current transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(SaleEntity sale) {
+        CustomerLedgerEntity entry = new CustomerLedgerEntity();
+        entry.setAccountId(sale.getCustomer().getId());
+        entry.setEntryDate(sale.getSaleDate());
+        entry.setEntryType("SALE");
+        entry.setSaleId(sale.getId());
+        entry.setReference(sale.getInvoiceNumber());
+        entry.setDebit(sale.getTotalAmount());
+        // Paid at the till: the sale never adds to the outstanding balance
+        entry.setCredit("PAID".equals(sale.getPaymentStatus()) ? sale.getTotalAmount() : BigDecimal.ZERO);
+        post(entry);
+    }
+
+    /**
+     * Posts a payment to its customer's ledger. The customer row must be locked by the current
+     * transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(SalePaymentEntity payment) {
+        CustomerLedgerEntity entry = new CustomerLedgerEntity();
+        entry.setAccountId(payment.getCustomer().getId());
+        entry.setEntryDate(payment.getPaymentDate());
+        entry.setEntryType("PAYMENT");
+        entry.setSaleId(payment.getSale() != null ? payment.getSale().getId() : null);
+        entry.setPaymentId(payment.getId());
+        entry.setReference("PAY-" + payment.getId());
+        entry.setPaymentMethod(payment.getPaymentMethod());
+        entry.setReferenceNumber(payment.getReferenceNumber());
+        entry.setCredit(payment.getAmount());
+        post(entry);
+    }
+
+    /**
+     * One page of the customer's statement for [from, to] (open-ended when null), oldest first.
+     */
+    public AccountLedger.Statement statement(Long customerId, LocalDate from, LocalDate to, String cursor, int limit) {
+        return accountLedger.statement(LEDGER, customerId, from, to, cursor, limit);
+    }
+
+    /**
+     * Recomputes the ledger and checkpoints of every customer from sales and sale_payments.
+     *
+     * @return number of ledger rows written
+     */
+    public int rebuild() {
+        int rows = Objects.requireNonNull(transactionTemplate.execute(
+                status -> accountLedger.replace(LEDGER, RECOMPUTE_LEDGER_SQL)));
+
+        // Balances maintained before the ledger existed are not corrected, only reported
+        Number mismatched = (Number) em.createNativeQuery("""
+                        SELECT COUNT(*) FROM customers c
+                        WHERE c.outstanding_balance <> (SELECT COALESCE(SUM(l.debit - l.credit), 0)
+                                                        FROM customer_ledger l WHERE l.customer_id = c.id)
+                        """)
+                .getSingleResult();
+        log.info("Rebuilt customer ledger: {} rows", rows);
+        if (mismatched.longValue() > 0) {
+            log.warn("{} customers have an outstanding balance that differs from their ledger", mismatched);
+        }
+        return rows;
+    }
+
+    // Existing databases start with an empty ledger; fill it once from history
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        boolean empty = accountLedger.isEmpty(LEDGER);
+        boolean hasPostings = !em.createNativeQuery("SELECT 1 FROM sales WHERE customer_id IS NOT NULL LIMIT 1")
+                .getResultList().isEmpty();
+        if (empty && hasPostings) {
+            rebuild();
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void post(CustomerLedgerEntity entry) {
+        accountLedger.post(LEDGER, entry);
+        dashboardSnapshotService.recordCustomerCredit(entry.net());
+    }
+}
@@ -1,5 +1,6 @@
 package com.liquorshop.inventory.service;
 
+import com.liquorshop.inventory.config.CacheConfig;
 import com.liquorshop.inventory.dto.CustomerRequest;
 import com.liquorshop.inventory.dto.CustomerResponse;
 import com.liquorshop.inventory.dto.CustomerStatementResponse;
@@ -8,35 +9,46 @@ import com.liquorshop.inventory.dto.PriceTemplateResponse;
 import com.liquorshop.inventory.entity.CustomerEntity;
 import com.liquorshop.inventory.entity.CustomerPriceTemplateEntity;
 import com.liquorshop.inventory.entity.ProductEntity;
-import com.liquorshop.inventory.entity.SaleEntity;
-import com.liquorshop.inventory.entity.SalePaymentEntity;
 import com.liquorshop.inventory.exception.ResourceNotFoundException;
 import com.liquorshop.inventory.repository.CustomerPriceTemplateRepository;
 import com.liquorshop.inventory.repository.CustomerRepository;
 import com.liquorshop.inventory.repository.ProductRepository;
-import com.liquorshop.inventory.repository.SalePaymentRepository;
-import com.liquorshop.inventory.repository.SaleRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final CustomerPriceTemplateRepository templateRepository;
     private final ProductRepository productRepository;
-    private final SaleRepository saleRepository;
-    private final SalePaymentRepository salePaymentRepository;
+    private final CustomerLedgerService customerLedgerService;
+    private final Cache<Long, Map<Long, BigDecimal>> priceTemplates;
+
+    // Bumped as each template change commits; a template loaded meanwhile is not kept
+    private final AtomicLong templateGeneration = new AtomicLong();
+
+    public CustomerService(CustomerRepository customerRepository, CustomerPriceTemplateRepository templateRepository,
+                           ProductRepository productRepository, CustomerLedgerService customerLedgerService,
+                           CacheManager cacheManager) {
+        this.customerRepository = customerRepository;
+        this.templateRepository = templateRepository;
+        this.productRepository = productRepository;
+        this.customerLedgerService = customerLedgerService;
+        this.priceTemplates = CacheConfig.nativeCache(cacheManager, CacheConfig.PRICE_TEMPLATES);
+    }
 
     @Transactional(readOnly = true)
     public List<CustomerResponse> getAll() {
@@ -67,6 +79,7 @@ public class CustomerService {
     public void delete(Long id) {
         findOrThrow(id);
         customerRepository.deleteById(id);
+        evictTemplateOnCommit(id);
     }
 
     // ── Price Template ──────────────────────────────────────────────────────
@@ -91,70 +104,76 @@ public class CustomerService {
         entry.setCustomer(customer);
         entry.setProduct(product);
         entry.setSellingPrice(request.getSellingPrice());
-        return toTemplateResponse(templateRepository.save(entry));
+        PriceTemplateResponse response = toTemplateResponse(templateRepository.save(entry));
+        evictTemplateOnCommit(customerId);
+        return response;
     }
 
     @Transactional
     public void deleteTemplateEntry(Long customerId, Long productId) {
         findOrThrow(customerId);
         templateRepository.deleteByCustomerIdAndProductId(customerId, productId);
+        evictTemplateOnCommit(customerId);
     }
 
-    // Lookup the custom price for a product for this customer; returns empty if not in template
+    // Whole price template of a customer as productId → price; loaded in one query and cached
+    // until the template is changed (see upsertTemplateEntry / deleteTemplateEntry)
     @Transactional(readOnly = true)
-    public Optional<BigDecimal> findTemplatePrice(Long customerId, Long productId) {
-        return templateRepository.findByCustomerIdAndProductId(customerId, productId)
-                .map(CustomerPriceTemplateEntity::getSellingPrice);
+    public Map<Long, BigDecimal> getTemplatePrices(Long customerId) {
+        Map<Long, BigDecimal> cached = priceTemplates.getIfPresent(customerId);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = templateGeneration.get();
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Object[] row : templateRepository.findPricesByCustomerId(customerId)) {
+            prices.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        Map<Long, BigDecimal> loaded = Map.copyOf(prices);
+        priceTemplates.put(customerId, loaded);
+        // A change that committed after we read may already have run its eviction; drop our copy.
+        // One committing later evicts after this put.
+        if (templateGeneration.get() != seen) {
+            priceTemplates.invalidate(customerId);
+        }
+        return loaded;
+    }
+
+    // The generation moves before the entry goes, so a load that read the old template either
+    // sees the new generation or has its put evicted
+    private void evictTemplateOnCommit(Long customerId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                templateGeneration.incrementAndGet();
+                priceTemplates.invalidate(customerId);
+            }
+        });
     }
 
     // ── Customer Statement ───────────────────────────────────────────────────
 
+    /**
+     * One page of the customer's ledger for [from, to] (open-ended when null), oldest first, with
+     * the balance before the page and after each row. Pass the previous page's nextCursor to continue.
+     */
     @Transactional(readOnly = true)
-    public CustomerStatementResponse getStatement(Long customerId) {
+    public CustomerStatementResponse getStatement(Long customerId, LocalDate from, LocalDate to,
+                                                  String cursor, int limit) {
         CustomerEntity customer = findOrThrow(customerId);
 
-        List<SaleEntity> sales = saleRepository.findByCustomerIdOrderBySaleDateDesc(customerId);
-        List<SalePaymentEntity> payments = salePaymentRepository.findByCustomerIdOrderByPaymentDateDesc(customerId);
-
-        List<CustomerStatementResponse.StatementEntry> entries = new ArrayList<>();
-
-        for (SaleEntity sale : sales) {
-            CustomerStatementResponse.StatementEntry e = new CustomerStatementResponse.StatementEntry();
-            e.setDate(sale.getSaleDate());
-            e.setType("SALE");
-            e.setReference(sale.getInvoiceNumber());
-            e.setDebit(sale.getTotalAmount());
-            e.setCredit(BigDecimal.ZERO);
-            entries.add(e);
-        }
-
-        for (SalePaymentEntity payment : payments) {
-            CustomerStatementResponse.StatementEntry e = new CustomerStatementResponse.StatementEntry();
-            e.setDate(payment.getPaymentDate());
-            e.setType("PAYMENT");
-            e.setReference("PAY-" + payment.getId());
-            e.setPaymentMethod(payment.getPaymentMethod());
-            e.setReferenceNumber(payment.getReferenceNumber());
-            e.setDebit(BigDecimal.ZERO);
-            e.setCredit(payment.getAmount());
-            entries.add(e);
-        }
-
-        // Sort all entries by date ascending for running balance
-        entries.sort(Comparator.comparing(CustomerStatementResponse.StatementEntry::getDate));
-
-        BigDecimal running = BigDecimal.ZERO;
-        for (CustomerStatementResponse.StatementEntry e : entries) {
-            running = running.add(e.getDebit()).subtract(e.getCredit());
-            e.setBalance(running);
-        }
+        AccountLedger.Statement statement = customerLedgerService.statement(customerId, from, to, cursor, limit);
 
         CustomerStatementResponse response = new CustomerStatementResponse();
         response.setCustomerId(customer.getId());
         response.setCustomerName(customer.getName());
         response.setCreditLimit(customer.getCreditLimit());
         response.setOutstandingBalance(customer.getOutstandingBalance());
-        response.setEntries(entries);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setOpeningBalance(statement.openingBalance());
+        response.setEntries(statement.entries());
+        response.setNextCursor(statement.nextCursor());
         return response;
     }
 
@@ -172,6 +191,12 @@ public class CustomerService {
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found: " + id));
     }
 
+    // Locks the customer row until the transaction ends; balance changes and ledger postings go through this
+    public CustomerEntity lockOrThrow(Long id) {
+        return customerRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found: " + id));
+    }
+
     private CustomerResponse toResponse(CustomerEntity e) {
         CustomerResponse r = new CustomerResponse();
         r.setId(e.getId());
@@ -0,0 +1,314 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.dto.DashboardResponse;
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.service.catalog.ProductVersions;
+import com.liquorshop.inventory.service.catalog.ProductsChangedEvent;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.liquorshop.inventory.service.ReportService.*;
+
+/**
+ * Serves the owner dashboard from memory.
+ * <p>
+ * The figures are computed from the database once ({@link ReportService#getDashboard}) and then
+ * kept current as transactions commit:
+ * <ul>
+ *   <li>today's sales, profit and invoice count — from SalesRollupService as each sale is recorded</li>
+ *   <li>customer credit and supplier payable — from the customer and supplier ledger postings</li>
+ *   <li>low stock count and stock value — from {@link ProductsChangedEvent}, per product</li>
+ * </ul>
+ * Deltas are applied after commit, so rolled-back work never shows.
+ * <p>
+ * The full recompute is a reconciliation: it runs at the first request, on the first request of
+ * a new day, and once the last one is older than {@code inventory.dashboard.reconcile-interval}.
+ * It reads the database without holding the lock that commits apply their deltas under; deltas
+ * and product changes that arrive meanwhile are recorded and replayed onto the new figures when
+ * they are swapped in. Stock figures carry row versions, so a replayed change the read already
+ * saw is ignored; a sale or payment whose commit overlaps the start of the read can still be
+ * counted twice until the next reconciliation. The expiring-batch count is not tracked and is as
+ * of the last reconciliation, whose time and age the response carries.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private final ReportService reportService;
+    // Read-only, repeatable read: the figures and the stock rows come from one database snapshot
+    private final TransactionTemplate readTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${inventory.dashboard.reconcile-interval:30m}")
+    private Duration reconcileInterval;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    // One recompute at a time
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+
+    private final TransactionScoped<PendingDeltas> pendingDeltas =
+            TransactionScoped.of(PendingDeltas::new).afterCommit(this::apply);
+
+    // All guarded by this
+    private Snapshot snapshot;
+    private Map<Long, StockFigure> stock = new HashMap<>();
+    // Row version each product's figure was taken at (deleted products included)
+    private ProductVersions stockVersions = new ProductVersions();
+    // Deltas and product changes applied while a recompute reads, to replay onto its result
+    private Recording recording;
+
+    public DashboardSnapshotService(ReportService reportService, PlatformTransactionManager transactionManager) {
+        this.reportService = reportService;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public DashboardResponse get() {
+        Snapshot held = held();
+        if (held == null) {
+            // Nothing to serve yet: wait for the recompute
+            recomputeLock.lock();
+            try {
+                held = held();
+                return held != null ? copy(held) : recompute();
+            } finally {
+                recomputeLock.unlock();
+            }
+        }
+        // Due for reconciliation: this request runs it, unless one is already running
+        if (Duration.between(held.computedAt, Instant.now(clock)).compareTo(reconcileInterval) > 0
+                && recomputeLock.tryLock()) {
+            try {
+                return recompute();
+            } finally {
+                recomputeLock.unlock();
+            }
+        }
+        return copy(held);
+    }
+
+    // ── Incremental updates ──────────────────────────────────────────────────
+
+    /**
+     * Adds a sale to today's figures when the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(LocalDate day, BigDecimal total, BigDecimal profit) {
+        PendingDeltas pending = pendingDeltas.get();
+        if (day.equals(LocalDate.now(clock))) {
+            pending.todayInvoices++;
+            pending.todaySales = pending.todaySales.add(total);
+            pending.todayProfit = pending.todayProfit.add(profit);
+        }
+    }
+
+    /**
+     * Moves the total customer credit by {@code delta} when the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCustomerCredit(BigDecimal delta) {
+        PendingDeltas pending = pendingDeltas.get();
+        pending.customerCredit = pending.customerCredit.add(delta);
+    }
+
+    /**
+     * Moves the total owed to suppliers by {@code delta} when the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSupplierPayable(BigDecimal delta) {
+        PendingDeltas pending = pendingDeltas.get();
+        pending.supplierPayable = pending.supplierPayable.add(delta);
+    }
+
+    @EventListener
+    public synchronized void onProductsChanged(ProductsChangedEvent event) {
+        if (recording != null) {
+            recording.productEvents.add(event);
+        }
+        if (snapshot != null) {
+            applyStock(event);
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    // Stock figures are replaced, not added to, so replaying a change the recompute already read
+    // is harmless
+    private void applyStock(ProductsChangedEvent event) {
+        for (Long id : event.removed()) {
+            stockVersions.ifNewer(id, event.version(id), () -> replaceStock(id, null));
+        }
+        for (ProductResponse product : event.changed()) {
+            stockVersions.ifNewer(product.getId(), event.version(product.getId()), () -> replaceStock(product.getId(),
+                    StockFigure.of(product.getCurrentStock(), product.getMinStock(), product.getAverageCost())));
+        }
+    }
+
+    // The snapshot if it is from today, else null
+    private synchronized Snapshot held() {
+        return snapshot != null && snapshot.day.equals(LocalDate.now(clock)) ? snapshot : null;
+    }
+
+    private synchronized DashboardResponse copy(Snapshot held) {
+        return held.copy(clock);
+    }
+
+    // Called under recomputeLock. Reads without holding this, then swaps the result in and
+    // replays what was applied meanwhile.
+    private DashboardResponse recompute() {
+        Recording started = new Recording();
+        synchronized (this) {
+            recording = started;
+        }
+        try {
+            Instant computedAt = Instant.now(clock);
+            Reading reading = Objects.requireNonNull(readTemplate.execute(status -> read()));
+            synchronized (this) {
+                snapshot = new Snapshot(computedAt, LocalDate.ofInstant(computedAt, clock.getZone()));
+                snapshot.figures = reading.figures;
+                stock = reading.stock;
+                stockVersions = reading.versions;
+                // Summed from the per-product figures so that later replacements stay consistent with them
+                reading.figures.setLowStockCount((int) stock.values().stream().filter(StockFigure::low).count());
+                reading.figures.setTotalStockValue(stock.values().stream().map(StockFigure::value)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add));
+                started.deltas.forEach(this::applyDeltas);
+                started.productEvents.forEach(this::applyStock);
+                return snapshot.copy(clock);
+            }
+        } finally {
+            synchronized (this) {
+                recording = null;
+            }
+        }
+    }
+
+    private Reading read() {
+        Reading reading = new Reading(reportService.getDashboard());
+        // Deleted products too, for their versions: a late snapshot from before the delete is ignored
+        for (Object row : em.createNativeQuery("""
+                        SELECT id, version, deleted, current_stock, min_stock, average_cost
+                        FROM products
+                        """)
+                .getResultList()) {
+            Object[] r = (Object[]) row;
+            reading.versions.ifNewer(toLong(r[0]), toLong(r[1]), () -> {
+                if (!Boolean.TRUE.equals(r[2])) {
+                    reading.stock.put(toLong(r[0]), StockFigure.of(toInt(r[3]), toInt(r[4]), toBd(r[5])));
+                }
+            });
+        }
+        return reading;
+    }
+
+    private void replaceStock(Long productId, StockFigure figure) {
+        StockFigure previous = figure != null ? stock.put(productId, figure) : stock.remove(productId);
+        DashboardResponse figures = snapshot.figures;
+        int lowDelta = (figure != null && figure.low() ? 1 : 0) - (previous != null && previous.low() ? 1 : 0);
+        BigDecimal valueDelta = (figure != null ? figure.value() : BigDecimal.ZERO)
+                .subtract(previous != null ? previous.value() : BigDecimal.ZERO);
+        figures.setLowStockCount(figures.getLowStockCount() + lowDelta);
+        figures.setTotalStockValue(figures.getTotalStockValue().add(valueDelta));
+    }
+
+    private synchronized void apply(PendingDeltas delta) {
+        if (recording != null) {
+            recording.deltas.add(delta);
+        }
+        if (snapshot != null) {
+            applyDeltas(delta);
+        }
+    }
+
+    private void applyDeltas(PendingDeltas delta) {
+        DashboardResponse figures = snapshot.figures;
+        figures.setTodayInvoiceCount(figures.getTodayInvoiceCount() + delta.todayInvoices);
+        figures.setTodaySales(figures.getTodaySales().add(delta.todaySales));
+        figures.setTodayProfit(figures.getTodayProfit().add(delta.todayProfit));
+        figures.setPendingCustomerCredit(figures.getPendingCustomerCredit().add(delta.customerCredit));
+        figures.setPendingSupplierPayments(figures.getPendingSupplierPayments().add(delta.supplierPayable));
+    }
+
+    private record Reading(DashboardResponse figures, Map<Long, StockFigure> stock, ProductVersions versions) {
+
+        Reading(DashboardResponse figures) {
+            this(figures, new HashMap<>(), new ProductVersions());
+        }
+    }
+
+    private static class Recording {
+        private final List<PendingDeltas> deltas = new ArrayList<>();
+        private final List<ProductsChangedEvent> productEvents = new ArrayList<>();
+    }
+
+    private static class PendingDeltas {
+        private int todayInvoices;
+        private BigDecimal todaySales = BigDecimal.ZERO;
+        private BigDecimal todayProfit = BigDecimal.ZERO;
+        private BigDecimal customerCredit = BigDecimal.ZERO;
+        private BigDecimal supplierPayable = BigDecimal.ZERO;
+    }
+
+    // A live product's share of the low stock count and stock value
+    private record StockFigure(boolean low, BigDecimal value) {
+
+        static StockFigure of(Integer currentStock, Integer minStock, BigDecimal averageCost) {
+            int stock = Objects.requireNonNullElse(currentStock, 0);
+            boolean low = minStock != null && stock < minStock;
+            BigDecimal value = averageCost != null ? averageCost.multiply(BigDecimal.valueOf(stock)) : BigDecimal.ZERO;
+            return new StockFigure(low, value);
+        }
+    }
+
+    private static class Snapshot {
+        private final Instant computedAt;
+        private final LocalDate day;
+        private DashboardResponse figures;
+
+        private Snapshot(Instant computedAt, LocalDate day) {
+            this.computedAt = computedAt;
+            this.day = day;
+        }
+
+        // Callers get their own copy; the figures keep changing under the lock
+        private DashboardResponse copy(Clock clock) {
+            DashboardResponse r = new DashboardResponse();
+            r.setTodaySales(figures.getTodaySales());
+            r.setTodayProfit(figures.getTodayProfit());
+            r.setTodayInvoiceCount(figures.getTodayInvoiceCount());
+            r.setLowStockCount(figures.getLowStockCount());
+            r.setExpiringCount(figures.getExpiringCount());
+            r.setTotalStockValue(figures.getTotalStockValue());
+            r.setPendingCustomerCredit(figures.getPendingCustomerCredit());
+            r.setPendingSupplierPayments(figures.getPendingSupplierPayments());
+            r.setComputedAt(LocalDateTime.ofInstant(computedAt, clock.getZone()));
+            r.setSnapshotAgeMs(Duration.between(computedAt, Instant.now(clock)).toMillis());
+            return r;
+        }
+    }
+}
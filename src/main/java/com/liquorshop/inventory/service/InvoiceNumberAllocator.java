@@ -0,0 +1,96 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.repository.SaleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Per-year invoice numbers (INV-YYYY-NNNNN) backed by the invoice_sequences counter table.
+ * <p>
+ * Each call is a single-row UPDATE ... RETURNING, so cost does not grow with the sales table.
+ * {@link #next()} increments in the caller's transaction: the row lock serialises concurrent
+ * sales (no duplicate numbers) and a rolled-back sale gives its number back. Numbers are unique
+ * but not gap-free: {@link #reserve(int)} commits a block up front, and a reserved number whose
+ * invoice then fails stays unused.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceNumberAllocator {
+
+    private final SaleRepository saleRepository;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String next() {
+        int year = LocalDateTime.now().getYear();
+        return format(year, allocate(year, 1));
+    }
+
+    /**
+     * Reserves {@code count} consecutive numbers in a short transaction of its own. Parallel
+     * import numbers a round of invoices in file order this way before writing them concurrently;
+     * a reserved number whose invoice then fails is not handed out again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<String> reserve(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        int year = LocalDateTime.now().getYear();
+        long last = allocate(year, count);
+        return LongStream.rangeClosed(last - count + 1, last)
+                .mapToObj(value -> format(year, value))
+                .toList();
+    }
+
+    // Advances the year's counter by count and returns the new last value
+    private long allocate(int year, int count) {
+        Long value = increment(year, count);
+        if (value == null) {
+            // First invoice of the year: seed from numbers already issued, then increment as usual.
+            // Racing seeders are harmless — only one insert wins and the UPDATE serialises the rest.
+            em.createNativeQuery("""
+                    INSERT INTO invoice_sequences (seq_year, last_value)
+                    VALUES (:year, :seed)
+                    ON CONFLICT (seq_year) DO NOTHING
+                    """)
+                    .setParameter("year", year)
+                    .setParameter("seed", saleRepository.countByInvoiceNumberPrefix(prefix(year)))
+                    .executeUpdate();
+            value = increment(year, count);
+        }
+        return value;
+    }
+
+    private static String prefix(int year) {
+        return "INV-" + year + "-";
+    }
+
+    private static String format(int year, long value) {
+        return prefix(year) + String.format("%05d", value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long increment(int year, int count) {
+        List<Number> rows = em.createNativeQuery("""
+                UPDATE invoice_sequences
+                SET last_value = last_value + :count
+                WHERE seq_year = :year
+                RETURNING last_value
+                """)
+                .setParameter("count", count)
+                .setParameter("year", year)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.getFirst().longValue();
+    }
+}
@@ -2,11 +2,14 @@ package com.liquorshop.inventory.service;
 
 import com.liquorshop.inventory.dto.ProductRequest;
 import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.dto.ProductSearchResponse;
 import com.liquorshop.inventory.entity.ProductEntity;
 import com.liquorshop.inventory.exception.ResourceNotFoundException;
 import com.liquorshop.inventory.mapper.ProductMapper;
 import com.liquorshop.inventory.repository.BatchRepository;
 import com.liquorshop.inventory.repository.ProductRepository;
+import com.liquorshop.inventory.service.catalog.BarcodeCache;
+import com.liquorshop.inventory.service.catalog.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +24,8 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final BarcodeCache barcodeCache;
 
     @Transactional(readOnly = true)
     public List<ProductResponse> getAll(boolean excludeQuantityZero) {
@@ -31,6 +36,24 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Catalogue search for the POS: prefix and typo-tolerant matching on name, brand and barcode,
+     * served from {@link ProductSearchIndex} without a database round trip.
+     */
+    public ProductSearchResponse search(String query, String category, String volumeMl, boolean inStock,
+                                        int page, int size) {
+        return productSearchIndex.search(query, category, volumeMl, inStock, page, size);
+    }
+
+    // Till scans: answered from BarcodeCache, which only falls back to the database for unseen codes
+    public ProductResponse getByBarcode(String barcode) {
+        ProductResponse product = barcodeCache.find(barcode);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found by barcode: " + barcode);
+        }
+        return product;
+    }
+
     @Transactional(readOnly = true)
     public ProductResponse getById(Long id) {
         return this.productMapper.toResponse(findOrThrow(id));
@@ -48,7 +71,7 @@ public class ProductService {
 
     @Transactional
     public ProductResponse update(Long id, ProductRequest request) {
-        ProductEntity entity = findOrThrow(id);
+        ProductEntity entity = lockOrThrow(id);
         if (request.getBarcode() != null
                 && !request.getBarcode().equals(entity.getBarcode())
                 && productRepository.existsByBarcodeAndDeletedFalse(request.getBarcode())) {
@@ -60,7 +83,7 @@ public class ProductService {
 
     @Transactional
     public void toggleStatus(Long id) {
-        ProductEntity entity = findOrThrow(id);
+        ProductEntity entity = lockOrThrow(id);
         entity.setStatus("ACTIVE".equals(entity.getStatus()) ? "INACTIVE" : "ACTIVE");
         productRepository.save(entity);
     }
@@ -68,7 +91,7 @@ public class ProductService {
     // Soft delete — sets deleted=true, hidden from all frontend queries
     @Transactional
     public void delete(Long id) {
-        ProductEntity entity = findOrThrow(id);
+        ProductEntity entity = lockOrThrow(id);
         entity.setDeleted(true);
         productRepository.save(entity);
     }
@@ -78,6 +101,15 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
     }
 
+    // The whole row is written back, stock and average cost included, so it is read under the row
+    // lock that sales and purchases take: a concurrent invoice's stock change is never overwritten
+    private ProductEntity lockOrThrow(Long id) {
+        return productRepository.findAllByIdForUpdate(List.of(id)).stream()
+                .filter(p -> !p.getDeleted())
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+    }
+
     private void applyRequest(ProductEntity entity, ProductRequest request) {
         entity.setName(request.getName());
         entity.setBrand(request.getBrand());
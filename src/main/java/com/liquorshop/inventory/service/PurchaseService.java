@@ -1,5 +1,6 @@
 package com.liquorshop.inventory.service;
 
+import com.liquorshop.inventory.dto.CursorPage;
 import com.liquorshop.inventory.dto.PaymentRequest;
 import com.liquorshop.inventory.dto.PaymentResponse;
 import com.liquorshop.inventory.dto.PurchaseInput;
@@ -13,10 +14,13 @@ import com.liquorshop.inventory.entity.PurchasePaymentEntity;
 import com.liquorshop.inventory.entity.SupplierEntity;
 import com.liquorshop.inventory.exception.ResourceNotFoundException;
 import com.liquorshop.inventory.repository.BatchRepository;
+import com.liquorshop.inventory.repository.Keyset;
 import com.liquorshop.inventory.repository.ProductRepository;
 import com.liquorshop.inventory.repository.PurchasePaymentRepository;
 import com.liquorshop.inventory.repository.PurchaseRepository;
-import com.liquorshop.inventory.repository.SupplierRepository;
+import com.liquorshop.inventory.service.live.LiveFeed;
+import com.liquorshop.inventory.service.metrics.PhaseTimers;
+import com.liquorshop.inventory.service.outbox.Outbox;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,22 +30,39 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PurchaseService {
 
+    // Phases of recording a purchase, tagged phase=supplier|products|batches|save|ledger|reread
+    private static final String CREATE_TIMER = "inventory.purchase.create";
+    // The same phases, less the re-read, for purchases written by bulk import
+    private static final String IMPORT_TIMER = "inventory.purchase.import";
+
     private final PurchaseRepository purchaseRepository;
-    private final SupplierRepository supplierRepository;
+    private final SupplierService supplierService;
+    private final SupplierLedgerService supplierLedgerService;
+    private final LiveFeed liveFeed;
+    private final Outbox outbox;
     private final ProductRepository productRepository;
     private final BatchRepository batchRepository;
     private final PurchasePaymentRepository paymentRepository;
+    private final PhaseTimers phaseTimers;
 
     @Transactional(readOnly = true)
-    public List<PurchaseResponse> getAll() {
-        return purchaseRepository.findAllWithSupplier()
-                .stream().map(this::toResponse).collect(Collectors.toList());
+    public CursorPage<PurchaseResponse> getPage(LocalDate from, LocalDate to, Long supplierId,
+                                                String cursor, int limit) {
+        Keyset after = cursor != null ? Keyset.decode(cursor) : null;
+        Keyset.Page<PurchaseEntity> page = Keyset.page(limit,
+                n -> purchaseRepository.findPage(from, to, supplierId, after, n),
+                p -> new Keyset(p.getPurchaseDate().atStartOfDay(), p.getId()));
+        return new CursorPage<>(page.rows().stream().map(this::toResponse).collect(Collectors.toList()),
+                page.nextCursor());
     }
 
     @Transactional(readOnly = true)
@@ -53,6 +74,22 @@ public class PurchaseService {
 
     @Transactional
     public PurchaseResponse create(PurchaseInput input) {
+        PhaseTimers.Laps laps = phaseTimers.start(CREATE_TIMER);
+        PurchaseEntity purchase = createPurchase(input, laps);
+        PurchaseResponse response = toDetailResponse(purchaseRepository.findByIdWithDetails(purchase.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Purchase not found after save")));
+        laps.lap("reread");
+        return response;
+    }
+
+    // Writes the purchase, its batches and cost updates without re-reading it for a response.
+    // Bulk import calls this directly, many purchases per transaction, timed apart from single entries.
+    @Transactional
+    public PurchaseEntity createPurchase(PurchaseInput input) {
+        return createPurchase(input, phaseTimers.start(IMPORT_TIMER));
+    }
+
+    private PurchaseEntity createPurchase(PurchaseInput input, PhaseTimers.Laps laps) {
         // Enforce VAT bill uniqueness
         if (input.getVatBillNumber() != null && !input.getVatBillNumber().isBlank()) {
             if (purchaseRepository.existsByVatBillNumber(input.getVatBillNumber())) {
@@ -60,8 +97,9 @@ public class PurchaseService {
             }
         }
 
-        SupplierEntity supplier = supplierRepository.findById(input.getSupplierId())
-                .orElseThrow(() -> new ResourceNotFoundException("Supplier not found: " + input.getSupplierId()));
+        // Not locked: the supplier's totals and ledger checkpoints are applied at commit (see SupplierLedgerService)
+        SupplierEntity supplier = supplierService.findOrThrow(input.getSupplierId());
+        laps.lap("supplier");
 
         PurchaseEntity purchase = new PurchaseEntity();
         purchase.setSupplier(supplier);
@@ -72,11 +110,18 @@ public class PurchaseService {
         purchase.setDiscount(input.getDiscount() != null ? input.getDiscount() : BigDecimal.ZERO);
         purchase.setRemarks(input.getRemarks());
 
+        // Lock the products first: stock and average cost are read-modify-write, same as on sales
+        Map<Long, ProductEntity> products = productRepository.findAllByIdForUpdate(
+                        input.getLines().stream().map(PurchaseLineInput::getProductId).toList())
+                .stream()
+                .filter(p -> !p.getDeleted())
+                .collect(Collectors.toMap(ProductEntity::getId, Function.identity()));
+        laps.lap("products");
+
         purchase = purchaseRepository.save(purchase);
 
         for (PurchaseLineInput lineInput : input.getLines()) {
-            ProductEntity product = productRepository.findById(lineInput.getProductId())
-                    .filter(p -> !p.getDeleted())
+            ProductEntity product = Optional.ofNullable(products.get(lineInput.getProductId()))
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + lineInput.getProductId()));
 
             // Auto-generate batch code if not provided
@@ -106,13 +151,17 @@ public class PurchaseService {
             purchase.addPurchaseLine(line);
 
             // Update product weighted average cost
+            liveFeed.stockChanging(product);
             updateWeightedAverageCost(product, lineInput.getQuantity(), lineInput.getPurchasePrice());
         }
+        laps.lap("batches");
 
         purchase = purchaseRepository.save(purchase);
-
-        return toDetailResponse(purchaseRepository.findByIdWithDetails(purchase.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Purchase not found after save")));
+        laps.lap("save");
+        supplierLedgerService.recordPurchase(purchase);
+        outbox.publish(Outbox.PURCHASE_CREATED, purchase.getId());
+        laps.lap("ledger");
+        return purchase;
     }
 
     @Transactional
@@ -130,6 +179,8 @@ public class PurchaseService {
         if (request.getPaymentDate() != null) payment.setPaymentDate(request.getPaymentDate());
 
         payment = paymentRepository.save(payment);
+        supplierLedgerService.recordPayment(payment);
+        liveFeed.paymentMade(payment);
         return toPaymentResponse(payment);
     }
 
@@ -154,7 +205,9 @@ public class PurchaseService {
             BigDecimal numerator = product.getAverageCost()
                     .multiply(BigDecimal.valueOf(existingQty))
                     .add(newPrice.multiply(BigDecimal.valueOf(newQty)));
-            newAvg = numerator.divide(BigDecimal.valueOf(existingQty + newQty), 4, RoundingMode.HALF_UP);
+            // Round to the column's scale: the next purchase must see the same value whether the
+            // product was reloaded from the database or is still in this transaction
+            newAvg = numerator.divide(BigDecimal.valueOf(existingQty + newQty), 2, RoundingMode.HALF_UP);
         }
 
         product.setCurrentStock(existingQty + newQty);
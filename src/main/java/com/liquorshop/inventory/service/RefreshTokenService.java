@@ -5,6 +5,7 @@ import com.liquorshop.inventory.entity.UserEntity;
 import com.liquorshop.inventory.repository.RefreshTokenRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +18,7 @@ import java.util.UUID;
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserCache userCache;
 
     @Value("${jwt.refresh-expiration:604800000}") // default 7 days in ms
     private Long refreshTokenDurationMs;
@@ -42,12 +44,16 @@ public class RefreshTokenService {
 
     @Transactional
     public void revokeByToken(String token) {
-        refreshTokenRepository.findByToken(token).ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.findByToken(token).ifPresent(refreshToken -> {
+            refreshTokenRepository.delete(refreshToken);
+            userCache.removeUserFromCache(refreshToken.getUser().getUsername());
+        });
     }
 
     @Transactional
     public void revokeByUser(UserEntity userEntity) {
         refreshTokenRepository.deleteByUser(userEntity);
+        userCache.removeUserFromCache(userEntity.getUsername());
     }
 
     public long getRefreshTokenDurationMs() {
@@ -1,8 +1,12 @@
 package com.liquorshop.inventory.service;
 
 import com.liquorshop.inventory.dto.*;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,126 +15,133 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Every report and export is timed as inventory.report{method=...}
 @Service
+@Timed("inventory.report")
 @Transactional(readOnly = true)
 public class ReportService {
 
     @PersistenceContext
     private EntityManager em;
 
+    @Value("${inventory.export.fetch-size:1000}")
+    private int exportFetchSize;
+
     // ─── Daily Sales ───────────────────────────────────────────────────────────
 
     /**
      * Returns one row per calendar day in [from, to] that had sales.
-     * Avoids double-counting by separating sale-level aggregation from
-     * sale_lines profit aggregation via subqueries.
+     * Reads the daily_sales_summary rollup. The outbox dispatcher adds each sale to it
+     * asynchronously after the sale commits, so a sale that has just committed may not show yet.
      */
     @SuppressWarnings("unchecked")
     public List<DailySalesRow> getDailySales(LocalDate from, LocalDate to) {
-        // sale_date is TIMESTAMP; compare against midnight boundaries
+        List<Object[]> rows = dailySalesQuery(from, to).getResultList();
+        return rows.stream().map(ReportService::toDailySalesRow).collect(Collectors.toList());
+    }
+
+    /**
+     * Same rows as {@link #getDailySales}, read through a forward-only cursor and handed to
+     * {@code sink} one at a time.
+     */
+    public void exportDailySales(LocalDate from, LocalDate to, Consumer<DailySalesRow> sink) {
+        try (Stream<Object[]> rows = stream(dailySalesQuery(from, to))) {
+            rows.map(ReportService::toDailySalesRow).forEach(sink);
+        }
+    }
+
+    private Query dailySalesQuery(LocalDate from, LocalDate to) {
         String sql = """
-                SELECT
-                  d.sale_date,
-                  d.invoice_count,
-                  d.total_sales,
-                  d.total_vat,
-                  d.walk_in_sales,
-                  d.customer_sales,
-                  COALESCE(p.total_profit, 0) AS total_profit
-                FROM (
-                  SELECT
-                    CAST(s.sale_date AS DATE)                        AS sale_date,
-                    COUNT(s.id)                                      AS invoice_count,
-                    SUM(s.total_amount)                              AS total_sales,
-                    COALESCE(SUM(s.vat_amount), 0)                   AS total_vat,
-                    SUM(CASE WHEN s.customer_id IS NULL
-                             THEN s.total_amount ELSE 0 END)         AS walk_in_sales,
-                    SUM(CASE WHEN s.customer_id IS NOT NULL
-                             THEN s.total_amount ELSE 0 END)         AS customer_sales
-                  FROM sales s
-                  WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
-                  GROUP BY CAST(s.sale_date AS DATE)
-                ) d
-                LEFT JOIN (
-                  SELECT
-                    CAST(s.sale_date AS DATE) AS sale_date,
-                    SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)) AS total_profit
-                  FROM sales s
-                  JOIN sale_lines sl ON s.id = sl.sale_id
-                  WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
-                  GROUP BY CAST(s.sale_date AS DATE)
-                ) p ON p.sale_date = d.sale_date
-                ORDER BY d.sale_date
+                SELECT summary_date, invoice_count, total_sales, total_vat,
+                       walk_in_sales, customer_sales, total_profit
+                FROM daily_sales_summary
+                WHERE summary_date BETWEEN :from AND :to
+                ORDER BY summary_date
                 """;
 
-        List<Object[]> rows = em.createNativeQuery(sql)
-                .setParameter("fromTs", from.atStartOfDay())
-                .setParameter("toTs", to.plusDays(1).atStartOfDay())
-                .getResultList();
+        return em.createNativeQuery(sql)
+                .setParameter("from", from)
+                .setParameter("to", to);
+    }
 
-        return rows.stream().map(r -> {
-            DailySalesRow row = new DailySalesRow();
-            row.setDate(toLocalDate(r[0]));
-            row.setInvoiceCount(toLong(r[1]));
-            row.setTotalSales(toBd(r[2]));
-            row.setTotalVat(toBd(r[3]));
-            row.setWalkInSales(toBd(r[4]));
-            row.setCustomerSales(toBd(r[5]));
-            row.setTotalProfit(toBd(r[6]));
-            return row;
-        }).collect(Collectors.toList());
+    private static DailySalesRow toDailySalesRow(Object[] r) {
+        DailySalesRow row = new DailySalesRow();
+        row.setDate(toLocalDate(r[0]));
+        row.setInvoiceCount(toLong(r[1]));
+        row.setTotalSales(toBd(r[2]));
+        row.setTotalVat(toBd(r[3]));
+        row.setWalkInSales(toBd(r[4]));
+        row.setCustomerSales(toBd(r[5]));
+        row.setTotalProfit(toBd(r[6]));
+        return row;
     }
 
     // ─── Profit & Loss ─────────────────────────────────────────────────────────
 
     /**
      * Per-product profit analysis using cost_price_at_sale (WAC snapshot).
-     * Profit = (unit_price - cost_price_at_sale) * quantity
+     * Profit = (unit_price - cost_price_at_sale) * quantity, summed from the product_daily_sales rollup.
      */
     @SuppressWarnings("unchecked")
     public List<ProfitLossRow> getProfitLoss(LocalDate from, LocalDate to) {
+        List<Object[]> rows = profitLossQuery(from, to).getResultList();
+        return rows.stream().map(ReportService::toProfitLossRow).collect(Collectors.toList());
+    }
+
+    /**
+     * Same rows as {@link #getProfitLoss}, read through a forward-only cursor and handed to
+     * {@code sink} one at a time.
+     */
+    public void exportProfitLoss(LocalDate from, LocalDate to, Consumer<ProfitLossRow> sink) {
+        try (Stream<Object[]> rows = stream(profitLossQuery(from, to))) {
+            rows.map(ReportService::toProfitLossRow).forEach(sink);
+        }
+    }
+
+    private Query profitLossQuery(LocalDate from, LocalDate to) {
         String sql = """
                 SELECT
-                  p.id                                                        AS product_id,
-                  p.name                                                      AS product_name,
+                  p.id            AS product_id,
+                  p.name          AS product_name,
                   p.brand,
                   p.category,
-                  SUM(sl.quantity)                                            AS quantity_sold,
-                  SUM(sl.line_total)                                          AS revenue,
-                  SUM(sl.quantity * sl.cost_price_at_sale)                   AS total_cost,
-                  SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)) AS profit
-                FROM sale_lines sl
-                JOIN products p ON sl.product_id = p.id
-                JOIN sales   s ON sl.sale_id    = s.id
-                WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
+                  SUM(d.quantity) AS quantity_sold,
+                  SUM(d.revenue)  AS revenue,
+                  SUM(d.cost)     AS total_cost,
+                  SUM(d.profit)   AS profit
+                FROM product_daily_sales d
+                JOIN products p ON d.product_id = p.id
+                WHERE d.sale_date BETWEEN :from AND :to
                 GROUP BY p.id, p.name, p.brand, p.category
                 ORDER BY profit DESC
                 """;
 
-        List<Object[]> rows = em.createNativeQuery(sql)
-                .setParameter("fromTs", from.atStartOfDay())
-                .setParameter("toTs", to.plusDays(1).atStartOfDay())
-                .getResultList();
+        return em.createNativeQuery(sql)
+                .setParameter("from", from)
+                .setParameter("to", to);
+    }
 
-        return rows.stream().map(r -> {
-            ProfitLossRow row = new ProfitLossRow();
-            row.setProductId(toLong(r[0]));
-            row.setProductName((String) r[1]);
-            row.setBrand((String) r[2]);
-            row.setCategory((String) r[3]);
-            row.setQuantitySold(toInt(r[4]));
-            row.setRevenue(toBd(r[5]));
-            row.setTotalCost(toBd(r[6]));
-            row.setProfit(toBd(r[7]));
-            BigDecimal rev = row.getRevenue();
-            row.setMarginPct(rev.compareTo(BigDecimal.ZERO) > 0
-                    ? row.getProfit().multiply(BigDecimal.valueOf(100)).divide(rev, 2, RoundingMode.HALF_UP)
-                    : BigDecimal.ZERO);
-            return row;
-        }).collect(Collectors.toList());
+    private static ProfitLossRow toProfitLossRow(Object[] r) {
+        ProfitLossRow row = new ProfitLossRow();
+        row.setProductId(toLong(r[0]));
+        row.setProductName((String) r[1]);
+        row.setBrand((String) r[2]);
+        row.setCategory((String) r[3]);
+        row.setQuantitySold(toInt(r[4]));
+        row.setRevenue(toBd(r[5]));
+        row.setTotalCost(toBd(r[6]));
+        row.setProfit(toBd(r[7]));
+        BigDecimal rev = row.getRevenue();
+        row.setMarginPct(rev.compareTo(BigDecimal.ZERO) > 0
+                ? row.getProfit().multiply(BigDecimal.valueOf(100)).divide(rev, 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        return row;
     }
 
     // ─── Purchase Report ───────────────────────────────────────────────────────
@@ -259,6 +270,23 @@ public class ReportService {
      */
     @SuppressWarnings("unchecked")
     public List<StockMovementRow> getStockMovement(Long productId, LocalDate from, LocalDate to) {
+        List<Object[]> rows = stockMovementQuery(productId, from, to).getResultList();
+        List<StockMovementRow> result = new ArrayList<>();
+        emitStockMovements(rows.iterator(), result::add);
+        return result;
+    }
+
+    /**
+     * Same rows as {@link #getStockMovement}, read through a forward-only cursor and handed to
+     * {@code sink} one at a time.
+     */
+    public void exportStockMovement(Long productId, LocalDate from, LocalDate to, Consumer<StockMovementRow> sink) {
+        try (Stream<Object[]> rows = stream(stockMovementQuery(productId, from, to))) {
+            emitStockMovements(rows.iterator(), sink);
+        }
+    }
+
+    private Query stockMovementQuery(Long productId, LocalDate from, LocalDate to) {
         // purchase_date on batches is DATE; sale_date on sales is TIMESTAMP
         String sql = """
                 SELECT move_date, transaction_type, reference_number, qty_in, qty_out
@@ -291,17 +319,18 @@ public class ReportService {
                 ORDER BY move_date, transaction_type
                 """;
 
-        List<Object[]> rows = em.createNativeQuery(sql)
+        return em.createNativeQuery(sql)
                 .setParameter("productId", productId)
                 .setParameter("fromDate", from)
                 .setParameter("toDate", to)
                 .setParameter("fromTs", from.atStartOfDay())
-                .setParameter("toTs", to.plusDays(1).atStartOfDay())
-                .getResultList();
+                .setParameter("toTs", to.plusDays(1).atStartOfDay());
+    }
 
-        List<StockMovementRow> result = new ArrayList<>();
+    private static void emitStockMovements(Iterator<Object[]> rows, Consumer<StockMovementRow> sink) {
         int balance = 0;
-        for (Object[] r : rows) {
+        while (rows.hasNext()) {
+            Object[] r = rows.next();
             StockMovementRow row = new StockMovementRow();
             row.setDate(toLocalDate(r[0]));
             row.setTransactionType((String) r[1]);
@@ -310,9 +339,8 @@ public class ReportService {
             row.setQuantityOut(toInt(r[4]));
             balance += row.getQuantityIn() - row.getQuantityOut();
             row.setRunningBalance(balance);
-            result.add(row);
+            sink.accept(row);
         }
-        return result;
     }
 
     // ─── Fast Moving Products ──────────────────────────────────────────────────
@@ -325,21 +353,20 @@ public class ReportService {
                   p.name,
                   p.brand,
                   p.category,
-                  SUM(sl.quantity)                                            AS quantity_sold,
-                  SUM(sl.line_total)                                          AS total_revenue,
-                  SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)) AS total_profit,
-                  MAX(CAST(s.sale_date AS DATE))                             AS last_sold_date
-                FROM sale_lines sl
-                JOIN products p ON sl.product_id = p.id
-                JOIN sales   s ON sl.sale_id    = s.id
-                WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
+                  SUM(d.quantity)  AS quantity_sold,
+                  SUM(d.revenue)   AS total_revenue,
+                  SUM(d.profit)    AS total_profit,
+                  MAX(d.sale_date) AS last_sold_date
+                FROM product_daily_sales d
+                JOIN products p ON d.product_id = p.id
+                WHERE d.sale_date BETWEEN :from AND :to
                 GROUP BY p.id, p.name, p.brand, p.category
                 ORDER BY quantity_sold DESC
                 """;
 
         List<Object[]> rows = em.createNativeQuery(sql)
-                .setParameter("fromTs", from.atStartOfDay())
-                .setParameter("toTs", to.plusDays(1).atStartOfDay())
+                .setParameter("from", from)
+                .setParameter("to", to)
                 .setMaxResults(limit)
                 .getResultList();
 
@@ -361,7 +388,7 @@ public class ReportService {
 
     /**
      * Products currently in stock that have had no sales in the last {@code days} days.
-     * Includes products that were never sold.
+     * Includes products that were never sold. Reads products.last_sold_date, kept by the sales rollup.
      */
     @SuppressWarnings("unchecked")
     public List<DeadStockRow> getDeadStock(int days) {
@@ -374,19 +401,15 @@ public class ReportService {
                   p.category,
                   p.current_stock,
                   (CAST(p.current_stock AS DECIMAL) * p.average_cost) AS stock_value,
-                  MAX(CAST(s.sale_date AS DATE))                       AS last_sold_date
+                  p.last_sold_date
                 FROM products p
-                LEFT JOIN sale_lines sl ON p.id = sl.product_id
-                LEFT JOIN sales      s  ON sl.sale_id = s.id
                 WHERE p.deleted = false AND p.current_stock > 0
-                GROUP BY p.id, p.name, p.brand, p.category, p.current_stock, p.average_cost
-                HAVING MAX(s.sale_date) IS NULL
-                    OR MAX(s.sale_date) < :cutoffTs
-                ORDER BY last_sold_date NULLS FIRST, p.name
+                  AND (p.last_sold_date IS NULL OR p.last_sold_date < :cutoff)
+                ORDER BY p.last_sold_date NULLS FIRST, p.name
                 """;
 
         List<Object[]> rows = em.createNativeQuery(sql)
-                .setParameter("cutoffTs", cutoff.atStartOfDay())
+                .setParameter("cutoff", cutoff)
                 .getResultList();
 
         LocalDate today = LocalDate.now();
@@ -409,34 +432,15 @@ public class ReportService {
 
     // ─── Supplier Outstanding ──────────────────────────────────────────────────
 
+    // Totals are kept on the supplier row by SupplierLedgerService — no scan of purchases / payments
     @SuppressWarnings("unchecked")
     public List<SupplierOutstandingRow> getSupplierOutstanding() {
         String sql = """
-                SELECT
-                  sup.id,
-                  sup.name,
-                  sup.phone,
-                  COALESCE(pu_agg.purchase_count,  0) AS purchase_count,
-                  COALESCE(pu_agg.total_purchased, 0) AS total_purchased,
-                  COALESCE(pp_agg.total_paid,      0) AS total_paid
-                FROM suppliers sup
-                LEFT JOIN (
-                  SELECT supplier_id,
-                         COUNT(*)          AS purchase_count,
-                         SUM(invoice_amount) AS total_purchased
-                  FROM purchases
-                  GROUP BY supplier_id
-                ) pu_agg ON pu_agg.supplier_id = sup.id
-                LEFT JOIN (
-                  SELECT supplier_id, SUM(amount) AS total_paid
-                  FROM purchase_payments
-                  GROUP BY supplier_id
-                ) pp_agg ON pp_agg.supplier_id = sup.id
-                WHERE sup.status = 'ACTIVE'
-                  AND COALESCE(pu_agg.total_purchased, 0)
-                    - COALESCE(pp_agg.total_paid,      0) > 0
-                ORDER BY (COALESCE(pu_agg.total_purchased, 0)
-                         - COALESCE(pp_agg.total_paid,     0)) DESC
+                SELECT id, name, phone, purchase_count, total_purchased, total_paid
+                FROM suppliers
+                WHERE status = 'ACTIVE'
+                  AND total_purchased - total_paid > 0
+                ORDER BY total_purchased - total_paid DESC
                 """;
 
         List<Object[]> rows = em.createNativeQuery(sql).getResultList();
@@ -459,21 +463,20 @@ public class ReportService {
     public List<CategorySalesRow> getCategorySales(LocalDate from, LocalDate to) {
         String sql = """
                 SELECT
-                  COALESCE(p.category, 'Uncategorized')                      AS category,
-                  SUM(sl.quantity)                                            AS quantity_sold,
-                  SUM(sl.line_total)                                          AS revenue,
-                  SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)) AS profit
-                FROM sale_lines sl
-                JOIN products p ON sl.product_id = p.id
-                JOIN sales   s ON sl.sale_id    = s.id
-                WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
+                  COALESCE(p.category, 'Uncategorized') AS category,
+                  SUM(d.quantity)                       AS quantity_sold,
+                  SUM(d.revenue)                        AS revenue,
+                  SUM(d.profit)                         AS profit
+                FROM product_daily_sales d
+                JOIN products p ON d.product_id = p.id
+                WHERE d.sale_date BETWEEN :from AND :to
                 GROUP BY COALESCE(p.category, 'Uncategorized')
                 ORDER BY revenue DESC
                 """;
 
         List<Object[]> rows = em.createNativeQuery(sql)
-                .setParameter("fromTs", from.atStartOfDay())
-                .setParameter("toTs", to.plusDays(1).atStartOfDay())
+                .setParameter("from", from)
+                .setParameter("to", to)
                 .getResultList();
 
         List<CategorySalesRow> result = rows.stream().map(r -> {
@@ -502,27 +505,18 @@ public class ReportService {
         DashboardResponse resp = new DashboardResponse();
         LocalDate today = LocalDate.now();
 
-        // Today's sales (sale-level aggregation — no join needed)
-        Object[] salesRow = (Object[]) em.createNativeQuery("""
-                SELECT COALESCE(SUM(total_amount), 0), COUNT(id)
-                FROM sales
-                WHERE CAST(sale_date AS DATE) = :today
+        // Today's sales and profit from the daily rollup — no scan of sales / sale_lines
+        List<?> todayRows = em.createNativeQuery("""
+                SELECT total_sales, invoice_count, total_profit
+                FROM daily_sales_summary
+                WHERE summary_date = :today
                 """)
                 .setParameter("today", today)
-                .getSingleResult();
-        resp.setTodaySales(toBd(salesRow[0]));
-        resp.setTodayInvoiceCount(toInt(salesRow[1]));
-
-        // Today's profit (from sale_lines, separate to avoid double-counting)
-        Object profitResult = em.createNativeQuery("""
-                SELECT COALESCE(SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)), 0)
-                FROM sale_lines sl
-                JOIN sales s ON sl.sale_id = s.id
-                WHERE CAST(s.sale_date AS DATE) = :today
-                """)
-                .setParameter("today", today)
-                .getSingleResult();
-        resp.setTodayProfit(toBd(profitResult));
+                .getResultList();
+        Object[] todayRow = todayRows.isEmpty() ? new Object[3] : (Object[]) todayRows.getFirst();
+        resp.setTodaySales(toBd(todayRow[0]));
+        resp.setTodayInvoiceCount(toInt(todayRow[1]));
+        resp.setTodayProfit(toBd(todayRow[2]));
 
         // Low stock count
         Object lowStock = em.createNativeQuery(
@@ -556,12 +550,9 @@ public class ReportService {
                 .getSingleResult();
         resp.setPendingCustomerCredit(toBd(creditPending));
 
-        // Total purchase amount minus total purchase payments
-        Object supplierPending = em.createNativeQuery("""
-                SELECT
-                  (SELECT COALESCE(SUM(invoice_amount), 0) FROM purchases)
-                - (SELECT COALESCE(SUM(amount),         0) FROM purchase_payments)
-                """)
+        // Total purchase amount minus total purchase payments, from the suppliers' running totals
+        Object supplierPending = em.createNativeQuery(
+                "SELECT COALESCE(SUM(total_purchased - total_paid), 0) FROM suppliers")
                 .getSingleResult();
         resp.setPendingSupplierPayments(toBd(supplierPending));
 
@@ -570,28 +561,36 @@ public class ReportService {
 
     // ─── Type-safe helpers ─────────────────────────────────────────────────────
 
-    private BigDecimal toBd(Object obj) {
+    // Postgres only honours the fetch size inside a transaction; without it the driver buffers every row
+    @SuppressWarnings("unchecked")
+    private Stream<Object[]> stream(Query query) {
+        return query.setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    static BigDecimal toBd(Object obj) {
         if (obj == null) return BigDecimal.ZERO;
         if (obj instanceof BigDecimal bd) return bd;
         if (obj instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
         return BigDecimal.ZERO;
     }
 
-    private Long toLong(Object obj) {
+    static Long toLong(Object obj) {
         if (obj == null) return null;
         if (obj instanceof Long l) return l;
         if (obj instanceof Number n) return n.longValue();
         return null;
     }
 
-    private Integer toInt(Object obj) {
+    static Integer toInt(Object obj) {
         if (obj == null) return 0;
         if (obj instanceof Integer i) return i;
         if (obj instanceof Number n) return n.intValue();
         return 0;
     }
 
-    private LocalDate toLocalDate(Object obj) {
+    static LocalDate toLocalDate(Object obj) {
         if (obj == null) return null;
         if (obj instanceof LocalDate ld) return ld;
         if (obj instanceof java.sql.Date d) return d.toLocalDate();
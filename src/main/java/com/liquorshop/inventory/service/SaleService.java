@@ -3,33 +3,64 @@ package com.liquorshop.inventory.service;
 import com.liquorshop.inventory.dto.*;
 import com.liquorshop.inventory.entity.*;
 import com.liquorshop.inventory.exception.ResourceNotFoundException;
-import com.liquorshop.inventory.repository.BatchRepository;
-import com.liquorshop.inventory.repository.ProductRepository;
+import com.liquorshop.inventory.repository.Keyset;
 import com.liquorshop.inventory.repository.SalePaymentRepository;
 import com.liquorshop.inventory.repository.SaleRepository;
+import com.liquorshop.inventory.service.live.LiveFeed;
+import com.liquorshop.inventory.service.metrics.PhaseTimers;
+import com.liquorshop.inventory.service.outbox.Outbox;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class SaleService {
 
+    // Phases of a checkout, tagged phase=customer|pricing|allocation|invoice-number|save|ledger|reread
+    private static final String CREATE_TIMER = "inventory.sale.create";
+    // The same phases, less the re-read, for sales written by bulk import
+    private static final String IMPORT_TIMER = "inventory.sale.import";
+
     private final SaleRepository saleRepository;
-    private final ProductRepository productRepository;
-    private final BatchRepository batchRepository;
+    private final StockAllocator stockAllocator;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
     private final SalePaymentRepository salePaymentRepository;
     private final CustomerService customerService;
+    private final CustomerLedgerService customerLedgerService;
+    private final LiveFeed liveFeed;
+    private final Outbox outbox;
+    private final PhaseTimers phaseTimers;
 
     @Transactional(readOnly = true)
-    public List<SaleResponse> getAll() {
-        return saleRepository.findAllWithCustomer()
-                .stream().map(this::toResponse).collect(Collectors.toList());
+    public CursorPage<SaleResponse> getPage(LocalDate from, LocalDate to, Long customerId, String paymentStatus,
+                                            String cursor, int limit) {
+        Keyset after = cursor != null ? Keyset.decode(cursor) : null;
+        Keyset.Page<SaleEntity> page = Keyset.page(limit,
+                n -> saleRepository.findPage(from, to, customerId, paymentStatus, after, n),
+                s -> new Keyset(s.getSaleDate(), s.getId()));
+        return new CursorPage<>(page.rows().stream().map(this::toResponse).collect(Collectors.toList()),
+                page.nextCursor());
+    }
+
+    /**
+     * Every sale matching the filters, newest first, handed to {@code sink} as it is read.
+     */
+    @Transactional(readOnly = true)
+    public void exportSales(LocalDate from, LocalDate to, Long customerId, String paymentStatus,
+                            Consumer<SaleResponse> sink) {
+        try (Stream<SaleEntity> sales = saleRepository.streamAll(from, to, customerId, paymentStatus)) {
+            sales.map(this::toResponse).forEach(sink);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -41,73 +72,84 @@ public class SaleService {
 
     @Transactional
     public SaleResponse create(SaleInput input) {
+        PhaseTimers.Laps laps = phaseTimers.start(CREATE_TIMER);
+        SaleEntity sale = createSale(input, laps);
+        SaleResponse response = toDetailResponse(saleRepository.findByIdWithDetails(sale.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Sale not found after save")));
+        laps.lap("reread");
+        return response;
+    }
+
+    // Writes the sale and its stock/balance effects without re-reading it for a response.
+    // Bulk import calls this directly, many invoices per transaction, timed apart from checkouts.
+    @Transactional
+    public SaleEntity createSale(SaleInput input) {
+        return createSale(input, phaseTimers.start(IMPORT_TIMER));
+    }
+
+    private SaleEntity createSale(SaleInput input, PhaseTimers.Laps laps) {
         CustomerEntity customer = null;
         if (input.getCustomerId() != null) {
-            customer = customerService.findOrThrow(input.getCustomerId());
+            // Locked so the balance check and ledger posting see this customer's committed balance
+            customer = customerService.lockOrThrow(input.getCustomerId());
         }
+        laps.lap("customer");
 
         SaleEntity sale = new SaleEntity();
         sale.setCustomer(customer);
-        sale.setInvoiceNumber(input.getInvoiceNumber() != null && !input.getInvoiceNumber().isBlank()
-                ? input.getInvoiceNumber()
-                : generateInvoiceNumber());
         sale.setSaleDate(input.getSaleDate() != null ? input.getSaleDate() : LocalDateTime.now());
         sale.setDiscount(input.getDiscount() != null ? input.getDiscount() : BigDecimal.ZERO);
         sale.setVatAmount(input.getVatAmount() != null ? input.getVatAmount() : BigDecimal.ZERO);
         sale.setPaymentStatus(input.getPaymentStatus() != null ? input.getPaymentStatus().toUpperCase() : "PAID");
         sale.setNotes(input.getNotes());
-        sale = saleRepository.save(sale);
 
         BigDecimal totalAmount = BigDecimal.ZERO;
 
+        // Customer's whole price template, from cache or one query
+        Map<Long, BigDecimal> templatePrices = customer != null
+                ? customerService.getTemplatePrices(customer.getId())
+                : Map.of();
+        laps.lap("pricing");
+
+        // One query for all products and one for all their available batches
+        StockAllocator.Allocation allocation = stockAllocator.load(
+                input.getItems().stream().map(SaleItemInput::getProductId).toList());
+
         for (SaleItemInput itemInput : input.getItems()) {
-            ProductEntity product = productRepository.findById(itemInput.getProductId())
-                    .filter(p -> !p.getDeleted())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + itemInput.getProductId()));
+            ProductEntity product = allocation.product(itemInput.getProductId());
 
             // Determine unit price: explicit override > customer template > product standard price
-            BigDecimal unitPrice = resolveUnitPrice(itemInput, customer, product);
+            BigDecimal unitPrice = resolveUnitPrice(itemInput, templatePrices, product);
 
             // Snapshot weighted average cost at this moment
             BigDecimal costAtSale = product.getAverageCost();
 
             // Allocate stock from batches (expiry-first, then created_at)
-            List<BatchEntity> batches = batchRepository.findAvailableByProductId(product.getId());
-
-            int totalAvailable = batches.stream().mapToInt(BatchEntity::getCurrentQuantity).sum();
-            int remaining = itemInput.getQuantity();
-
-            if (totalAvailable < remaining) {
-                throw new IllegalArgumentException(
-                        "Insufficient stock for product '" + product.getName() + "'. Available: " + totalAvailable);
-            }
-
-            for (BatchEntity batch : batches) {
-                if (remaining <= 0) break;
-
-                int take = Math.min(remaining, batch.getCurrentQuantity());
-
+            liveFeed.stockChanging(product);
+            for (StockAllocator.BatchTake take : allocation.take(product, itemInput.getQuantity())) {
                 SaleLineEntity line = new SaleLineEntity();
-                line.setBatch(batch);
+                line.setBatch(take.batch());
                 line.setProduct(product);
-                line.setQuantity(take);
+                line.setQuantity(take.quantity());
                 line.setUnitPrice(unitPrice);
                 line.setCostPriceAtSale(costAtSale);
-                line.setLineTotal(unitPrice.multiply(BigDecimal.valueOf(take)));
+                line.setLineTotal(unitPrice.multiply(BigDecimal.valueOf(take.quantity())));
                 sale.addSaleLine(line);
 
-                batch.setCurrentQuantity(batch.getCurrentQuantity() - take);
-                batchRepository.save(batch);
-
                 totalAmount = totalAmount.add(line.getLineTotal());
-                remaining -= take;
             }
-            product.setCurrentStock(product.getCurrentStock() - itemInput.getQuantity());
-            productRepository.save(product);
         }
 
         sale.setTotalAmount(totalAmount);
+        laps.lap("allocation");
+
+        // Numbered last so the invoice sequence row is locked only for the tail of the transaction
+        sale.setInvoiceNumber(input.getInvoiceNumber() != null && !input.getInvoiceNumber().isBlank()
+                ? input.getInvoiceNumber()
+                : invoiceNumberAllocator.next());
+        laps.lap("invoice-number");
         sale = saleRepository.save(sale);
+        laps.lap("save");
 
         // Update customer outstanding balance for CREDIT or PARTIAL sales
         if (customer != null && !"PAID".equals(sale.getPaymentStatus())) {
@@ -122,8 +164,13 @@ public class SaleService {
             }
         }
 
-        return toDetailResponse(saleRepository.findByIdWithDetails(sale.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Sale not found after save")));
+        if (customer != null) {
+            customerLedgerService.recordSale(sale);
+        }
+        // Rollups, dashboard and live feed follow from the outbox once this commits
+        outbox.publish(Outbox.SALE_CREATED, sale.getId());
+        laps.lap("ledger");
+        return sale;
     }
 
     @Transactional
@@ -135,7 +182,7 @@ public class SaleService {
             throw new IllegalArgumentException("Walk-in sales do not support deferred payments");
         }
 
-        CustomerEntity customer = sale.getCustomer();
+        CustomerEntity customer = customerService.lockOrThrow(sale.getCustomer().getId());
 
         SalePaymentEntity payment = new SalePaymentEntity();
         payment.setCustomer(customer);
@@ -150,6 +197,8 @@ public class SaleService {
 
         // Reduce customer outstanding balance
         customer.setOutstandingBalance(customer.getOutstandingBalance().subtract(request.getAmount()));
+        customerLedgerService.recordPayment(payment);
+        liveFeed.paymentReceived(payment);
 
         // Update sale payment status
         BigDecimal totalPaid = salePaymentRepository.sumAmountBySaleId(saleId);
@@ -181,20 +230,9 @@ public class SaleService {
 
     // ── Helpers ──────────────────────────────────────────────────────────────
 
-    private BigDecimal resolveUnitPrice(SaleItemInput item, CustomerEntity customer, ProductEntity product) {
+    private BigDecimal resolveUnitPrice(SaleItemInput item, Map<Long, BigDecimal> templatePrices, ProductEntity product) {
         if (item.getUnitPrice() != null) return item.getUnitPrice();
-        if (customer != null) {
-            return customerService.findTemplatePrice(customer.getId(), product.getId())
-                    .orElse(product.getSellingPrice());
-        }
-        return product.getSellingPrice();
-    }
-
-    private String generateInvoiceNumber() {
-        String year = String.valueOf(LocalDateTime.now().getYear());
-        String prefix = "INV-" + year + "-";
-        long count = saleRepository.countByInvoiceNumberPrefix(prefix);
-        return prefix + String.format("%05d", count + 1);
+        return templatePrices.getOrDefault(product.getId(), product.getSellingPrice());
     }
 
     private SaleResponse toResponse(SaleEntity e) {
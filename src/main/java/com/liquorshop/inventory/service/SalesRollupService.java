@@ -0,0 +1,496 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.dto.DailySalesRow;
+import com.liquorshop.inventory.dto.RollupCheckResponse;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.entity.SaleEntity;
+import com.liquorshop.inventory.entity.SaleLineEntity;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.liquorshop.inventory.service.ReportService.*;
+
+/**
+ * Maintains the sales rollups behind the reports:
+ * <ul>
+ *   <li>daily_sales_summary — per day; daily sales report and the dashboard's "today" figures</li>
+ *   <li>product_daily_sales — per product per day; profit &amp; loss, fast moving, category sales</li>
+ *   <li>products.last_sold_date — dead stock</li>
+ * </ul>
+ * Sales are never updated or deleted, so the rollups are purely additive: {@link #record} adds a
+ * sale's totals to its day and products. It is called for committed sales by the outbox
+ * (SaleCreatedHandler), so checkouts no longer queue on today's summary row. Deltas are collected
+ * per dispatch transaction and written just before commit, one upsert per day (date order), one
+ * JDBC batch for the product days (product, date order) and one for last_sold_date (product
+ * order, the same order sales lock products in) — so a batch of events costs a handful of round
+ * trips and rows are locked only for the commit itself.
+ * <p>
+ * {@link #rebuild} recomputes a date range from sales / sale_lines and {@link #check} compares
+ * the rollups with that recompute without changing anything. Both leave out sales whose outbox
+ * event is still to be dispatched: those are added by the dispatcher, whose commit waits for a
+ * rebuild's table locks. Sales whose event was parked after {@code max-attempts} are counted,
+ * and rebuild marks those events dispatched, so the rollups no longer wait on them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    // Product-day rows listed in a check response
+    private static final int MAX_PRODUCT_MISMATCHES = 100;
+
+    // Sales still waiting in the outbox; the dispatcher adds them to the rollups later.
+    // Parked events (attempts used up) are not waited for.
+    private static final String NOT_PENDING = """
+              AND NOT EXISTS (SELECT 1 FROM outbox_events o
+                              WHERE o.event_type = 'SALE_CREATED' AND o.aggregate_id = s.id
+                                AND o.dispatched_at IS NULL AND o.attempts < :maxAttempts)
+            """;
+
+    // Per product per day from the raw tables; same shape as product_daily_sales
+    private static final String RECOMPUTE_PRODUCT_SQL = """
+            SELECT
+              sl.product_id,
+              CAST(s.sale_date AS DATE)                                   AS sale_date,
+              SUM(sl.quantity)                                            AS quantity,
+              SUM(sl.line_total)                                          AS revenue,
+              SUM(sl.quantity * sl.cost_price_at_sale)                    AS cost,
+              SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)) AS profit
+            FROM sale_lines sl
+            JOIN sales s ON s.id = sl.sale_id
+            WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
+            """ + NOT_PENDING + """
+            GROUP BY sl.product_id, CAST(s.sale_date AS DATE)
+            """;
+
+    // Only ever moves forward
+    private static final String RAISE_LAST_SOLD_SQL = """
+            UPDATE products SET last_sold_date = ?
+            WHERE id = ? AND (last_sold_date IS NULL OR last_sold_date < ?)
+            """;
+
+    private static final String UPSERT_PRODUCT_DAY_SQL = """
+            INSERT INTO product_daily_sales (product_id, sale_date, quantity, revenue, cost, profit)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (product_id, sale_date) DO UPDATE SET
+              quantity = product_daily_sales.quantity + EXCLUDED.quantity,
+              revenue  = product_daily_sales.revenue  + EXCLUDED.revenue,
+              cost     = product_daily_sales.cost     + EXCLUDED.cost,
+              profit   = product_daily_sales.profit   + EXCLUDED.profit
+            """;
+
+    // Per-day totals straight from the raw tables; same shape as daily_sales_summary
+    private static final String RECOMPUTE_SQL = """
+            SELECT
+              d.sale_date,
+              d.invoice_count,
+              d.total_sales,
+              d.total_vat,
+              d.walk_in_sales,
+              d.customer_sales,
+              COALESCE(p.total_profit, 0) AS total_profit
+            FROM (
+              SELECT
+                CAST(s.sale_date AS DATE)                        AS sale_date,
+                COUNT(s.id)                                      AS invoice_count,
+                SUM(s.total_amount)                              AS total_sales,
+                COALESCE(SUM(s.vat_amount), 0)                   AS total_vat,
+                SUM(CASE WHEN s.customer_id IS NULL
+                         THEN s.total_amount ELSE 0 END)         AS walk_in_sales,
+                SUM(CASE WHEN s.customer_id IS NOT NULL
+                         THEN s.total_amount ELSE 0 END)         AS customer_sales
+              FROM sales s
+              WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
+            """ + NOT_PENDING + """
+              GROUP BY CAST(s.sale_date AS DATE)
+            ) d
+            LEFT JOIN (
+              SELECT
+                CAST(s.sale_date AS DATE) AS sale_date,
+                SUM(sl.quantity * (sl.unit_price - sl.cost_price_at_sale)) AS total_profit
+              FROM sales s
+              JOIN sale_lines sl ON s.id = sl.sale_id
+              WHERE s.sale_date >= :fromTs AND s.sale_date < :toTs
+            """ + NOT_PENDING + """
+              GROUP BY CAST(s.sale_date AS DATE)
+            ) p ON p.sale_date = d.sale_date
+            """;
+
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardSnapshotService dashboardSnapshotService;
+
+    @Value("${inventory.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionScoped<PendingDeltas> pendingDeltas =
+            TransactionScoped.of(PendingDeltas::new).beforeCommit(this::flush);
+
+    /**
+     * Adds a committed sale (with its lines) to the rollups when the current transaction commits.
+     * Each sale must be recorded exactly once; the outbox guarantees that by committing these
+     * writes together with the event's dispatched mark.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(SaleEntity sale) {
+        LocalDate day = sale.getSaleDate().toLocalDate();
+        PendingDeltas pending = pendingDeltas.get();
+
+        BigDecimal profit = BigDecimal.ZERO;
+        for (SaleLineEntity line : sale.getSaleLines()) {
+            BigDecimal quantity = BigDecimal.valueOf(line.getQuantity());
+            BigDecimal lineProfit = line.getUnitPrice().subtract(line.getCostPriceAtSale()).multiply(quantity);
+            profit = profit.add(lineProfit);
+
+            ProductEntity product = line.getProduct();
+            ProductDelta productDelta = pending.products.computeIfAbsent(
+                    new ProductDay(product.getId(), day), k -> new ProductDelta());
+            productDelta.quantity += line.getQuantity();
+            productDelta.revenue = productDelta.revenue.add(line.getLineTotal());
+            productDelta.cost = productDelta.cost.add(line.getCostPriceAtSale().multiply(quantity));
+            productDelta.profit = productDelta.profit.add(lineProfit);
+
+            pending.lastSold.merge(product.getId(), day, (a, b) -> a.isAfter(b) ? a : b);
+        }
+        BigDecimal total = sale.getTotalAmount();
+
+        DayDelta delta = pending.days.computeIfAbsent(day, d -> new DayDelta());
+        delta.invoiceCount++;
+        delta.totalSales = delta.totalSales.add(total);
+        delta.totalVat = delta.totalVat.add(Objects.requireNonNullElse(sale.getVatAmount(), BigDecimal.ZERO));
+        if (sale.getCustomer() == null) {
+            delta.walkInSales = delta.walkInSales.add(total);
+        } else {
+            delta.customerSales = delta.customerSales.add(total);
+        }
+        delta.totalProfit = delta.totalProfit.add(profit);
+
+        dashboardSnapshotService.recordSale(day, total, profit);
+    }
+
+    /**
+     * Recomputes the rollups for [from, to] (all days when both are null) from the raw tables.
+     * The table locks wait for in-flight dispatches to commit their deltas and hold back new ones
+     * until the rebuilt rows are committed, so nothing is counted twice or lost.
+     * <p>
+     * Parked SALE_CREATED events of the sales in range are marked dispatched in the same
+     * transaction: their sales are now in the rollups, and a retry must not add them again.
+     * <p>
+     * last_sold_date is then raised from the rebuilt rows in a second transaction: it only ever
+     * moves forward (sales are never removed), and updating products while holding the rollup
+     * locks could deadlock with a sale that has its products locked and waits to commit.
+     *
+     * @return number of days written
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.of(1900, 1, 1);
+        LocalDate end = to != null ? to : LocalDate.of(9999, 12, 31);
+
+        Integer days = transactionTemplate.execute(status -> rebuildRollups(start, end));
+        int products = Objects.requireNonNull(transactionTemplate.execute(status -> em.createNativeQuery("""
+                        UPDATE products p
+                        SET last_sold_date = x.last_sold
+                        FROM (SELECT product_id, MAX(sale_date) AS last_sold
+                              FROM product_daily_sales
+                              GROUP BY product_id) x
+                        WHERE p.id = x.product_id
+                          AND (p.last_sold_date IS NULL OR p.last_sold_date < x.last_sold)
+                        """)
+                .executeUpdate()));
+        log.info("Rebuilt sales rollups {}..{}: {} days, {} last-sold dates raised", start, end, days, products);
+        return Objects.requireNonNull(days);
+    }
+
+    private int rebuildRollups(LocalDate start, LocalDate end) {
+        em.createNativeQuery("LOCK TABLE daily_sales_summary, product_daily_sales IN SHARE ROW EXCLUSIVE MODE")
+                .executeUpdate();
+
+        int parked = em.createNativeQuery("""
+                        UPDATE outbox_events o
+                        SET dispatched_at = LOCALTIMESTAMP
+                        FROM sales s
+                        WHERE o.event_type = 'SALE_CREATED' AND o.aggregate_id = s.id
+                          AND o.dispatched_at IS NULL AND o.attempts >= :maxAttempts
+                          AND s.sale_date >= :fromTs AND s.sale_date < :toTs
+                        """)
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("fromTs", start.atStartOfDay())
+                .setParameter("toTs", end.plusDays(1).atStartOfDay())
+                .executeUpdate();
+        if (parked > 0) {
+            log.info("Rebuilt sales rollups include {} sales whose outbox event was parked", parked);
+        }
+
+        em.createNativeQuery("DELETE FROM daily_sales_summary WHERE summary_date BETWEEN :from AND :to")
+                .setParameter("from", start)
+                .setParameter("to", end)
+                .executeUpdate();
+        int days = em.createNativeQuery("""
+                        INSERT INTO daily_sales_summary
+                          (summary_date, invoice_count, total_sales, total_vat, walk_in_sales, customer_sales, total_profit)
+                        """ + RECOMPUTE_SQL)
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("fromTs", start.atStartOfDay())
+                .setParameter("toTs", end.plusDays(1).atStartOfDay())
+                .executeUpdate();
+
+        em.createNativeQuery("DELETE FROM product_daily_sales WHERE sale_date BETWEEN :from AND :to")
+                .setParameter("from", start)
+                .setParameter("to", end)
+                .executeUpdate();
+        em.createNativeQuery("""
+                        INSERT INTO product_daily_sales (product_id, sale_date, quantity, revenue, cost, profit)
+                        """ + RECOMPUTE_PRODUCT_SQL)
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("fromTs", start.atStartOfDay())
+                .setParameter("toTs", end.plusDays(1).atStartOfDay())
+                .executeUpdate();
+        return days;
+    }
+
+    /**
+     * Compares the rollups with a full recompute for [from, to] and lists every day, and the
+     * first product days, that differ.
+     */
+    @Transactional(readOnly = true)
+    public RollupCheckResponse check(LocalDate from, LocalDate to) {
+        Map<LocalDate, DailySalesRow> stored = new TreeMap<>();
+        for (Object row : em.createNativeQuery("""
+                        SELECT summary_date, invoice_count, total_sales, total_vat,
+                               walk_in_sales, customer_sales, total_profit
+                        FROM daily_sales_summary
+                        WHERE summary_date BETWEEN :from AND :to
+                        """)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()) {
+            DailySalesRow r = toRow((Object[]) row);
+            stored.put(r.getDate(), r);
+        }
+
+        Map<LocalDate, DailySalesRow> recomputed = new TreeMap<>();
+        for (Object row : em.createNativeQuery(RECOMPUTE_SQL)
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("fromTs", from.atStartOfDay())
+                .setParameter("toTs", to.plusDays(1).atStartOfDay())
+                .getResultList()) {
+            DailySalesRow r = toRow((Object[]) row);
+            recomputed.put(r.getDate(), r);
+        }
+
+        TreeSet<LocalDate> days = new TreeSet<>(stored.keySet());
+        days.addAll(recomputed.keySet());
+
+        RollupCheckResponse response = new RollupCheckResponse();
+        response.setFrom(from);
+        response.setTo(to);
+        response.setDaysChecked(days.size());
+        for (LocalDate day : days) {
+            DailySalesRow a = stored.get(day);
+            DailySalesRow b = recomputed.get(day);
+            if (!sameTotals(a, b)) {
+                RollupCheckResponse.Mismatch mismatch = new RollupCheckResponse.Mismatch();
+                mismatch.setDate(day);
+                mismatch.setRollup(a);
+                mismatch.setRecomputed(b);
+                response.getMismatches().add(mismatch);
+            }
+        }
+
+        List<?> productRows = em.createNativeQuery("""
+                        WITH r AS (""" + RECOMPUTE_PRODUCT_SQL + """
+                        ), d AS (
+                          SELECT product_id, sale_date, quantity, revenue, cost, profit
+                          FROM product_daily_sales
+                          WHERE sale_date BETWEEN :from AND :to
+                        )
+                        SELECT COALESCE(d.product_id, r.product_id), COALESCE(d.sale_date, r.sale_date),
+                               d.quantity, r.quantity, d.revenue, r.revenue, d.profit, r.profit
+                        FROM d
+                        FULL OUTER JOIN r ON r.product_id = d.product_id AND r.sale_date = d.sale_date
+                        WHERE d.product_id IS NULL OR r.product_id IS NULL
+                           OR d.quantity <> r.quantity OR d.revenue <> r.revenue
+                           OR d.cost <> r.cost OR d.profit <> r.profit
+                        ORDER BY 2, 1
+                        """)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("fromTs", from.atStartOfDay())
+                .setParameter("toTs", to.plusDays(1).atStartOfDay())
+                .setMaxResults(MAX_PRODUCT_MISMATCHES)
+                .getResultList();
+        for (Object row : productRows) {
+            Object[] r = (Object[]) row;
+            RollupCheckResponse.ProductDayMismatch mismatch = new RollupCheckResponse.ProductDayMismatch();
+            mismatch.setProductId(toLong(r[0]));
+            mismatch.setDate(toLocalDate(r[1]));
+            mismatch.setRollupQuantity(toLong(r[2]));
+            mismatch.setRecomputedQuantity(toLong(r[3]));
+            mismatch.setRollupRevenue(r[4] == null ? null : toBd(r[4]));
+            mismatch.setRecomputedRevenue(r[5] == null ? null : toBd(r[5]));
+            mismatch.setRollupProfit(r[6] == null ? null : toBd(r[6]));
+            mismatch.setRecomputedProfit(r[7] == null ? null : toBd(r[7]));
+            response.getProductDayMismatches().add(mismatch);
+        }
+        return response;
+    }
+
+    // Existing databases start with empty rollups; fill them once from history
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        boolean empty = em.createNativeQuery("SELECT 1 FROM daily_sales_summary LIMIT 1").getResultList().isEmpty()
+                || em.createNativeQuery("SELECT 1 FROM product_daily_sales LIMIT 1").getResultList().isEmpty();
+        boolean hasSales = !em.createNativeQuery("SELECT 1 FROM sales LIMIT 1").getResultList().isEmpty();
+        if (empty && hasSales) {
+            rebuild(null, null);
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    // Written just before the transaction commits
+    private void flush(PendingDeltas deltas) {
+        deltas.days.forEach(this::upsert);
+        upsertProductDays(deltas.products);
+        raiseLastSold(deltas.lastSold);
+    }
+
+    private void upsertProductDays(Map<ProductDay, ProductDelta> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPSERT_PRODUCT_DAY_SQL)) {
+                for (Map.Entry<ProductDay, ProductDelta> entry : products.entrySet()) {
+                    ProductDelta delta = entry.getValue();
+                    ps.setLong(1, entry.getKey().productId());
+                    ps.setObject(2, entry.getKey().day());
+                    ps.setLong(3, delta.quantity);
+                    ps.setBigDecimal(4, delta.revenue);
+                    ps.setBigDecimal(5, delta.cost);
+                    ps.setBigDecimal(6, delta.profit);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    private void raiseLastSold(Map<Long, LocalDate> lastSold) {
+        if (lastSold.isEmpty()) {
+            return;
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(RAISE_LAST_SOLD_SQL)) {
+                for (Map.Entry<Long, LocalDate> entry : lastSold.entrySet()) {
+                    ps.setObject(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                    ps.setObject(3, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    private void upsert(LocalDate day, DayDelta delta) {
+        em.createNativeQuery("""
+                        INSERT INTO daily_sales_summary
+                          (summary_date, invoice_count, total_sales, total_vat, walk_in_sales, customer_sales, total_profit)
+                        VALUES (:day, :invoiceCount, :totalSales, :totalVat, :walkInSales, :customerSales, :totalProfit)
+                        ON CONFLICT (summary_date) DO UPDATE SET
+                          invoice_count  = daily_sales_summary.invoice_count  + EXCLUDED.invoice_count,
+                          total_sales    = daily_sales_summary.total_sales    + EXCLUDED.total_sales,
+                          total_vat      = daily_sales_summary.total_vat      + EXCLUDED.total_vat,
+                          walk_in_sales  = daily_sales_summary.walk_in_sales  + EXCLUDED.walk_in_sales,
+                          customer_sales = daily_sales_summary.customer_sales + EXCLUDED.customer_sales,
+                          total_profit   = daily_sales_summary.total_profit   + EXCLUDED.total_profit
+                        """)
+                .setParameter("day", day)
+                .setParameter("invoiceCount", delta.invoiceCount)
+                .setParameter("totalSales", delta.totalSales)
+                .setParameter("totalVat", delta.totalVat)
+                .setParameter("walkInSales", delta.walkInSales)
+                .setParameter("customerSales", delta.customerSales)
+                .setParameter("totalProfit", delta.totalProfit)
+                .executeUpdate();
+    }
+
+    private static DailySalesRow toRow(Object[] r) {
+        DailySalesRow row = new DailySalesRow();
+        row.setDate(toLocalDate(r[0]));
+        row.setInvoiceCount(toLong(r[1]));
+        row.setTotalSales(toBd(r[2]));
+        row.setTotalVat(toBd(r[3]));
+        row.setWalkInSales(toBd(r[4]));
+        row.setCustomerSales(toBd(r[5]));
+        row.setTotalProfit(toBd(r[6]));
+        return row;
+    }
+
+    private static boolean sameTotals(DailySalesRow a, DailySalesRow b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        return a.getInvoiceCount() == b.getInvoiceCount()
+                && a.getTotalSales().compareTo(b.getTotalSales()) == 0
+                && a.getTotalVat().compareTo(b.getTotalVat()) == 0
+                && a.getWalkInSales().compareTo(b.getWalkInSales()) == 0
+                && a.getCustomerSales().compareTo(b.getCustomerSales()) == 0
+                && a.getTotalProfit().compareTo(b.getTotalProfit()) == 0;
+    }
+
+    // TreeMaps: rows are upserted, and therefore locked, in key order
+    private static class PendingDeltas {
+        private final Map<LocalDate, DayDelta> days = new TreeMap<>();
+        private final Map<ProductDay, ProductDelta> products = new TreeMap<>();
+        private final Map<Long, LocalDate> lastSold = new TreeMap<>();
+    }
+
+    private record ProductDay(Long productId, LocalDate day) implements Comparable<ProductDay> {
+        @Override
+        public int compareTo(ProductDay other) {
+            int byProduct = productId.compareTo(other.productId);
+            return byProduct != 0 ? byProduct : day.compareTo(other.day);
+        }
+    }
+
+    private static class ProductDelta {
+        private long quantity;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal cost = BigDecimal.ZERO;
+        private BigDecimal profit = BigDecimal.ZERO;
+    }
+
+    private static class DayDelta {
+        private long invoiceCount;
+        private BigDecimal totalSales = BigDecimal.ZERO;
+        private BigDecimal totalVat = BigDecimal.ZERO;
+        private BigDecimal walkInSales = BigDecimal.ZERO;
+        private BigDecimal customerSales = BigDecimal.ZERO;
+        private BigDecimal totalProfit = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,107 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.entity.BatchEntity;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.exception.ResourceNotFoundException;
+import com.liquorshop.inventory.repository.BatchRepository;
+import com.liquorshop.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based stock allocation for an invoice.
+ * <p>
+ * Every product and every available batch touched by the invoice is loaded with one query each,
+ * allocation runs in memory (expiry-first, then created_at), and the resulting batch and product
+ * changes are left to Hibernate's dirty checking so they flush together as JDBC batches.
+ * <p>
+ * The product rows are locked before their batches are read, so two tills selling the same SKU
+ * are serialised on that product and always allocate from committed quantities.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockAllocator {
+
+    private final ProductRepository productRepository;
+    private final BatchRepository batchRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Allocation load(Collection<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+
+        Map<Long, ProductEntity> products = new HashMap<>();
+        for (ProductEntity product : productRepository.findAllByIdForUpdate(ids)) {
+            if (!product.getDeleted()) products.put(product.getId(), product);
+        }
+
+        // Query is ordered by product first, so each product's list keeps the allocation order
+        Map<Long, List<BatchEntity>> batches = new HashMap<>();
+        if (!products.isEmpty()) {
+            for (BatchEntity batch : batchRepository.findAvailableByProductIds(products.keySet())) {
+                batches.computeIfAbsent(batch.getProduct().getId(), k -> new ArrayList<>()).add(batch);
+            }
+        }
+        return new Allocation(products, batches);
+    }
+
+    public record BatchTake(BatchEntity batch, int quantity) {
+    }
+
+    public static class Allocation {
+
+        private final Map<Long, ProductEntity> products;
+        private final Map<Long, List<BatchEntity>> batches;
+
+        private Allocation(Map<Long, ProductEntity> products, Map<Long, List<BatchEntity>> batches) {
+            this.products = products;
+            this.batches = batches;
+        }
+
+        public ProductEntity product(Long productId) {
+            ProductEntity product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found: " + productId);
+            }
+            return product;
+        }
+
+        /**
+         * Draws {@code quantity} units of the product from its batches in allocation order,
+         * decrementing batch and product stock in memory. A product appearing on several lines
+         * sees the quantities left by the earlier lines.
+         */
+        public List<BatchTake> take(ProductEntity product, int quantity) {
+            List<BatchEntity> available = batches.getOrDefault(product.getId(), List.of());
+
+            int totalAvailable = available.stream().mapToInt(BatchEntity::getCurrentQuantity).sum();
+            if (totalAvailable < quantity) {
+                throw new IllegalArgumentException(
+                        "Insufficient stock for product '" + product.getName() + "'. Available: " + totalAvailable);
+            }
+
+            List<BatchTake> takes = new ArrayList<>();
+            int remaining = quantity;
+            for (BatchEntity batch : available) {
+                if (remaining <= 0) break;
+                if (batch.getCurrentQuantity() <= 0) continue;
+
+                int take = Math.min(remaining, batch.getCurrentQuantity());
+                batch.setCurrentQuantity(batch.getCurrentQuantity() - take);
+                takes.add(new BatchTake(batch, take));
+                remaining -= take;
+            }
+            product.setCurrentStock(product.getCurrentStock() - quantity);
+            return takes;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.dto.SupplierReconciliationResponse;
+import com.liquorshop.inventory.entity.PurchaseEntity;
+import com.liquorshop.inventory.entity.PurchasePaymentEntity;
+import com.liquorshop.inventory.entity.SupplierEntity;
+import com.liquorshop.inventory.entity.SupplierLedgerEntity;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static com.liquorshop.inventory.service.ReportService.*;
+
+/**
+ * Maintains what is owed to each supplier:
+ * <ul>
+ *   <li>suppliers.purchase_count / total_purchased / total_paid — supplier outstanding report and
+ *       the dashboard's payable figure</li>
+ *   <li>supplier_ledger and its monthly supplier_balance_checkpoints — supplier statements, through
+ *       {@link AccountLedger}</li>
+ * </ul>
+ * Every purchase and every payment posts one ledger row and adds to the supplier's totals in the
+ * same transaction. The supplier row is not locked while the transaction runs: the totals are added
+ * with one UPDATE per supplier just before the commit, and the ledger's checkpoints catch up at the
+ * same point, so purchases from one supplier (bulk import rounds included) only queue for the
+ * supplier row while committing. SupplierEntity never writes the total columns itself.
+ * <p>
+ * {@link #check} compares the totals and the ledger with a recompute from purchases and
+ * purchase_payments; {@link #rebuild} rewrites all three from them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SupplierLedgerService {
+
+    private static final AccountLedger.Definition<SupplierLedgerEntity> LEDGER = new AccountLedger.Definition<>(
+            SupplierLedgerEntity.class, "supplier_ledger", "supplier_balance_checkpoints", "supplier_id", "suppliers");
+
+    // Purchases and their payments, in posting order
+    private static final String RECOMPUTE_LEDGER_SQL = """
+            INSERT INTO supplier_ledger
+              (supplier_id, entry_date, entry_type, purchase_id, payment_id, reference,
+               payment_method, reference_number, debit, credit)
+            SELECT supplier_id, entry_date, entry_type, purchase_id, payment_id, reference,
+                   payment_method, reference_number, debit, credit
+            FROM (
+              SELECT pu.supplier_id, CAST(pu.purchase_date AS TIMESTAMP) AS entry_date, 'PURCHASE' AS entry_type,
+                     pu.id AS purchase_id, CAST(NULL AS BIGINT) AS payment_id,
+                     COALESCE(pu.vat_bill_number, 'PUR-' || pu.id) AS reference,
+                     CAST(NULL AS VARCHAR) AS payment_method, CAST(NULL AS VARCHAR) AS reference_number,
+                     COALESCE(pu.invoice_amount, 0) AS debit, 0 AS credit
+              FROM purchases pu
+              UNION ALL
+              SELECT pp.supplier_id, pp.payment_date, 'PAYMENT', pp.purchase_id,
+                     pp.id, 'PAY-' || pp.id,
+                     pp.payment_method, pp.reference_number,
+                     0, pp.amount
+              FROM purchase_payments pp
+            ) e
+            ORDER BY entry_date, payment_id NULLS FIRST, purchase_id
+            """;
+
+    // Per-supplier totals straight from the raw tables; same shape as the suppliers columns
+    private static final String RECOMPUTE_TOTALS_SQL = """
+            SELECT
+              sup.id,
+              COALESCE(pu_agg.purchase_count,  0) AS purchase_count,
+              COALESCE(pu_agg.total_purchased, 0) AS total_purchased,
+              COALESCE(pp_agg.total_paid,      0) AS total_paid
+            FROM suppliers sup
+            LEFT JOIN (
+              SELECT supplier_id,
+                     COUNT(*)            AS purchase_count,
+                     SUM(invoice_amount) AS total_purchased
+              FROM purchases
+              GROUP BY supplier_id
+            ) pu_agg ON pu_agg.supplier_id = sup.id
+            LEFT JOIN (
+              SELECT supplier_id, SUM(amount) AS total_paid
+              FROM purchase_payments
+              GROUP BY supplier_id
+            ) pp_agg ON pp_agg.supplier_id = sup.id
+            """;
+
+    private final AccountLedger accountLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardSnapshotService dashboardSnapshotService;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    // Totals added by the current transaction, per supplier in id order; written just before it commits
+    private final TransactionScoped<Map<Long, TotalsDelta>> pendingTotals =
+            TransactionScoped.<Map<Long, TotalsDelta>>of(TreeMap::new)
+                    .beforeCommit(pending -> pending.forEach(this::addTotals));
+
+    /**
+     * Adds a newly created purchase to its supplier's ledger, and to its totals when the current
+     * transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPurchase(PurchaseEntity purchase) {
+        SupplierEntity supplier = purchase.getSupplier();
+        BigDecimal amount = Objects.requireNonNullElse(purchase.getInvoiceAmount(), BigDecimal.ZERO);
+        TotalsDelta delta = pendingTotals.get().computeIfAbsent(supplier.getId(), id -> new TotalsDelta());
+        delta.purchaseCount++;
+        delta.totalPurchased = delta.totalPurchased.add(amount);
+
+        SupplierLedgerEntity entry = new SupplierLedgerEntity();
+        entry.setAccountId(supplier.getId());
+        entry.setEntryDate(purchase.getPurchaseDate().atStartOfDay());
+        entry.setEntryType("PURCHASE");
+        entry.setPurchaseId(purchase.getId());
+        entry.setReference(purchase.getVatBillNumber() != null
+                ? purchase.getVatBillNumber()
+                : "PUR-" + purchase.getId());
+        entry.setDebit(amount);
+        post(entry);
+    }
+
+    /**
+     * Adds a payment to its supplier's ledger, and to its totals when the current transaction
+     * commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(PurchasePaymentEntity payment) {
+        SupplierEntity supplier = payment.getSupplier();
+        TotalsDelta delta = pendingTotals.get().computeIfAbsent(supplier.getId(), id -> new TotalsDelta());
+        delta.totalPaid = delta.totalPaid.add(payment.getAmount());
+
+        SupplierLedgerEntity entry = new SupplierLedgerEntity();
+        entry.setAccountId(supplier.getId());
+        entry.setEntryDate(payment.getPaymentDate());
+        entry.setEntryType("PAYMENT");
+        entry.setPurchaseId(payment.getPurchase().getId());
+        entry.setPaymentId(payment.getId());
+        entry.setReference("PAY-" + payment.getId());
+        entry.setPaymentMethod(payment.getPaymentMethod());
+        entry.setReferenceNumber(payment.getReferenceNumber());
+        entry.setCredit(payment.getAmount());
+        post(entry);
+    }
+
+    /**
+     * One page of the supplier's statement for [from, to] (open-ended when null), oldest first.
+     */
+    public AccountLedger.Statement statement(Long supplierId, LocalDate from, LocalDate to, String cursor, int limit) {
+        return accountLedger.statement(LEDGER, supplierId, from, to, cursor, limit);
+    }
+
+    /**
+     * Compares every supplier's stored totals and ledger balance with a recompute from purchases
+     * and purchase_payments, and lists the suppliers that differ.
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public SupplierReconciliationResponse check() {
+        List<Object[]> rows = em.createNativeQuery("""
+                        SELECT sup.id, sup.name,
+                               sup.purchase_count, sup.total_purchased, sup.total_paid,
+                               r.purchase_count, r.total_purchased, r.total_paid,
+                               COALESCE(l.balance, 0)
+                        FROM suppliers sup
+                        JOIN (""" + RECOMPUTE_TOTALS_SQL + """
+                        ) r ON r.id = sup.id
+                        LEFT JOIN (
+                          SELECT supplier_id, SUM(debit - credit) AS balance
+                          FROM supplier_ledger
+                          GROUP BY supplier_id
+                        ) l ON l.supplier_id = sup.id
+                        ORDER BY sup.id
+                        """)
+                .getResultList();
+
+        SupplierReconciliationResponse response = new SupplierReconciliationResponse();
+        response.setSuppliersChecked(rows.size());
+        for (Object[] r : rows) {
+            SupplierReconciliationResponse.Mismatch m = new SupplierReconciliationResponse.Mismatch();
+            m.setSupplierId(toLong(r[0]));
+            m.setSupplierName((String) r[1]);
+            m.setPurchaseCount(toInt(r[2]));
+            m.setTotalPurchased(toBd(r[3]));
+            m.setTotalPaid(toBd(r[4]));
+            m.setRecomputedPurchaseCount(toInt(r[5]));
+            m.setRecomputedTotalPurchased(toBd(r[6]));
+            m.setRecomputedTotalPaid(toBd(r[7]));
+            m.setLedgerBalance(toBd(r[8]));
+
+            BigDecimal recomputedBalance = m.getRecomputedTotalPurchased().subtract(m.getRecomputedTotalPaid());
+            boolean consistent = m.getPurchaseCount() == m.getRecomputedPurchaseCount()
+                    && m.getTotalPurchased().compareTo(m.getRecomputedTotalPurchased()) == 0
+                    && m.getTotalPaid().compareTo(m.getRecomputedTotalPaid()) == 0
+                    && m.getLedgerBalance().compareTo(recomputedBalance) == 0;
+            if (!consistent) {
+                response.getMismatches().add(m);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Recomputes every supplier's totals, ledger and checkpoints from purchases and
+     * purchase_payments. The suppliers table is locked first, so in-flight postings (whose purchase
+     * or payment rows already hold a key-share lock on their supplier) finish and new ones wait until
+     * the rebuilt rows are committed.
+     *
+     * @return number of ledger rows written
+     */
+    public int rebuild() {
+        int rows = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            em.createNativeQuery("LOCK TABLE suppliers IN EXCLUSIVE MODE").executeUpdate();
+            em.createNativeQuery("""
+                            UPDATE suppliers sup
+                            SET purchase_count  = r.purchase_count,
+                                total_purchased = r.total_purchased,
+                                total_paid      = r.total_paid
+                            FROM (""" + RECOMPUTE_TOTALS_SQL + """
+                            ) r
+                            WHERE r.id = sup.id
+                            """)
+                    .executeUpdate();
+
+            return accountLedger.replace(LEDGER, RECOMPUTE_LEDGER_SQL);
+        }));
+        log.info("Rebuilt supplier totals and ledger: {} ledger rows", rows);
+        return rows;
+    }
+
+    // Existing databases start with an empty ledger and zero totals; fill them once from history
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        boolean empty = accountLedger.isEmpty(LEDGER);
+        boolean hasPurchases = !em.createNativeQuery("SELECT 1 FROM purchases LIMIT 1").getResultList().isEmpty();
+        if (empty && hasPurchases) {
+            rebuild();
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void post(SupplierLedgerEntity entry) {
+        accountLedger.post(LEDGER, entry);
+        dashboardSnapshotService.recordSupplierPayable(entry.net());
+    }
+
+    private void addTotals(Long supplierId, TotalsDelta delta) {
+        em.createNativeQuery("""
+                        UPDATE suppliers
+                        SET purchase_count  = purchase_count + :count,
+                            total_purchased = total_purchased + :purchased,
+                            total_paid      = total_paid + :paid
+                        WHERE id = :id
+                        """)
+                .setParameter("count", delta.purchaseCount)
+                .setParameter("purchased", delta.totalPurchased)
+                .setParameter("paid", delta.totalPaid)
+                .setParameter("id", supplierId)
+                .executeUpdate();
+    }
+
+    private static class TotalsDelta {
+        private int purchaseCount;
+        private BigDecimal totalPurchased = BigDecimal.ZERO;
+        private BigDecimal totalPaid = BigDecimal.ZERO;
+    }
+}
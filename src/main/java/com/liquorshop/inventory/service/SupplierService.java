@@ -2,6 +2,7 @@ package com.liquorshop.inventory.service;
 
 import com.liquorshop.inventory.dto.SupplierRequest;
 import com.liquorshop.inventory.dto.SupplierResponse;
+import com.liquorshop.inventory.dto.SupplierStatementResponse;
 import com.liquorshop.inventory.entity.SupplierEntity;
 import com.liquorshop.inventory.exception.ResourceNotFoundException;
 import com.liquorshop.inventory.repository.SupplierRepository;
@@ -9,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,6 +19,7 @@ import java.util.stream.Collectors;
 public class SupplierService {
 
     private final SupplierRepository supplierRepository;
+    private final SupplierLedgerService supplierLedgerService;
 
     @Transactional(readOnly = true)
     public List<SupplierResponse> getAll() {
@@ -55,6 +58,33 @@ public class SupplierService {
         supplierRepository.deleteById(id);
     }
 
+    // ── Supplier Statement ───────────────────────────────────────────────────
+
+    /**
+     * One page of the supplier's ledger for [from, to] (open-ended when null), oldest first, with
+     * the balance before the page and after each row. Pass the previous page's nextCursor to continue.
+     */
+    @Transactional(readOnly = true)
+    public SupplierStatementResponse getStatement(Long supplierId, LocalDate from, LocalDate to,
+                                                  String cursor, int limit) {
+        SupplierEntity supplier = findOrThrow(supplierId);
+
+        AccountLedger.Statement statement = supplierLedgerService.statement(supplierId, from, to, cursor, limit);
+
+        SupplierStatementResponse response = new SupplierStatementResponse();
+        response.setSupplierId(supplier.getId());
+        response.setSupplierName(supplier.getName());
+        response.setOutstandingBalance(supplier.getTotalPurchased().subtract(supplier.getTotalPaid()));
+        response.setFrom(from);
+        response.setTo(to);
+        response.setOpeningBalance(statement.openingBalance());
+        response.setEntries(statement.entries());
+        response.setNextCursor(statement.nextCursor());
+        return response;
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
     private void applyRequest(SupplierEntity entity, SupplierRequest request) {
         entity.setName(request.getName());
         entity.setContactPerson(request.getContactPerson());
@@ -64,7 +94,7 @@ public class SupplierService {
         if (request.getStatus() != null) entity.setStatus(request.getStatus());
     }
 
-    private SupplierEntity findOrThrow(Long id) {
+    public SupplierEntity findOrThrow(Long id) {
         return supplierRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Supplier not found: " + id));
     }
@@ -78,6 +108,10 @@ public class SupplierService {
         r.setAddress(e.getAddress());
         r.setVatPanNumber(e.getVatPanNumber());
         r.setStatus(e.getStatus());
+        r.setPurchaseCount(e.getPurchaseCount());
+        r.setTotalPurchased(e.getTotalPurchased());
+        r.setTotalPaid(e.getTotalPaid());
+        r.setOutstandingBalance(e.getTotalPurchased().subtract(e.getTotalPaid()));
         r.setCreatedAt(e.getCreatedAt());
         return r;
     }
@@ -4,6 +4,7 @@ import com.liquorshop.inventory.dto.CustomerRequest;
 import com.liquorshop.inventory.dto.ImportResult;
 import com.liquorshop.inventory.service.CustomerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -11,7 +12,7 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static com.liquorshop.inventory.service.bulk.BulkImportUtils.*;
-import static com.liquorshop.inventory.service.bulk.FileHandler.*;
+import static com.liquorshop.inventory.service.bulk.FileHandler.streamRows;
 
 @Service
 @RequiredArgsConstructor
@@ -19,16 +20,23 @@ public class BulkCustomerService {
 
     private final CustomerService customerService;
 
+    @Value("${inventory.import.chunk-size:500}")
+    private int chunkSize;
 
     public ImportResult importCustomers(MultipartFile file) throws Exception {
-        List<String[]> rows = parseFile(file);
-        ImportResult result = new ImportResult();
-        result.setTotalRows(rows.size());
+        return importCustomers(new ImportRun(ImportSource.of(file)));
+    }
 
-        for (int i = 0; i < rows.size(); i++) {
-            int rowNum = i + 2;
+    public ImportResult importCustomers(ImportRun run) throws Exception {
+        ImportResult result = run.getResult();
+        streamRows(run, chunkSize, r -> null, chunk -> importChunk(chunk, result));
+        return result;
+    }
+
+    private void importChunk(List<ImportRow> rows, ImportResult result) {
+        for (ImportRow row : rows) {
             try {
-                String[] r = rows.get(i);
+                String[] r = row.cells();
                 CustomerRequest req = new CustomerRequest();
                 req.setName(require(r, 0, "name"));
                 req.setPhone(optional(r, 1));
@@ -41,10 +49,9 @@ public class BulkCustomerService {
                 customerService.create(req);
                 result.incrementSuccess();
             } catch (Exception ex) {
-                result.addError(rowNum, ex.getMessage());
+                result.addError(row.rowNumber(), ex.getMessage());
             }
         }
-        return result;
     }
 
 }
@@ -4,6 +4,7 @@ import com.liquorshop.inventory.dto.ImportResult;
 import com.liquorshop.inventory.dto.ProductRequest;
 import com.liquorshop.inventory.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.liquorshop.inventory.service.bulk.BulkImportUtils.*;
-import static com.liquorshop.inventory.service.bulk.FileHandler.parseFile;
+import static com.liquorshop.inventory.service.bulk.FileHandler.streamRows;
 
 @Service
 @RequiredArgsConstructor
@@ -19,15 +20,23 @@ public class BulkProductService {
 
     private final ProductService productService;
 
+    @Value("${inventory.import.chunk-size:500}")
+    private int chunkSize;
+
     public ImportResult importProducts(MultipartFile file) throws Exception {
-        List<String[]> rows = parseFile(file);
-        ImportResult result = new ImportResult();
-        result.setTotalRows(rows.size());
+        return importProducts(new ImportRun(ImportSource.of(file)));
+    }
+
+    public ImportResult importProducts(ImportRun run) throws Exception {
+        ImportResult result = run.getResult();
+        streamRows(run, chunkSize, r -> null, chunk -> importChunk(chunk, result));
+        return result;
+    }
 
-        for (int i = 0; i < rows.size(); i++) {
-            int rowNum = i + 2; // 1-indexed, +1 for header
+    private void importChunk(List<ImportRow> rows, ImportResult result) {
+        for (ImportRow row : rows) {
             try {
-                String[] r = rows.get(i);
+                String[] r = row.cells();
                 ProductRequest req = new ProductRequest();
                 req.setName(require(r, 0, "name"));
                 req.setBrand(optional(r, 1));
@@ -45,11 +54,8 @@ public class BulkProductService {
                 productService.create(req);
                 result.incrementSuccess();
             } catch (Exception ex) {
-                result.addError(rowNum, ex.getMessage());
+                result.addError(row.rowNumber(), ex.getMessage());
             }
         }
-        return result;
     }
-
-
 }
@@ -4,61 +4,87 @@ import com.liquorshop.inventory.dto.ImportResult;
 import com.liquorshop.inventory.dto.PurchaseInput;
 import com.liquorshop.inventory.dto.PurchaseLineInput;
 import com.liquorshop.inventory.entity.SupplierEntity;
-import com.liquorshop.inventory.repository.ProductRepository;
 import com.liquorshop.inventory.repository.SupplierRepository;
 import com.liquorshop.inventory.service.PurchaseService;
+import com.liquorshop.inventory.service.catalog.BarcodeCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.liquorshop.inventory.service.bulk.BulkImportUtils.*;
-import static com.liquorshop.inventory.service.bulk.FileHandler.parseFile;
+import static com.liquorshop.inventory.service.bulk.FileHandler.streamRows;
 
 @Service
 @RequiredArgsConstructor
-public class BulkPurchasesService {
+public class BulkPurchasesService implements InvoiceImport<BulkPurchasesService.PendingPurchase> {
 
     private final SupplierRepository supplierRepository;
 
-    private final ProductRepository productRepository;
+    private final BarcodeCache barcodeCache;
     private final PurchaseService purchaseService;
+    private final InvoiceBatchWriter invoiceBatchWriter;
+    private final ParallelInvoiceImporter parallelInvoiceImporter;
+
+    @Value("${inventory.import.chunk-size:500}")
+    private int chunkSize;
 
     public ImportResult importPurchases(MultipartFile file) throws Exception {
-        List<String[]> rows = parseFile(file);
-        ImportResult result = new ImportResult();
-        result.setTotalRows(rows.size());
-
-        // Group rows by vat_bill_number (col 1).
-        // Blank vat_bill_number → synthetic key keeps each row as separate purchase.
-        Map<String, List<int[]>> groups = new LinkedHashMap<>(); // key → list of row indices
-        for (int i = 0; i < rows.size(); i++) {
-            String[] r = rows.get(i);
-            String vatBill = optional(r, 1);
-            String key = (vatBill != null && !vatBill.isBlank()) ? vatBill : ("__row_" + i);
-            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(new int[]{i});
+        return importPurchases(new ImportRun(ImportSource.of(file)));
+    }
+
+    public ImportResult importPurchases(ImportRun run) throws Exception {
+        ImportResult result = run.getResult();
+        streamRows(run, chunkSize, this::groupKey,
+                chunk -> invoiceBatchWriter.write(prepare(chunk, result), this::write, result));
+        return result;
+    }
+
+    // Several files at once; see ParallelInvoiceImporter for the ordering guarantees
+    public List<ImportResult> importPurchasesParallel(List<MultipartFile> files) throws Exception {
+        return parallelInvoiceImporter.importFiles(files.stream().map(ImportSource::of).toList(), this);
+    }
+
+    // Rows sharing a vat_bill_number (col 1) form one purchase; blank → the row is its own purchase
+    @Override
+    public String groupKey(String[] row) {
+        String vatBill = optional(row, 1);
+        return (vatBill != null && !vatBill.isBlank()) ? vatBill : null;
+    }
+
+    @Override
+    public List<PendingPurchase> prepare(List<ImportRow> rows, ImportResult result) {
+        Map<String, List<ImportRow>> groups = new LinkedHashMap<>();
+        for (ImportRow row : rows) {
+            String key = Optional.ofNullable(groupKey(row.cells())).orElse("__row_" + row.rowNumber());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
         }
 
-        for (Map.Entry<String, List<int[]>> entry : groups.entrySet()) {
-            List<int[]> indices = entry.getValue();
+        // One query each for every supplier name and product barcode in the chunk
+        Map<String, Long> supplierIds = resolveSuppliers(groups.values());
+        Map<String, Long> productIds = resolveProducts(rows);
+
+        List<PendingPurchase> purchases = new ArrayList<>();
+        for (List<ImportRow> group : groups.values()) {
             // Use first row of the group for header fields
-            int firstIdx = indices.getFirst()[0];
-            int firstRowNum = firstIdx + 2;
+            ImportRow first = group.getFirst();
             try {
-                String[] header = rows.get(firstIdx);
+                String[] header = first.cells();
 
                 String supplierName = require(header, 0, "supplier_name");
-                Optional<SupplierEntity> supplierOpt = supplierRepository.findByNameIgnoreCase(supplierName);
-                if (supplierOpt.isEmpty()) {
-                    for (int[] idx : indices) {
-                        result.addError(idx[0] + 2, "Supplier not found: " + supplierName);
+                Long supplierId = supplierIds.get(supplierName.toLowerCase());
+                if (supplierId == null) {
+                    for (ImportRow row : group) {
+                        result.addError(row.rowNumber(), "Supplier not found: " + supplierName);
                     }
                     continue;
                 }
 
                 PurchaseInput input = new PurchaseInput();
-                input.setSupplierId(supplierOpt.get().getId());
+                input.setSupplierId(supplierId);
                 String vatBill = optional(header, 1);
                 input.setVatBillNumber(vatBill != null && !vatBill.isBlank() ? vatBill : null);
                 input.setPurchaseDate(parseDate(optional(header, 2)));
@@ -68,26 +94,25 @@ public class BulkPurchasesService {
                 input.setRemarks(optional(header, 6));
                 input.setLines(new ArrayList<>());
 
-                for (int[] idx : indices) {
-                    int rowNum = idx[0] + 2;
+                for (ImportRow row : group) {
                     try {
-                        String[] r = rows.get(idx[0]);
+                        String[] r = row.cells();
                         String barcode = require(r, 7, "product_barcode");
-                        var productOpt = productRepository.findByBarcodeAndDeletedFalse(barcode);
-                        if (productOpt.isEmpty()) {
-                            result.addError(rowNum, "Product not found by barcode: " + barcode);
+                        Long productId = productIds.get(barcode);
+                        if (productId == null) {
+                            result.addError(row.rowNumber(), "Product not found by barcode: " + barcode);
                             continue;
                         }
 
                         PurchaseLineInput line = new PurchaseLineInput();
-                        line.setProductId(productOpt.get().getId());
+                        line.setProductId(productId);
                         line.setQuantity(requireInt(r, 8, "quantity"));
                         line.setPurchasePrice(requireDecimal(r, 9, "purchase_price"));
                         line.setVatPercent(optionalDecimalOrZero(r, 10));
                         line.setExpiryDate(parseDate(optional(r, 11)));
                         input.getLines().add(line);
                     } catch (Exception ex) {
-                        result.addError(rowNum, ex.getMessage());
+                        result.addError(row.rowNumber(), ex.getMessage());
                     }
                 }
 
@@ -96,14 +121,63 @@ public class BulkPurchasesService {
                     continue;
                 }
 
-                purchaseService.create(input);
-                int successRows = input.getLines().size();
-                for (int s = 0; s < successRows; s++) result.incrementSuccess();
+                purchases.add(new PendingPurchase(first.rowNumber(), input));
 
             } catch (Exception ex) {
-                result.addError(firstRowNum, ex.getMessage());
+                result.addError(first.rowNumber(), ex.getMessage());
             }
         }
-        return result;
+
+        return purchases;
+    }
+
+    @Override
+    public void write(PendingPurchase purchase) {
+        purchaseService.createPurchase(purchase.input());
+    }
+
+    private Map<String, Long> resolveSuppliers(Collection<List<ImportRow>> groups) {
+        Set<String> names = groups.stream()
+                .map(group -> optional(group.getFirst().cells(), 0))
+                .filter(Objects::nonNull)
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        return supplierRepository.findAllByLowerNameIn(names).stream()
+                .collect(Collectors.toMap(s -> s.getName().toLowerCase(), SupplierEntity::getId, (a, b) -> a));
+    }
+
+    private Map<String, Long> resolveProducts(List<ImportRow> rows) {
+        Set<String> barcodes = rows.stream()
+                .map(row -> optional(row.cells(), 7))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (barcodes.isEmpty()) {
+            return Map.of();
+        }
+        return barcodeCache.resolveIds(barcodes);
+    }
+
+    record PendingPurchase(int firstRowNum, PurchaseInput input) implements PendingInvoice {
+
+        @Override
+        public int lineCount() {
+            return input.getLines().size();
+        }
+
+        // Stock and average cost of every product; the VAT bill number so that a duplicate across files
+        // is rejected on the same invoice as in a serial run. Purchases from one supplier need no key:
+        // its totals and ledger checkpoints are added at commit (see SupplierLedgerService).
+        @Override
+        public Set<String> conflictKeys() {
+            Set<String> keys = new HashSet<>();
+            input.getLines().forEach(line -> keys.add("product:" + line.getProductId()));
+            if (input.getVatBillNumber() != null) {
+                keys.add("vat-bill:" + input.getVatBillNumber());
+            }
+            return keys;
+        }
     }
 }
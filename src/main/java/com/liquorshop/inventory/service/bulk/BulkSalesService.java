@@ -5,82 +5,153 @@ import com.liquorshop.inventory.dto.SaleInput;
 import com.liquorshop.inventory.dto.SaleItemInput;
 import com.liquorshop.inventory.entity.CustomerEntity;
 import com.liquorshop.inventory.repository.CustomerRepository;
-import com.liquorshop.inventory.repository.ProductRepository;
+import com.liquorshop.inventory.service.InvoiceNumberAllocator;
 import com.liquorshop.inventory.service.SaleService;
+import com.liquorshop.inventory.service.catalog.BarcodeCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.liquorshop.inventory.service.bulk.BulkImportUtils.*;
-import static com.liquorshop.inventory.service.bulk.FileHandler.parseFile;
+import static com.liquorshop.inventory.service.bulk.FileHandler.streamRows;
 
 @Service
 @RequiredArgsConstructor
-public class BulkSalesService {
+public class BulkSalesService implements InvoiceImport<BulkSalesService.PendingSale> {
 
     private final SaleService saleService;
-    private final ProductRepository productRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final ParallelInvoiceImporter parallelInvoiceImporter;
+    private final BarcodeCache barcodeCache;
     private final CustomerRepository customerRepository;
+    private final InvoiceBatchWriter invoiceBatchWriter;
+
+    @Value("${inventory.import.chunk-size:500}")
+    private int chunkSize;
 
     public ImportResult importSales(MultipartFile file) throws Exception {
+        return importSales(new ImportRun(ImportSource.of(file)));
+    }
 
-        List<String[]> rows = parseFile(file);
-        ImportResult result = new ImportResult();
-        result.setTotalRows(rows.size());
-        Map<String, List<Integer>> groups = groupRowsByInvoice(rows);
+    public ImportResult importSales(ImportRun run) throws Exception {
+        ImportResult result = run.getResult();
+        streamRows(run, chunkSize, this::groupKey,
+                chunk -> invoiceBatchWriter.write(prepare(chunk, result), this::write, result));
+        return result;
+    }
 
-        for (Map.Entry<String, List<Integer>> entry : groups.entrySet()) {
-            List<Integer> indices = entry.getValue();
-            int firstIdx = indices.stream().findFirst().orElseThrow();
-            int firstRowNum = firstIdx + 2;
+    // Several files at once; see ParallelInvoiceImporter for the ordering guarantees
+    public List<ImportResult> importSalesParallel(List<MultipartFile> files) throws Exception {
+        return parallelInvoiceImporter.importFiles(files.stream().map(ImportSource::of).toList(), this);
+    }
+
+    @Override
+    public List<PendingSale> prepare(List<ImportRow> rows, ImportResult result) {
+        Map<String, List<ImportRow>> groups = groupRowsByInvoice(rows);
+
+        // One query each for every product code and customer name in the chunk
+        Map<String, Long> productIds = resolveProducts(rows);
+        Map<String, Long> customerIds = resolveCustomers(groups.values());
+
+        List<PendingSale> sales = new ArrayList<>();
+        for (List<ImportRow> group : groups.values()) {
+            int firstRowNum = group.getFirst().rowNumber();
             try {
 
-                SaleInput input = mapSaleHeader(rows.get(firstIdx), indices, result);
+                SaleInput input = mapSaleHeader(group.getFirst().cells(), group, customerIds, result);
                 if (Objects.isNull(input)) {
                     continue;
                 }
-                mapSaleItems(rows, indices, input, result);
+                mapSaleItems(group, input, productIds, result);
                 if (input.getItems().isEmpty()) {
                     continue;
                 }
-                saleService.create(input);
-                input.getItems().forEach(i -> result.incrementSuccess());
+                sales.add(new PendingSale(firstRowNum, input));
 
             } catch (Exception ex) {
                 result.addError(firstRowNum, ex.getMessage());
             }
         }
 
-        return result;
+        return sales;
+    }
+
+    @Override
+    public void write(PendingSale sale) {
+        saleService.createSale(sale.input());
+    }
+
+    // Number the round's sales in file order up front, so numbering does not depend on which
+    // worker commits first and workers do not queue on the counter row
+    @Override
+    public void beforeParallelWrite(List<PendingSale> sales) {
+        List<PendingSale> unnumbered = sales.stream()
+                .filter(sale -> sale.input().getInvoiceNumber() == null)
+                .toList();
+        List<String> numbers = invoiceNumberAllocator.reserve(unnumbered.size());
+        for (int i = 0; i < unnumbered.size(); i++) {
+            unnumbered.get(i).input().setInvoiceNumber(numbers.get(i));
+        }
+    }
+
+    private Map<String, Long> resolveProducts(List<ImportRow> rows) {
+        Set<String> codes = rows.stream()
+                .map(row -> optional(row.cells(), 3))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (codes.isEmpty()) {
+            return Map.of();
+        }
+        return barcodeCache.resolveIds(codes);
+    }
+
+    private Map<String, Long> resolveCustomers(Collection<List<ImportRow>> groups) {
+        Set<String> names = groups.stream()
+                .map(group -> optional(group.getFirst().cells(), 1))
+                .filter(org.apache.commons.lang3.StringUtils::isNotBlank)
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        return customerRepository.findAllByLowerNameIn(names).stream()
+                .collect(Collectors.toMap(c -> c.getName().toLowerCase(), CustomerEntity::getId, (a, b) -> a));
     }
 
-    private Map<String, List<Integer>> groupRowsByInvoice(List<String[]> rows) {
+    @Override
+    public String groupKey(String[] row) {
+        return Optional.ofNullable(optional(row, 0))
+                .filter(org.apache.commons.lang3.StringUtils::isNotBlank)
+                .orElse(null);
+    }
 
-        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+    private Map<String, List<ImportRow>> groupRowsByInvoice(List<ImportRow> rows) {
 
-        for (int i = 0; i < rows.size(); i++) {
+        Map<String, List<ImportRow>> groups = new LinkedHashMap<>();
 
-            String invNum = optional(rows.get(i), 0);
+        for (ImportRow row : rows) {
 
-            String key = Optional.ofNullable(invNum)
-                    .filter(org.apache.commons.lang3.StringUtils::isNotBlank)
-                    .orElse("__row_" + i);
+            String key = Optional.ofNullable(groupKey(row.cells()))
+                    .orElse("__row_" + row.rowNumber());
 
-            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
         }
 
         return groups;
     }
 
     private SaleInput mapSaleHeader(String[] header,
-                                    List<Integer> indices,
+                                    List<ImportRow> group,
+                                    Map<String, Long> customerIds,
                                     ImportResult result) {
 
         String customerName = optional(header, 1);
 
-        Long customerId = resolveCustomer(customerName, indices, result);
+        Long customerId = resolveCustomer(customerName, group, customerIds, result);
 
         if (customerName != null && customerId == null) {
             return null;
@@ -103,48 +174,46 @@ public class BulkSalesService {
     }
 
     private Long resolveCustomer(String customerName,
-                                 List<Integer> indices,
+                                 List<ImportRow> group,
+                                 Map<String, Long> customerIds,
                                  ImportResult result) {
 
-        return Optional.ofNullable(customerName)
-                .filter(org.apache.commons.lang3.StringUtils::isNotBlank)
-                .map(customerRepository::findByNameIgnoreCase)
-                .flatMap(opt -> {
-                    if (opt.isEmpty()) {
-                        indices.forEach(i ->
-                                result.addError(i + 2, "Customer not found: " + customerName));
-                    }
-                    return opt;
-                })
-                .map(CustomerEntity::getId)
-                .orElse(null);
+        if (org.apache.commons.lang3.StringUtils.isBlank(customerName)) {
+            return null;
+        }
+        Long customerId = customerIds.get(customerName.toLowerCase());
+        if (customerId == null) {
+            group.forEach(row ->
+                    result.addError(row.rowNumber(), "Customer not found: " + customerName));
+        }
+        return customerId;
     }
 
-    private void mapSaleItems(List<String[]> rows,
-                              List<Integer> indices,
+    private void mapSaleItems(List<ImportRow> group,
                               SaleInput input,
+                              Map<String, Long> productIds,
                               ImportResult result) {
 
-        for (Integer idx : indices) {
+        for (ImportRow row : group) {
 
-            int rowNum = idx + 2;
+            int rowNum = row.rowNumber();
 
             try {
 
-                String[] r = rows.get(idx);
+                String[] r = row.cells();
 
                 String productCode = require(r, 3, "product_code");
 
-                var productOpt = productRepository.findByBarcodeAndDeletedFalse(productCode);
+                Long productId = productIds.get(productCode);
 
-                if (productOpt.isEmpty()) {
+                if (productId == null) {
                     result.addError(rowNum, "Product not found by code: " + productCode);
                     continue;
                 }
 
                 SaleItemInput item = new SaleItemInput();
 
-                item.setProductId(productOpt.get().getId());
+                item.setProductId(productId);
                 item.setQuantity(requireInt(r, 4, "quantity"));
                 item.setUnitPrice(optionalDecimal(r, 5));
 
@@ -155,4 +224,24 @@ public class BulkSalesService {
             }
         }
     }
+
+    record PendingSale(int firstRowNum, SaleInput input) implements PendingInvoice {
+
+        // Successes are counted per item; rows that failed to map are already reported
+        @Override
+        public int lineCount() {
+            return input.getItems().size();
+        }
+
+        // Stock of every product, and the customer's balance and credit limit
+        @Override
+        public Set<String> conflictKeys() {
+            Set<String> keys = new HashSet<>();
+            input.getItems().forEach(item -> keys.add("product:" + item.getProductId()));
+            if (input.getCustomerId() != null) {
+                keys.add("customer:" + input.getCustomerId());
+            }
+            return keys;
+        }
+    }
 }
@@ -1,95 +1,167 @@
 package com.liquorshop.inventory.service.bulk;
 
+import com.opencsv.CSVReader;
 import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Streaming reader for bulk import files (CSV, .xlsx, legacy .xls).
+ * <p>
+ * Rows are never collected for the whole file: CSV is read record by record, .xlsx through the
+ * POI SAX event model, and rows are handed to the caller in chunks of roughly {@code chunkSize}.
+ * A chunk is only cut where the group key changes, so the rows of one invoice always arrive
+ * together as long as they are adjacent in the file.
+ */
 @NoArgsConstructor
 public class FileHandler {
 
     private static final DataFormatter FORMATTER = new DataFormatter();
 
-    public static List<String[]> parseFile(MultipartFile file) throws Exception {
+    /**
+     * Streams every data row (header skipped) of the run's source to {@code consumer} in chunks.
+     * Read progress is reported on the run, rows are counted on its result after each chunk, and a
+     * cancel request on the run stops the import before the next chunk is handed over.
+     *
+     * @param groupKey row → grouping key; rows with equal non-null keys are kept in one chunk.
+     *                 A null key means the row stands alone.
+     * @throws CancellationException if the run was cancelled
+     */
+    public static void streamRows(ImportRun run,
+                                  int chunkSize,
+                                  Function<String[], String> groupKey,
+                                  Consumer<List<ImportRow>> consumer) throws Exception {
 
-        String filename = Optional.ofNullable(file.getOriginalFilename())
-                .map(String::toLowerCase)
-                .orElse("");
+        ChunkingSink sink = new ChunkingSink(run, chunkSize, groupKey, consumer);
 
-        if (filename.endsWith(".csv")) {
-            return parseCsv(file.getInputStream());
-        }
+        ImportSource source = run.getSource();
+        String filename = source.lowerCaseFilename();
+        String contentType = Optional.ofNullable(source.contentType())
+                .orElse("");
 
-        if (filename.endsWith(".xlsx") || filename.endsWith(".xls")) {
-            return parseExcel(file.getInputStream());
+        if (filename.endsWith(".xlsx")) {
+            streamXlsx(run, sink);
+        } else if (filename.endsWith(".xls")) {
+            streamXls(run, sink);
+        } else if (!filename.endsWith(".csv")
+                && (contentType.contains("spreadsheet") || contentType.contains("excel"))) {
+            streamXlsx(run, sink);
+        } else {
+            streamCsv(run, sink);
         }
 
-        String contentType = Optional.ofNullable(file.getContentType())
-                .orElse("");
-
-        return (contentType.contains("spreadsheet") || contentType.contains("excel"))
-                ? parseExcel(file.getInputStream())
-                : parseCsv(file.getInputStream());
+        sink.flush();
     }
 
-    private static List<String[]> parseCsv(InputStream is) throws Exception {
+    private static void streamCsv(ImportRun run, ChunkingSink sink) throws Exception {
 
-        try (var reader = new com.opencsv.CSVReader(
-                new java.io.InputStreamReader(is, StandardCharsets.UTF_8))) {
+        run.startProgress(run.getSource().size());
+        InputStream is = new CountingInputStream(run.getSource().content().getInputStream(), run.getProgressRead());
 
-            List<String[]> all = reader.readAll();
+        try (var reader = new CSVReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
 
-            if (all.size() <= 1) {
-                return List.of();
+            if (reader.readNext() == null) {
+                return; // empty file
             }
 
-            return all.subList(1, all.size()); // skip header
+            String[] cells;
+            while ((cells = reader.readNext()) != null) {
+                sink.accept((int) reader.getRecordsRead(), cells);
+            }
         }
     }
 
-    private static List<String[]> parseExcel(InputStream is) throws Exception {
+    private static void streamXlsx(ImportRun run, ChunkingSink sink) throws Exception {
 
-        List<String[]> rows = new ArrayList<>();
+        // OPCPackage reads a file lazily; opening it from a stream would buffer the whole zip
+        ImportSource source = run.getSource();
+        Path tmp = source.path() == null ? Files.createTempFile("import-", ".xlsx") : null;
+        try {
+            if (tmp != null) {
+                try (InputStream in = source.content().getInputStream()) {
+                    Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
 
-        try (Workbook wb = WorkbookFactory.create(is)) {
+            try (OPCPackage pkg = OPCPackage.open((tmp != null ? tmp : source.path()).toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
 
-            Sheet sheet = wb.getSheetAt(0);
+                var sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return;
+                }
 
-            int lastRow = sheet.getLastRowNum();
-            if (lastRow < 1) {
-                return rows;
+                try (InputStream sheet = new CountingInputStream(sheets.next(), run.getProgressRead())) {
+                    // Progress is measured against the uncompressed sheet XML
+                    run.startProgress(Math.max(sheets.getSheetPart().getSize(), 0));
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, new SheetRowHandler(sink), FORMATTER, false));
+                    parser.parse(new InputSource(sheet));
+                }
             }
+        } finally {
+            if (tmp != null) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
 
-            Row firstDataRow = sheet.getRow(1);
+    // Legacy .xls has no streaming reader in the user model; the format caps out at 65,536 rows
+    private static void streamXls(ImportRun run, ChunkingSink sink) throws Exception {
 
-            int maxCols = Optional.ofNullable(firstDataRow)
-                    .map(Row::getLastCellNum)
-                    .orElse((short) 20);
+        try (Workbook wb = WorkbookFactory.create(run.getSource().content().getInputStream())) {
 
-            for (int i = 1; i <= lastRow; i++) {
+            Sheet sheet = wb.getSheetAt(0);
+
+            // The whole workbook is already in memory, so progress is counted in rows
+            run.startProgress(sheet.getLastRowNum());
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                run.getProgressRead().set(i);
 
                 Row row = sheet.getRow(i);
                 if (row == null) {
                     continue;
                 }
 
-                String[] cells = new String[maxCols];
-
-                for (int c = 0; c < maxCols; c++) {
+                String[] cells = new String[Math.max(row.getLastCellNum(), 0)];
+                for (int c = 0; c < cells.length; c++) {
                     cells[c] = cellString(row.getCell(c));
                 }
 
-                rows.add(cells);
+                sink.accept(i + 1, cells);
             }
         }
-
-        return rows;
     }
 
     private static String cellString(Cell cell) {
@@ -99,4 +171,120 @@ public class FileHandler {
                 .map(StringUtils::trimToEmpty)
                 .orElse("");
     }
-}
\ No newline at end of file
+
+    /**
+     * Receives SAX row events for one sheet and forwards data rows to the sink.
+     */
+    private static class SheetRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ChunkingSink sink;
+        private final List<String> cells = new ArrayList<>();
+
+        SheetRowHandler(ChunkingSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                return; // header
+            }
+            sink.accept(rowNum + 1, cells.toArray(String[]::new));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference != null
+                    ? new CellReference(cellReference).getCol()
+                    : cells.size();
+            // Blank cells are absent from the sheet XML; pad the gap
+            while (cells.size() < col) {
+                cells.add("");
+            }
+            cells.add(StringUtils.trimToEmpty(formattedValue));
+        }
+    }
+
+    /**
+     * Buffers rows and emits a chunk once it is full and the next row starts a new group.
+     */
+    private static class ChunkingSink {
+
+        private final ImportRun run;
+        private final int chunkSize;
+        private final Function<String[], String> groupKey;
+        private final Consumer<List<ImportRow>> consumer;
+
+        private List<ImportRow> buffer = new ArrayList<>();
+        private String lastKey;
+
+        ChunkingSink(ImportRun run, int chunkSize, Function<String[], String> groupKey,
+                     Consumer<List<ImportRow>> consumer) {
+            this.run = run;
+            this.chunkSize = Math.max(chunkSize, 1);
+            this.groupKey = groupKey;
+            this.consumer = consumer;
+        }
+
+        void accept(int rowNumber, String[] cells) {
+            String key = groupKey.apply(cells);
+            if (buffer.size() >= chunkSize && (key == null || !Objects.equals(key, lastKey))) {
+                flush();
+            }
+            buffer.add(new ImportRow(rowNumber, cells));
+            lastKey = key;
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            if (run.isCancelRequested()) {
+                throw new CancellationException("Import cancelled");
+            }
+            List<ImportRow> chunk = buffer;
+            buffer = new ArrayList<>(chunkSize);
+            consumer.accept(chunk);
+            run.chunkCompleted(chunk.size());
+        }
+    }
+
+    /**
+     * Adds every byte read to a shared counter, so progress can be polled from another thread.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong counter;
+
+        CountingInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) counter.incrementAndGet();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) counter.addAndGet(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counter.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.liquorshop.inventory.service.bulk;
+
+import com.liquorshop.inventory.dto.ImportJobResponse;
+import com.liquorshop.inventory.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs bulk imports in the background.
+ * <p>
+ * The upload is spooled to a temp file before the request returns (the multipart is gone once
+ * it does), then the import runs on the bounded import executor. Progress is read from the
+ * job's {@link ImportRun}; a cancel request takes effect at the next chunk boundary, so every
+ * chunk already handed over is either committed or reported as failed rows.
+ * <p>
+ * Jobs are kept in memory and dropped a while after they finish. Running jobs' throughput and
+ * the number of jobs per state are published as gauges, rows of finished jobs as a counter.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportJobService {
+
+    private final ThreadPoolTaskExecutor importJobExecutor;
+    private final BulkProductService bulkProductService;
+    private final BulkCustomerService bulkCustomerService;
+    private final BulkPurchasesService bulkPurchasesService;
+    private final BulkSalesService bulkSalesService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${inventory.import.jobs.retention:PT1H}")
+    private Duration retention;
+
+    @PostConstruct
+    void registerMetrics() {
+        for (ImportType type : ImportType.values()) {
+            Gauge.builder("inventory.import.throughput", this, s -> s.rowsPerSecond(type))
+                    .description("Rows per second of running import jobs")
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        }
+        for (Status status : List.of(Status.QUEUED, Status.RUNNING)) {
+            Gauge.builder("inventory.import.jobs", this, s -> s.count(status))
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public ImportJobResponse submit(ImportType type, MultipartFile file) throws IOException {
+        purgeFinished();
+
+        ImportSource source = ImportSource.spool(file);
+        Job job = new Job(UUID.randomUUID().toString(), type, new ImportRun(source));
+        jobs.put(job.id, job);
+        try {
+            importJobExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException ex) {
+            jobs.remove(job.id);
+            source.delete();
+            throw new IllegalStateException("Too many import jobs queued, try again later");
+        }
+        return toResponse(job);
+    }
+
+    public ImportJobResponse getJob(String id) {
+        return toResponse(findJob(id));
+    }
+
+    public List<ImportJobResponse> getJobs() {
+        purgeFinished();
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job j) -> j.submittedAt).reversed())
+                .map(this::toResponse)
+                .toList();
+    }
+
+    public ImportJobResponse cancel(String id) {
+        Job job = findJob(id);
+        job.run.requestCancel();
+        return toResponse(job);
+    }
+
+    private void run(Job job) {
+        job.startedAt = Instant.now();
+        job.status = Status.RUNNING;
+        try {
+            if (job.run.isCancelRequested()) {
+                throw new CancellationException();
+            }
+            switch (job.type) {
+                case PRODUCTS -> bulkProductService.importProducts(job.run);
+                case CUSTOMERS -> bulkCustomerService.importCustomers(job.run);
+                case PURCHASES -> bulkPurchasesService.importPurchases(job.run);
+                case SALES -> bulkSalesService.importSales(job.run);
+            }
+            job.status = Status.COMPLETED;
+        } catch (CancellationException ex) {
+            job.status = Status.CANCELLED;
+        } catch (Exception ex) {
+            log.error("Import job {} ({}) failed", job.id, job.type, ex);
+            job.message = ex.getMessage();
+            job.status = Status.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            ImportRun.Snapshot snapshot = job.run.getSnapshot();
+            meterRegistry.counter("inventory.import.rows", "type", job.type.name(), "result", "success")
+                    .increment(snapshot.successCount());
+            meterRegistry.counter("inventory.import.rows", "type", job.type.name(), "result", "failure")
+                    .increment(snapshot.failureCount());
+            try {
+                job.run.getSource().delete();
+            } catch (IOException ex) {
+                log.warn("Could not delete spooled import file {}", job.run.getSource().path(), ex);
+            }
+        }
+    }
+
+    private Job findJob(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found: " + id);
+        }
+        return job;
+    }
+
+    private void purgeFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private double rowsPerSecond(ImportType type) {
+        Instant now = Instant.now();
+        double total = 0;
+        for (Job job : jobs.values()) {
+            Instant startedAt = job.startedAt;
+            if (job.type == type && job.status == Status.RUNNING && startedAt != null) {
+                double seconds = Math.max(Duration.between(startedAt, now).toMillis(), 1) / 1000.0;
+                total += job.run.getSnapshot().rowsProcessed() / seconds;
+            }
+        }
+        return total;
+    }
+
+    private long count(Status status) {
+        return jobs.values().stream().filter(job -> job.status == status).count();
+    }
+
+    private ImportJobResponse toResponse(Job job) {
+        ImportRun.Snapshot snapshot = job.run.getSnapshot();
+        Instant startedAt = job.startedAt;
+        Instant finishedAt = job.finishedAt;
+        Status status = job.status;
+
+        ImportJobResponse response = new ImportJobResponse();
+        response.setJobId(job.id);
+        response.setType(job.type.name());
+        response.setFileName(job.run.getSource().filename());
+        response.setStatus(status.name());
+        response.setSubmittedAt(toLocal(job.submittedAt));
+        response.setStartedAt(toLocal(startedAt));
+        response.setFinishedAt(toLocal(finishedAt));
+        response.setRowsProcessed(snapshot.rowsProcessed());
+        response.setSuccessCount(snapshot.successCount());
+        response.setFailureCount(snapshot.failureCount());
+        response.setErrors(snapshot.errors());
+        response.setMessage(job.message);
+
+        if (startedAt != null) {
+            Duration elapsed = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            response.setRowsPerSecond(Math.round(snapshot.rowsProcessed() / seconds * 10) / 10.0);
+
+            long read = job.run.getProgressRead().get();
+            long total = job.run.getProgressTotal();
+            if (status == Status.COMPLETED) {
+                response.setPercentComplete(100.0);
+            } else if (total > 0) {
+                double fraction = Math.min((double) read / total, 1.0);
+                response.setPercentComplete(Math.round(fraction * 1000) / 10.0);
+                if (status == Status.RUNNING && read > 0) {
+                    response.setEtaSeconds(Math.round(seconds * (1 - fraction) / fraction));
+                }
+            }
+        }
+        return response;
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private static class Job {
+
+        private final String id;
+        private final ImportType type;
+        private final ImportRun run;
+        private final Instant submittedAt = Instant.now();
+
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String message;
+
+        Job(String id, ImportType type, ImportRun run) {
+            this.id = id;
+            this.type = type;
+            this.run = run;
+        }
+    }
+}
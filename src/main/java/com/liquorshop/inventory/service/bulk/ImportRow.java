@@ -0,0 +1,10 @@
+package com.liquorshop.inventory.service.bulk;
+
+/**
+ * One data row of an import file.
+ *
+ * @param rowNumber 1-based row number as the user sees it in the file (the header is row 1)
+ * @param cells     raw cell values
+ */
+public record ImportRow(int rowNumber, String[] cells) {
+}
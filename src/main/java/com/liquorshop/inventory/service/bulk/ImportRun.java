@@ -0,0 +1,55 @@
+package com.liquorshop.inventory.service.bulk;
+
+import com.liquorshop.inventory.dto.ImportResult;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one import while it runs: the source being read, the running {@link ImportResult},
+ * byte-level read progress and a cancellation flag.
+ * <p>
+ * The result itself is only touched by the importing thread. Other threads (job status polling)
+ * read the {@link Snapshot} published at each chunk boundary and the byte counters.
+ */
+@Getter
+public class ImportRun {
+
+    // Row errors carried in a snapshot; the full list stays on the result
+    private static final int SNAPSHOT_ERRORS = 100;
+
+    private final ImportSource source;
+    private final ImportResult result = new ImportResult();
+
+    // Bytes of the row data consumed so far, out of progressTotal (0 when unknown)
+    private final AtomicLong progressRead = new AtomicLong();
+    private volatile long progressTotal;
+
+    private volatile boolean cancelRequested;
+    private volatile Snapshot snapshot = new Snapshot(0, 0, 0, List.of());
+
+    public ImportRun(ImportSource source) {
+        this.source = source;
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void startProgress(long total) {
+        progressRead.set(0);
+        progressTotal = total;
+    }
+
+    // Called by the importing thread once a chunk has been fully processed
+    void chunkCompleted(int rows) {
+        result.setTotalRows(result.getTotalRows() + rows);
+        snapshot = new Snapshot(result.getTotalRows(), result.getSuccessCount(), result.getFailureCount(),
+                List.copyOf(result.getErrors().subList(0, Math.min(result.getErrors().size(), SNAPSHOT_ERRORS))));
+    }
+
+    public record Snapshot(int rowsProcessed, int successCount, int failureCount,
+                           List<ImportResult.RowError> errors) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.liquorshop.inventory.service.bulk;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * An import file: either the uploaded multipart itself (synchronous imports) or a copy spooled
+ * to a local file so it outlives the request (import jobs).
+ *
+ * @param path local file backing the content, or null when it only exists as an upload
+ */
+public record ImportSource(String filename, String contentType, long size, InputStreamSource content, Path path) {
+
+    public static ImportSource of(MultipartFile file) {
+        return new ImportSource(file.getOriginalFilename(), file.getContentType(), file.getSize(), file, null);
+    }
+
+    public static ImportSource spool(MultipartFile file) throws IOException {
+        Path tmp = Files.createTempFile("import-", ".upload");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new ImportSource(file.getOriginalFilename(), file.getContentType(), Files.size(tmp),
+                new FileSystemResource(tmp), tmp);
+    }
+
+    public String lowerCaseFilename() {
+        return Optional.ofNullable(filename).map(String::toLowerCase).orElse("");
+    }
+
+    public void delete() throws IOException {
+        if (path != null) {
+            Files.deleteIfExists(path);
+        }
+    }
+}
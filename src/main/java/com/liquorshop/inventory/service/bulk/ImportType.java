@@ -0,0 +1,9 @@
+package com.liquorshop.inventory.service.bulk;
+
+// Kinds of bulk import, matching the /api/import/{type} endpoints
+public enum ImportType {
+    PRODUCTS,
+    CUSTOMERS,
+    PURCHASES,
+    SALES
+}
@@ -0,0 +1,61 @@
+package com.liquorshop.inventory.service.bulk;
+
+import com.liquorshop.inventory.dto.ImportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Writes imported invoices {@code commit-size} per transaction instead of one transaction each.
+ * <p>
+ * If any invoice in a batch fails, the whole batch is rolled back and replayed one invoice per
+ * transaction, so the good invoices still commit and each failure is reported against its own
+ * rows — the same outcome as a one-by-one import.
+ * <p>
+ * Every transaction runs in a persistence context of its own (open-in-view is off), so memory
+ * does not grow with the file and each batch reads the stock committed before it.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceBatchWriter {
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.import.commit-size:50}")
+    private int commitSize;
+
+    public <T extends PendingInvoice> void write(List<T> invoices, Consumer<T> writer, ImportResult result) {
+        write(invoices, writer,
+                invoice -> result.incrementSuccess(invoice.lineCount()),
+                (invoice, ex) -> result.addError(invoice.firstRowNum(), ex.getMessage()));
+    }
+
+    public <T> void write(List<T> invoices,
+                          Consumer<T> writer,
+                          Consumer<T> onSuccess,
+                          BiConsumer<T, Exception> onFailure) {
+
+        int size = Math.max(commitSize, 1);
+        for (int from = 0; from < invoices.size(); from += size) {
+            List<T> batch = invoices.subList(from, Math.min(from + size, invoices.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(writer));
+                batch.forEach(onSuccess);
+            } catch (Exception batchFailure) {
+                for (T invoice : batch) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> writer.accept(invoice));
+                        onSuccess.accept(invoice);
+                    } catch (Exception ex) {
+                        onFailure.accept(invoice, ex);
+                    }
+                }
+            }
+        }
+    }
+}
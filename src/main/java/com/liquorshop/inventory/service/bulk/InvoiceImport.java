@@ -0,0 +1,25 @@
+package com.liquorshop.inventory.service.bulk;
+
+import com.liquorshop.inventory.dto.ImportResult;
+
+import java.util.List;
+
+/**
+ * The per-type part of an invoice import (purchases, sales): how rows group into invoices, how
+ * a chunk of rows becomes pending invoices, and how one invoice is written.
+ */
+interface InvoiceImport<T extends PendingInvoice> {
+
+    // Rows with equal non-null keys belong to one invoice; null means the row stands alone
+    String groupKey(String[] row);
+
+    // Resolves lookups and maps the chunk's rows; row-level problems go straight to the result
+    List<T> prepare(List<ImportRow> rows, ImportResult result);
+
+    // Writes one invoice; runs inside the transaction opened by InvoiceBatchWriter
+    void write(T invoice);
+
+    // Called with each parallel round's invoices in file order, before any of them is written
+    default void beforeParallelWrite(List<T> invoices) {
+    }
+}
@@ -0,0 +1,248 @@
+package com.liquorshop.inventory.service.bulk;
+
+import com.liquorshop.inventory.dto.ImportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Parallel mode for invoice imports (purchases, sales), across one or more files.
+ * <p>
+ * The files are read in lockstep: each round takes the next chunk of every file, in request
+ * order, and turns it into pending invoices. The round's invoices are then partitioned by the
+ * rows they touch ({@link PendingInvoice#conflictKeys()}): invoices sharing a product, customer,
+ * etc. land in the same partition in file order, and partitions are spread over the worker
+ * pool. The next round starts only when every partition has been written.
+ * <p>
+ * So any two invoices touching the same SKU apply in the same order as a serial run over the
+ * same rounds — within a file that is file order, across files it is round by round, then
+ * request order — and weighted-average cost and batch allocation come out the same. Invoices
+ * with disjoint products (typically different branches) are written concurrently.
+ */
+@Component
+@RequiredArgsConstructor
+public class ParallelInvoiceImporter {
+
+    private final ThreadPoolTaskExecutor importWorkerExecutor;
+    private final InvoiceBatchWriter invoiceBatchWriter;
+
+    @Value("${inventory.import.chunk-size:500}")
+    private int chunkSize;
+
+    <T extends PendingInvoice> List<ImportResult> importFiles(List<ImportSource> sources,
+                                                             InvoiceImport<T> importer) throws Exception {
+        List<ImportResult> results = new ArrayList<>();
+        List<ChunkReader> readers = new ArrayList<>();
+        try {
+            for (ImportSource source : sources) {
+                ImportResult result = new ImportResult();
+                result.setFileName(source.filename());
+                results.add(result);
+                readers.add(new ChunkReader(source, chunkSize, importer::groupKey));
+            }
+
+            boolean more = true;
+            while (more) {
+                more = false;
+                List<Slot<T>> round = new ArrayList<>();
+                for (int i = 0; i < readers.size(); i++) {
+                    List<ImportRow> chunk = readers.get(i).next();
+                    if (chunk == null) {
+                        continue;
+                    }
+                    more = true;
+                    ImportResult result = results.get(i);
+                    for (T invoice : importer.prepare(chunk, result)) {
+                        round.add(new Slot<>(result, invoice));
+                    }
+                    result.setTotalRows(result.getTotalRows() + chunk.size());
+                }
+                if (!round.isEmpty()) {
+                    importer.beforeParallelWrite(round.stream().map(Slot::invoice).toList());
+                    writeRound(round, importer);
+                }
+            }
+        } finally {
+            readers.forEach(ChunkReader::close);
+        }
+
+        // Workers report failures as they finish; present them in file order
+        results.forEach(result -> result.getErrors().sort(Comparator.comparingInt(ImportResult.RowError::getRow)));
+        return results;
+    }
+
+    private <T extends PendingInvoice> void writeRound(List<Slot<T>> round, InvoiceImport<T> importer)
+            throws Exception {
+
+        List<List<Slot<T>>> buckets = assign(partition(round), importWorkerExecutor.getMaxPoolSize());
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Slot<T>> bucket : buckets) {
+            futures.add(importWorkerExecutor.submit(() -> invoiceBatchWriter.write(bucket,
+                    slot -> importer.write(slot.invoice()),
+                    slot -> {
+                        synchronized (slot.result()) {
+                            slot.result().incrementSuccess(slot.invoice().lineCount());
+                        }
+                    },
+                    (slot, ex) -> {
+                        synchronized (slot.result()) {
+                            slot.result().addError(slot.invoice().firstRowNum(), ex.getMessage());
+                        }
+                    })));
+        }
+        // Every bucket is awaited before a failure is reported, so no writer is still running
+        // when the next round starts or the import returns
+        Exception failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                Exception cause = ex.getCause() instanceof Exception c ? c : ex;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            } catch (InterruptedException ex) {
+                futures.forEach(f -> f.cancel(true));
+                throw ex;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Union-find over the round: invoices sharing any conflict key end up in one partition,
+    // each partition keeping round order
+    private static <T extends PendingInvoice> List<List<Slot<T>>> partition(List<Slot<T>> round) {
+        int[] parent = new int[round.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        Map<String, Integer> firstOwner = new HashMap<>();
+        for (int i = 0; i < round.size(); i++) {
+            for (String key : round.get(i).invoice().conflictKeys()) {
+                Integer owner = firstOwner.putIfAbsent(key, i);
+                if (owner != null) {
+                    parent[find(parent, i)] = find(parent, owner);
+                }
+            }
+        }
+
+        Map<Integer, List<Slot<T>>> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < round.size(); i++) {
+            partitions.computeIfAbsent(find(parent, i), k -> new ArrayList<>()).add(round.get(i));
+        }
+        return new ArrayList<>(partitions.values());
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Packs partitions onto at most `workers` buckets, largest first onto the lightest bucket, so
+    // small partitions still share commit batches instead of each taking its own transaction
+    private static <T extends PendingInvoice> List<List<Slot<T>>> assign(List<List<Slot<T>>> partitions,
+                                                                         int workers) {
+        List<List<Slot<T>>> buckets = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.max(workers, 1), partitions.size()); i++) {
+            buckets.add(new ArrayList<>());
+        }
+
+        List<List<Slot<T>>> bySize = new ArrayList<>(partitions);
+        bySize.sort(Comparator.comparingInt((List<Slot<T>> p) -> p.size()).reversed());
+        for (List<Slot<T>> partition : bySize) {
+            buckets.stream().min(Comparator.comparingInt(List::size)).orElseThrow().addAll(partition);
+        }
+        return buckets;
+    }
+
+    private record Slot<T extends PendingInvoice>(ImportResult result, T invoice) {
+    }
+
+    /**
+     * Reads one file on a virtual thread, at most one chunk ahead of the importer, so files can be
+     * consumed in lockstep even though FileHandler pushes rows.
+     */
+    private static class ChunkReader implements AutoCloseable {
+
+        private static final Item END = new Item(null, null);
+
+        private final BlockingQueue<Item> queue = new ArrayBlockingQueue<>(1);
+        private final Thread thread;
+        private boolean done;
+
+        ChunkReader(ImportSource source, int chunkSize, Function<String[], String> groupKey) {
+            thread = Thread.ofVirtual().name("import-reader").start(() -> {
+                try {
+                    FileHandler.streamRows(new ImportRun(source), chunkSize, groupKey,
+                            chunk -> put(new Item(chunk, null)));
+                    put(END);
+                } catch (CancellationException ex) {
+                    // closed by the importer
+                } catch (Exception ex) {
+                    try {
+                        put(new Item(null, ex));
+                    } catch (CancellationException ignored) {
+                        // closed by the importer
+                    }
+                }
+            });
+        }
+
+        // Next chunk of the file, or null once it is exhausted
+        List<ImportRow> next() throws Exception {
+            if (done) {
+                return null;
+            }
+            Item item = queue.take();
+            if (item.error() != null) {
+                done = true;
+                throw item.error();
+            }
+            if (item == END) {
+                done = true;
+                return null;
+            }
+            return item.rows();
+        }
+
+        private void put(Item item) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Import reader closed");
+            }
+        }
+
+        @Override
+        public void close() {
+            thread.interrupt();
+        }
+
+        private record Item(List<ImportRow> rows, Exception error) {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.liquorshop.inventory.service.bulk;
+
+import java.util.Set;
+
+/**
+ * An invoice assembled from import rows, ready to be written.
+ */
+interface PendingInvoice {
+
+    // File row the invoice's write errors are reported against
+    int firstRowNum();
+
+    // Imported rows the invoice stands for, counted as successes once it commits
+    int lineCount();
+
+    // Rows the invoice reads and writes (products, customer, ...). Invoices sharing a key are
+    // never written concurrently and always apply in file order.
+    Set<String> conflictKeys();
+}
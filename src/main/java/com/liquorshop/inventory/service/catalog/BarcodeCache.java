@@ -0,0 +1,154 @@
+package com.liquorshop.inventory.service.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.liquorshop.inventory.config.CacheConfig;
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.mapper.ProductMapper;
+import com.liquorshop.inventory.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Barcode → product snapshot for POS scanning and bulk imports.
+ * <p>
+ * Every live product is loaded at startup and kept current from {@link ProductsChangedEvent}, so a
+ * scan is a single hash lookup with no database round trip and no allocation. A code that is not
+ * in the cache is looked up once; if the database has no product for it, it is remembered in the
+ * unknown-barcodes cache until it expires or a product takes the code. A snapshot older than the
+ * one held is ignored ({@link ProductVersions}).
+ * <p>
+ * Both caches are registered in {@link CacheConfig}, so hits and misses show up under the
+ * actuator {@code cache.gets} metrics for "barcodes" and "unknownBarcodes".
+ */
+@Slf4j
+@Component
+public class BarcodeCache {
+
+    private static final Boolean UNKNOWN = Boolean.TRUE;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Cache<String, ProductResponse> known;
+    private final Cache<String, Boolean> unknown;
+
+    // productId → barcode currently cached for it, to drop the old code when a barcode changes
+    private final Map<Long, String> barcodeById = new ConcurrentHashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    // Bumped on every product change; a database miss is only remembered if nothing changed meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    public BarcodeCache(ProductRepository productRepository, ProductMapper productMapper, CacheManager cacheManager) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.known = CacheConfig.nativeCache(cacheManager, CacheConfig.BARCODES);
+        this.unknown = CacheConfig.nativeCache(cacheManager, CacheConfig.UNKNOWN_BARCODES);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        for (ProductEntity product : productRepository.findAllByDeletedFalseOrderByNameAsc()) {
+            if (product.getBarcode() != null) {
+                versions.ifNewer(product.getId(), product.getVersion(), () -> put(productMapper.toResponse(product)));
+            }
+        }
+        log.info("Barcode cache loaded with {} products", known.estimatedSize());
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        generation.incrementAndGet();
+        for (Long id : event.removed()) {
+            versions.ifNewer(id, event.version(id), () -> {
+                String previous = barcodeById.remove(id);
+                if (previous != null) known.invalidate(previous);
+            });
+        }
+        for (ProductResponse product : event.changed()) {
+            versions.ifNewer(product.getId(), event.version(product.getId()), () -> put(product));
+        }
+    }
+
+    /**
+     * The product with this barcode, or null if there is none.
+     */
+    public ProductResponse find(String barcode) {
+        ProductResponse product = known.getIfPresent(barcode);
+        if (product != null || unknown.getIfPresent(barcode) != null) {
+            return product;
+        }
+        long seen = generation.get();
+        return productRepository.findByBarcodeAndDeletedFalse(barcode)
+                .map(this::remember)
+                .orElseGet(() -> {
+                    rememberUnknown(barcode, seen);
+                    return null;
+                });
+    }
+
+    /**
+     * Product ids for the given barcodes; codes with no product are left out. Only codes the
+     * cache has never seen go to the database, in one query.
+     */
+    public Map<String, Long> resolveIds(Collection<String> barcodes) {
+        Map<String, Long> ids = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (String barcode : barcodes) {
+            ProductResponse product = known.getIfPresent(barcode);
+            if (product != null) {
+                ids.put(barcode, product.getId());
+            } else if (unknown.getIfPresent(barcode) == null) {
+                misses.add(barcode);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long seen = generation.get();
+            for (ProductEntity entity : productRepository.findAllByBarcodeInAndDeletedFalse(misses)) {
+                ids.put(entity.getBarcode(), remember(entity).getId());
+                misses.remove(entity.getBarcode());
+            }
+            misses.forEach(barcode -> rememberUnknown(barcode, seen));
+        }
+        return ids;
+    }
+
+    // A product written outside JPA (e.g. a SQL load) that the cache has not seen yet
+    private ProductResponse remember(ProductEntity entity) {
+        ProductResponse loaded = productMapper.toResponse(entity);
+        versions.ifNewer(entity.getId(), entity.getVersion(), () -> put(loaded));
+        return loaded;
+    }
+
+    private void put(ProductResponse product) {
+        String barcode = product.getBarcode();
+        String previous = barcode != null ? barcodeById.put(product.getId(), barcode) : barcodeById.remove(product.getId());
+        if (previous != null && !previous.equals(barcode)) {
+            known.invalidate(previous);
+        }
+        if (barcode != null) {
+            known.put(barcode, product);
+            unknown.invalidate(barcode);
+        }
+    }
+
+    private void rememberUnknown(String barcode, long seen) {
+        unknown.put(barcode, UNKNOWN);
+        // A product committed while we were reading may have taken the code
+        if (generation.get() != seen) {
+            unknown.invalidate(barcode);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.liquorshop.inventory.service.catalog;
+
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.mapper.ProductMapper;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JPA listener on {@link ProductEntity} that captures every product row a transaction writes,
+ * whether through ProductService, a stock allocation or a purchase, and publishes them as one
+ * {@link ProductsChangedEvent} once the transaction commits. Rolled-back writes are dropped.
+ * <p>
+ * The snapshot is taken when Hibernate flushes the row, so the event carries exactly what was
+ * committed and listeners never need to read the products back. It carries the row's version too:
+ * afterCommit runs once the row locks are released, so two transactions writing the same product
+ * can publish in either order.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductChangeTracker {
+
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionScoped<Changes> pending = TransactionScoped.of(Changes::new).afterCommit(this::publish);
+
+    @PostPersist
+    @PostUpdate
+    public void written(ProductEntity product) {
+        Changes changes = pendingChanges();
+        changes.versions.put(product.getId(), product.getVersion());
+        if (Boolean.TRUE.equals(product.getDeleted())) {
+            changes.changed.remove(product.getId());
+            changes.removed.add(product.getId());
+        } else {
+            changes.changed.put(product.getId(), productMapper.toResponse(product));
+            changes.removed.remove(product.getId());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(changes);
+        }
+    }
+
+    private Changes pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Changes();
+        }
+        return pending.get();
+    }
+
+    private void publish(Changes changes) {
+        eventPublisher.publishEvent(new ProductsChangedEvent(changes.changed.values(), changes.removed, changes.versions));
+    }
+
+    private static class Changes {
+        final Map<Long, ProductResponse> changed = new LinkedHashMap<>();
+        final Set<Long> removed = new HashSet<>();
+        final Map<Long, Long> versions = new HashMap<>();
+    }
+}
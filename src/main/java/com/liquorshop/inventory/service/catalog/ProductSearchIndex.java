@@ -0,0 +1,357 @@
+package com.liquorshop.inventory.service.catalog;
+
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.dto.ProductSearchResponse;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.mapper.ProductMapper;
+import com.liquorshop.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over the product catalogue for the POS search box.
+ * <p>
+ * Products are held as they were last committed, kept current by {@link ProductsChangedEvent},
+ * so stock and price filters never go to the database; a snapshot older than the one held is
+ * ignored ({@link ProductVersions}). Name, brand and barcode are indexed by word-prefix grams
+ * (for 1–2 character input) and padded trigrams (for longer input and typo tolerance) in an
+ * immutable base index. Products whose text changed since the base was built
+ * sit in a small overlay that is scanned directly, so a write is searchable as soon as it
+ * commits; the base is rebuilt in the background once the overlay grows.
+ * <p>
+ * Every query word must match a word of the product, either as a prefix or with at least
+ * {@link #FUZZY_THRESHOLD} of its trigrams. Barcode hits rank first, then prefix hits, then
+ * fuzzy hits; ties keep name order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final float FUZZY_THRESHOLD = 0.5f;
+    private static final int REBUILD_AFTER = 256;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    private final Map<Long, ProductResponse> products = new ConcurrentHashMap<>();
+    private final ProductVersions versions = new ProductVersions();
+    // Text of products created or renamed since the base index was built
+    private final Map<Long, ProductText> recent = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile TextIndex text = TextIndex.build(List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        // A product written while this runs may already have its newer state
+        for (ProductEntity product : productRepository.findAllByDeletedFalseOrderByNameAsc()) {
+            versions.ifNewer(product.getId(), product.getVersion(),
+                    () -> products.put(product.getId(), productMapper.toResponse(product)));
+        }
+        rebuild();
+        log.info("Product search index loaded with {} products", products.size());
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        for (Long id : event.removed()) {
+            versions.ifNewer(id, event.version(id), () -> {
+                products.remove(id);
+                recent.remove(id);
+            });
+        }
+        for (ProductResponse product : event.changed()) {
+            versions.ifNewer(product.getId(), event.version(product.getId()), () -> {
+                ProductResponse previous = products.put(product.getId(), product);
+                if (previous == null
+                        || !Objects.equals(previous.getName(), product.getName())
+                        || !Objects.equals(previous.getBrand(), product.getBrand())
+                        || !Objects.equals(previous.getBarcode(), product.getBarcode())) {
+                    recent.put(product.getId(), ProductText.of(product));
+                }
+            });
+        }
+        if (recent.size() >= REBUILD_AFTER && rebuildPending.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("product-index-rebuild").start(this::rebuild);
+        }
+    }
+
+    public ProductSearchResponse search(String query, String category, String volumeMl, boolean inStock,
+                                        int page, int size) {
+        TextIndex index = text;
+        Map<Long, ProductText> overlay = new HashMap<>(recent);
+        String[] terms = wordsOf(query).toArray(String[]::new);
+        float[] scores = terms.length > 0 ? index.score(terms) : null;
+
+        // Base hits, skipping products the overlay has newer text for
+        ProductResponse[] hits = new ProductResponse[index.ids.length];
+        int[] hitSlots = new int[index.ids.length];
+        long[] order = new long[index.ids.length];
+        int count = 0;
+        for (int slot = 0; slot < index.ids.length; slot++) {
+            if (scores != null && scores[slot] <= 0) continue;
+            ProductResponse p = products.get(index.ids[slot]);
+            if (p == null || !matches(p, category, volumeMl, inStock)) continue;
+            if (!overlay.isEmpty() && overlay.containsKey(index.ids[slot])) continue;
+            // Sort key: higher score first (positive float bits order like the floats), then name order
+            long rank = scores != null ? Integer.MAX_VALUE - Float.floatToIntBits(scores[slot]) : 0;
+            order[count] = rank << 32 | count;
+            hitSlots[count] = slot;
+            hits[count++] = p;
+        }
+        if (scores != null) {
+            Arrays.sort(order, 0, count);
+        }
+
+        List<Hit> extra = new ArrayList<>();
+        overlay.forEach((id, productText) -> {
+            ProductResponse p = products.get(id);
+            if (p == null || !matches(p, category, volumeMl, inStock)) return;
+            float score = terms.length > 0 ? productText.score(terms) : 0f;
+            if (terms.length == 0 || score > 0) extra.add(new Hit(score, productText.sortName, p));
+        });
+        extra.sort(Hit.ORDER);
+
+        // Merge the two ranked lists up to the end of the requested page
+        int total = count + extra.size();
+        int from = (int) Math.min((long) page * size, total);
+        int to = Math.min(from + size, total);
+        List<ProductResponse> items = new ArrayList<>(to - from);
+        int b = 0;
+        int e = 0;
+        for (int i = 0; i < to; i++) {
+            boolean takeBase;
+            if (e == extra.size()) {
+                takeBase = true;
+            } else if (b == count) {
+                takeBase = false;
+            } else {
+                int slot = hitSlots[(int) order[b]];
+                Hit h = extra.get(e);
+                float baseScore = scores != null ? scores[slot] : 0f;
+                takeBase = baseScore != h.score ? baseScore > h.score
+                        : index.texts[slot].sortName.compareTo(h.sortName) <= 0;
+            }
+            ProductResponse p = takeBase ? hits[(int) order[b++]] : extra.get(e++).product;
+            if (i >= from) items.add(p);
+        }
+        return new ProductSearchResponse(items, total, page, size);
+    }
+
+    private static boolean matches(ProductResponse p, String category, String volumeMl, boolean inStock) {
+        if (category != null && !category.equalsIgnoreCase(p.getCategory())) return false;
+        if (volumeMl != null && !volumeMl.equalsIgnoreCase(p.getVolumeMl())) return false;
+        return !inStock || (p.getCurrentStock() != null && p.getCurrentStock() > 0);
+    }
+
+    private synchronized void rebuild() {
+        rebuildPending.set(false);
+        Map<Long, ProductText> folded = new HashMap<>(recent);
+        List<ProductResponse> snapshot = new ArrayList<>(products.values());
+        text = TextIndex.build(snapshot);
+        // Drop overlay entries now in the base, unless they changed again meanwhile
+        folded.forEach(recent::remove);
+    }
+
+    private static Set<String> wordsOf(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Padded trigrams of a word: "gin" → " gi", "gin", "in "
+    private static List<String> trigrams(String word) {
+        String padded = " " + word + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    private record Hit(float score, String sortName, ProductResponse product) {
+        static final Comparator<Hit> ORDER = Comparator.comparingDouble((Hit h) -> -h.score)
+                .thenComparing(Hit::sortName);
+    }
+
+    /**
+     * Searchable text of one product: name and brand words (name first), plus the barcode.
+     */
+    private record ProductText(String sortName, String[] words, String barcode) {
+
+        static ProductText of(ProductResponse p) {
+            Set<String> words = wordsOf(p.getName() + " " + (p.getBrand() != null ? p.getBrand() : ""));
+            String barcode = null;
+            if (p.getBarcode() != null && !p.getBarcode().isBlank()) {
+                barcode = p.getBarcode().trim().toLowerCase(Locale.ROOT);
+                words.add(barcode);
+            }
+            return new ProductText(p.getName().toLowerCase(Locale.ROOT), words.toArray(String[]::new), barcode);
+        }
+
+        // Sum of term scores, or zero when some term matches nothing; used for the overlay only
+        float score(String[] terms) {
+            float total = 0f;
+            for (String term : terms) {
+                float s = termScore(term, term.length() < 3 ? List.of() : trigrams(term), new HashMap<>());
+                if (s <= 0) return 0f;
+                total += s;
+            }
+            return total;
+        }
+
+        float termScore(String term, List<String> grams, Map<String, Float> similarities) {
+            if (term.equals(barcode)) return 4f;
+            if (barcode != null && barcode.startsWith(term)) return 3f;
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].startsWith(term)) {
+                    // The first word of the name is what people usually type
+                    return i == 0 ? 2.5f : 2f;
+                }
+            }
+            if (grams.isEmpty()) return 0f;
+            // Fuzzy: share of the term's trigrams found in one word of the product
+            float best = 0f;
+            for (String word : words) {
+                best = Math.max(best, similarities.computeIfAbsent(word, w -> similarity(w, grams)));
+            }
+            return best >= FUZZY_THRESHOLD ? best : 0f;
+        }
+
+        private static float similarity(String word, List<String> grams) {
+            String padded = " " + word + " ";
+            int found = 0;
+            for (String gram : grams) {
+                if (padded.contains(gram)) found++;
+            }
+            return (float) found / grams.size();
+        }
+    }
+
+    /**
+     * Immutable base index. Slot i holds the i-th product in name order; postings list the
+     * slots containing each gram in ascending order.
+     */
+    private record TextIndex(long[] ids, ProductText[] texts, Map<String, int[]> postings) {
+
+        static TextIndex build(List<ProductResponse> products) {
+            List<ProductResponse> sorted = new ArrayList<>(products);
+            sorted.sort(Comparator.comparing((ProductResponse p) -> p.getName().toLowerCase(Locale.ROOT))
+                    .thenComparing(ProductResponse::getId));
+
+            int n = sorted.size();
+            long[] ids = new long[n];
+            ProductText[] texts = new ProductText[n];
+            Map<String, IntList> lists = new HashMap<>();
+
+            for (int slot = 0; slot < n; slot++) {
+                ids[slot] = sorted.get(slot).getId();
+                texts[slot] = ProductText.of(sorted.get(slot));
+                for (String word : texts[slot].words) {
+                    lists.computeIfAbsent("^" + word.charAt(0), k -> new IntList()).add(slot);
+                    if (word.length() > 1) {
+                        lists.computeIfAbsent("^" + word.substring(0, 2), k -> new IntList()).add(slot);
+                    }
+                    for (String gram : trigrams(word)) {
+                        lists.computeIfAbsent(gram, k -> new IntList()).add(slot);
+                    }
+                }
+            }
+
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((gram, list) -> postings.put(gram, list.toArray()));
+            return new TextIndex(ids, texts, postings);
+        }
+
+        /**
+         * Score per slot; zero where some term does not match.
+         */
+        float[] score(String[] terms) {
+            int n = ids.length;
+            float[] total = new float[n];
+            int[] matchedTerms = new int[n];
+            int[] shared = new int[n];
+            IntList touched = new IntList();
+
+            for (String term : terms) {
+                if (term.length() < 3) {
+                    // Short input: word prefixes only
+                    for (int slot : postings.getOrDefault("^" + term, new int[0])) {
+                        total[slot] += texts[slot].termScore(term, List.of(), Map.of());
+                        matchedTerms[slot]++;
+                    }
+                    continue;
+                }
+
+                List<String> grams = trigrams(term);
+                touched.clear();
+                for (String gram : grams) {
+                    for (int slot : postings.getOrDefault(gram, new int[0])) {
+                        if (shared[slot]++ == 0) touched.add(slot);
+                    }
+                }
+                // Grams shared across all words are an upper bound on the best single word's share
+                int minShared = (int) Math.ceil(grams.size() * FUZZY_THRESHOLD);
+                Map<String, Float> similarities = new HashMap<>();
+                for (int i = 0; i < touched.size; i++) {
+                    int slot = touched.values[i];
+                    float score = shared[slot] >= minShared ? texts[slot].termScore(term, grams, similarities) : 0f;
+                    if (score > 0) {
+                        total[slot] += score;
+                        matchedTerms[slot]++;
+                    }
+                    shared[slot] = 0;
+                }
+            }
+
+            for (int slot = 0; slot < n; slot++) {
+                if (matchedTerms[slot] < terms.length) total[slot] = 0;
+            }
+            return total;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            // Slots are added in ascending order; skip repeats from several words of one product
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
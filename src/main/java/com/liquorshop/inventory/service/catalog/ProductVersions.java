@@ -0,0 +1,29 @@
+package com.liquorshop.inventory.service.catalog;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Row versions of the product snapshots a consumer of {@link ProductsChangedEvent} has applied.
+ * Commits can publish out of order, so every update of a product goes through {@link #ifNewer},
+ * which drops a snapshot no newer than the one applied. Removed products keep their version, so a
+ * late snapshot from before the removal is dropped too.
+ */
+public class ProductVersions {
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code update} unless a snapshot of the same or a later version was applied. Atomic per
+     * product: updates of one product never interleave.
+     */
+    public void ifNewer(Long productId, long version, Runnable update) {
+        versions.compute(productId, (id, held) -> {
+            if (held != null && held >= version) {
+                return held;
+            }
+            update.run();
+            return version;
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.liquorshop.inventory.service.catalog;
+
+import com.liquorshop.inventory.dto.ProductResponse;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published after a transaction that inserted or updated products commits. Events of different
+ * transactions can reach listeners in any order, so each product carries the row version it was
+ * written with; a listener holding a newer version of a product ignores the older snapshot.
+ *
+ * @param changed  products as they were written, excluding soft-deleted ones
+ * @param removed  ids of products soft-deleted by the transaction
+ * @param versions row version of every changed and removed product
+ */
+public record ProductsChangedEvent(Collection<ProductResponse> changed, Set<Long> removed, Map<Long, Long> versions) {
+
+    public long version(Long productId) {
+        return versions.get(productId);
+    }
+}
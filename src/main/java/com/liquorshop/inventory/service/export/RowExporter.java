@@ -0,0 +1,159 @@
+package com.liquorshop.inventory.service.export;
+
+import com.opencsv.CSVWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.beans.PropertyDescriptor;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes report and list rows straight to the HTTP response while they are read from the
+ * database, so an export of any size holds one row in memory and starts sending at once.
+ * <p>
+ * The producer runs on the MVC async thread; it must open its own read-only transaction, which
+ * the {@code export*} service methods do.
+ */
+@Component
+@RequiredArgsConstructor
+public class RowExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JsonMapper jsonMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> export(String name, ExportFormat format, Class<T> rowType,
+                                                            Consumer<Consumer<T>> producer) {
+        StreamingResponseBody body = out -> {
+            RowWriter<T> writer = format == ExportFormat.CSV
+                    ? new CsvRowWriter<>(out, rowType)
+                    : new NdjsonRowWriter<>(out);
+            try {
+                producer.accept(writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+        };
+
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(name + "." + format.extension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    private abstract static class RowWriter<T> {
+
+        private boolean first = true;
+
+        void write(T row) {
+            try {
+                writeRow(row);
+                // Push the first row out immediately; after that the buffer decides
+                if (first) {
+                    flush();
+                    first = false;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void writeRow(T row) throws IOException;
+
+        abstract void flush() throws IOException;
+
+        void finish() throws IOException {
+            flush();
+        }
+    }
+
+    private class NdjsonRowWriter<T> extends RowWriter<T> {
+
+        private final OutputStream out;
+
+        NdjsonRowWriter(OutputStream out) {
+            this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        }
+
+        @Override
+        void writeRow(T row) throws IOException {
+            out.write(jsonMapper.writeValueAsBytes(row));
+            out.write('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * One column per scalar bean property, in the same (alphabetical) order as the JSON output.
+     * Collection-valued properties such as invoice lines are left out.
+     */
+    private static class CsvRowWriter<T> extends RowWriter<T> {
+
+        private final CSVWriter csv;
+        private final List<Method> getters = new ArrayList<>();
+
+        CsvRowWriter(OutputStream out, Class<T> rowType) {
+            this.csv = new CSVWriter(new OutputStreamWriter(new BufferedOutputStream(out, BUFFER_SIZE),
+                    StandardCharsets.UTF_8));
+
+            List<String> header = new ArrayList<>();
+            for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(rowType)) {
+                Method getter = pd.getReadMethod();
+                if (getter == null || getter.getDeclaringClass() == Object.class) continue;
+                if (Collection.class.isAssignableFrom(pd.getPropertyType())
+                        || Map.class.isAssignableFrom(pd.getPropertyType())) continue;
+                header.add(pd.getName());
+                getters.add(getter);
+            }
+            csv.writeNext(header.toArray(String[]::new), false);
+        }
+
+        @Override
+        void writeRow(T row) {
+            String[] values = new String[getters.size()];
+            for (int i = 0; i < values.length; i++) {
+                Object value;
+                try {
+                    value = getters.get(i).invoke(row);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+                values[i] = value == null ? ""
+                        : value instanceof BigDecimal bd ? bd.toPlainString()
+                        : value.toString();
+            }
+            csv.writeNext(values, false);
+        }
+
+        @Override
+        void flush() throws IOException {
+            csv.flush();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.liquorshop.inventory.service.live;
+
+import com.liquorshop.inventory.repository.BatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Raises BATCH_EXPIRING on the live feed for batches with stock whose expiry date enters the
+ * warning window ({@code inventory.live.expiry-warning-days}) as days pass. Batches received
+ * already inside the window are announced on receipt by {@link LiveFeed#batchReceived}.
+ * <p>
+ * A virtual thread wakes just after each midnight and announces the batches expiring after the
+ * previous pass's cutoff, up to today's. The first cutoff is taken at startup, so nothing is
+ * announced twice; days the application was not running are not caught up. A failed pass is
+ * folded into the next one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiryWatch {
+
+    private final BatchRepository batchRepository;
+    private final LiveFeed liveFeed;
+
+    @Value("${inventory.live.expiry-warning-days:30}")
+    private int expiryWarningDays;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = Thread.ofVirtual().name("expiry-watch").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(Duration.ofSeconds(10));
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void run() {
+        LocalDate cutoff = LocalDate.now().plusDays(expiryWarningDays);
+        while (running) {
+            try {
+                Thread.sleep(Duration.between(LocalDateTime.now(), LocalDate.now().plusDays(1).atStartOfDay()));
+                LocalDate next = LocalDate.now().plusDays(expiryWarningDays);
+                if (next.isAfter(cutoff)) {
+                    liveFeed.batchesEnteredWarningWindow(batchRepository.findWithStockExpiringBetween(cutoff, next));
+                    cutoff = next;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Expiry pass after {} failed; the next pass includes its batches", cutoff, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.liquorshop.inventory.service.live;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One event on the live feed. {@code id} increases by one per event and is sent as the SSE event
+ * id, so a reconnecting client can ask for what it missed with Last-Event-ID.
+ *
+ * @param type SSE event name, one of the {@code Type} values
+ * @param data payload, one of the records below, sent as JSON
+ */
+public record LiveEvent(long id, Type type, Object data) {
+
+    public enum Type {
+        SALE_COMMITTED,
+        /** Stock fell below minStock */
+        LOW_STOCK,
+        /** Stock was below minStock and is back at or above it */
+        STOCK_RESTORED,
+        /** A batch received with an expiry date inside the warning window, or one whose expiry date entered it */
+        BATCH_EXPIRING,
+        /** Customer payment against a sale */
+        PAYMENT_RECEIVED,
+        /** Payment to a supplier against a purchase */
+        PAYMENT_MADE
+    }
+
+    public record Sale(Long saleId, String invoiceNumber, Long customerId, BigDecimal totalAmount,
+                       String paymentStatus, LocalDateTime saleDate) {
+    }
+
+    public record StockLevel(Long productId, String productName, int previousStock, int currentStock,
+                             int minStock) {
+    }
+
+    public record Batch(Long batchId, Long productId, String productName, String batchCode,
+                        LocalDate expiryDate, int quantity) {
+    }
+
+    /**
+     * @param partyId    customer for PAYMENT_RECEIVED, supplier for PAYMENT_MADE
+     * @param documentId sale or purchase the payment is against
+     */
+    public record Payment(Long paymentId, Long partyId, Long documentId, BigDecimal amount,
+                          String paymentMethod, LocalDateTime paymentDate) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.liquorshop.inventory.service.live;
+
+import com.liquorshop.inventory.entity.BatchEntity;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.entity.PurchasePaymentEntity;
+import com.liquorshop.inventory.entity.SaleEntity;
+import com.liquorshop.inventory.entity.SalePaymentEntity;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent events for screens that would otherwise poll the dashboard and low-stock reports.
+ * <p>
+ * SaleService and PurchaseService report what a transaction did (sale, stock movement, batch
+ * received, payment); the events are collected per transaction and broadcast only after it
+ * commits, so clients never see rolled-back work. ExpiryWatch adds the batches whose expiry date
+ * enters the warning window as days pass. Stock events are decided when the transaction
+ * is about to commit, from the product's stock before its first change and its final stock.
+ * <p>
+ * Each subscriber has a bounded queue drained by its own virtual thread, so a slow client never
+ * holds up a sale or the other clients; one that falls a full queue behind is disconnected and
+ * catches up from the replay buffer when it reconnects with Last-Event-ID.
+ */
+@Slf4j
+@Component
+public class LiveFeed {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // What the current transaction recorded; stock crossings are added just before it commits and
+    // everything is broadcast once it has
+    private final TransactionScoped<Events> recorded = TransactionScoped.of(Events::new)
+            .beforeCommit(events -> events.events.addAll(stockCrossings(events.stockBefore)))
+            .afterCommit(events -> {
+                if (!events.events.isEmpty()) broadcast(events.events);
+            });
+
+    // Guarded by this: ids are assigned, buffered and queued in one step so replay never has gaps
+    private final Deque<LiveEvent> recent = new ArrayDeque<>();
+    private long lastId;
+
+    @Value("${inventory.live.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${inventory.live.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${inventory.live.heartbeat:20s}")
+    private Duration heartbeat;
+
+    @Value("${inventory.live.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${inventory.live.expiry-warning-days:30}")
+    private int expiryWarningDays;
+
+    // ── Recording (inside the writing transaction) ──────────────────────────
+
+    public void saleCommitted(SaleEntity sale) {
+        pending().events.add(new Pending(LiveEvent.Type.SALE_COMMITTED, new LiveEvent.Sale(
+                sale.getId(), sale.getInvoiceNumber(),
+                sale.getCustomer() != null ? sale.getCustomer().getId() : null,
+                sale.getTotalAmount(), sale.getPaymentStatus(), sale.getSaleDate())));
+    }
+
+    /**
+     * Call before the product's stock is changed; only the first call per product in a
+     * transaction counts.
+     */
+    public void stockChanging(ProductEntity product) {
+        pending().stockBefore.putIfAbsent(product.getId(), new StockBefore(product, product.getCurrentStock()));
+    }
+
+    /**
+     * Raises BATCH_EXPIRING for a received batch already inside the warning window; batches that
+     * enter it later are announced by ExpiryWatch.
+     */
+    public void batchReceived(BatchEntity batch) {
+        LocalDate expiry = batch.getExpiryDate();
+        if (expiry == null || expiry.isAfter(LocalDate.now().plusDays(expiryWarningDays))) {
+            return;
+        }
+        pending().events.add(expiring(batch));
+    }
+
+    // ── Outside a transaction ───────────────────────────────────────────────
+
+    /**
+     * Broadcasts BATCH_EXPIRING for batches whose expiry date has just entered the warning window.
+     */
+    void batchesEnteredWarningWindow(List<BatchEntity> batches) {
+        if (!batches.isEmpty()) {
+            broadcast(batches.stream().map(LiveFeed::expiring).toList());
+        }
+    }
+
+    public void paymentReceived(SalePaymentEntity payment) {
+        pending().events.add(new Pending(LiveEvent.Type.PAYMENT_RECEIVED, new LiveEvent.Payment(
+                payment.getId(), payment.getCustomer().getId(),
+                payment.getSale() != null ? payment.getSale().getId() : null,
+                payment.getAmount(), payment.getPaymentMethod(), payment.getPaymentDate())));
+    }
+
+    public void paymentMade(PurchasePaymentEntity payment) {
+        pending().events.add(new Pending(LiveEvent.Type.PAYMENT_MADE, new LiveEvent.Payment(
+                payment.getId(), payment.getSupplier().getId(), payment.getPurchase().getId(),
+                payment.getAmount(), payment.getPaymentMethod(), payment.getPaymentDate())));
+    }
+
+    // ── Subscribing ──────────────────────────────────────────────────────────
+
+    /**
+     * Opens a stream for one client. With {@code lastEventId}, events after it that are still in
+     * the replay buffer are sent first.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout.toMillis()));
+        synchronized (this) {
+            if (lastEventId != null) {
+                for (LiveEvent event : recent) {
+                    if (event.id() > lastEventId) subscriber.queue.offer(event);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.start();
+        return subscriber.emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private synchronized void broadcast(List<Pending> events) {
+        for (Pending pending : events) {
+            LiveEvent event = new LiveEvent(++lastId, pending.type, pending.data);
+            recent.addLast(event);
+            if (recent.size() > replaySize) recent.removeFirst();
+
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    log.debug("Live feed subscriber fell {} events behind; disconnecting", queueCapacity);
+                    subscriber.close();
+                }
+            }
+        }
+    }
+
+    private Events pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Live feed events must be recorded inside a transaction");
+        }
+        return recorded.get();
+    }
+
+    private static Pending expiring(BatchEntity batch) {
+        ProductEntity product = batch.getProduct();
+        return new Pending(LiveEvent.Type.BATCH_EXPIRING, new LiveEvent.Batch(
+                batch.getId(), product.getId(), product.getName(), batch.getBatchCode(), batch.getExpiryDate(),
+                batch.getCurrentQuantity()));
+    }
+
+    private static List<Pending> stockCrossings(Map<Long, StockBefore> stockBefore) {
+        List<Pending> crossings = new ArrayList<>();
+        for (StockBefore before : stockBefore.values()) {
+            ProductEntity product = before.product;
+            int min = Objects.requireNonNullElse(product.getMinStock(), 0);
+            int previous = before.stock;
+            int current = product.getCurrentStock();
+            LiveEvent.Type type = previous >= min && current < min ? LiveEvent.Type.LOW_STOCK
+                    : previous < min && current >= min ? LiveEvent.Type.STOCK_RESTORED
+                    : null;
+            if (type != null) {
+                crossings.add(new Pending(type, new LiveEvent.StockLevel(
+                        product.getId(), product.getName(), previous, current, min)));
+            }
+        }
+        return crossings;
+    }
+
+    private record Pending(LiveEvent.Type type, Object data) {
+    }
+
+    private record StockBefore(ProductEntity product, int stock) {
+    }
+
+    private static class Events {
+        final List<Pending> events = new ArrayList<>();
+        final Map<Long, StockBefore> stockBefore = new LinkedHashMap<>();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<LiveEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private volatile Thread thread;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+        }
+
+        private void start() {
+            thread = Thread.ofVirtual().name("live-feed").start(this::drain);
+        }
+
+        // Sends queued events as they arrive, and a comment line when idle so dead connections are noticed
+        private void drain() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    LiveEvent event = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.id()))
+                                .name(event.type().name())
+                                .data(event.data(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+            } finally {
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            Thread t = thread;
+            if (t != null) t.interrupt();
+        }
+    }
+}
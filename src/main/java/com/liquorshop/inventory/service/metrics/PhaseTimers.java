@@ -0,0 +1,53 @@
+package com.liquorshop.inventory.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the consecutive phases of one operation, published as {@code <operation>{phase=...}}
+ * so a slow checkout can be pinned on locking, pricing, allocation, numbering or the re-read.
+ * <p>
+ * {@link #start} returns a stopwatch; each {@link Laps#lap} records the time since the previous
+ * lap (or the start) under that phase. Work done by the transaction commit itself, including the
+ * Hibernate flush, falls outside the phases and shows in {@code http.server.requests}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PhaseTimers {
+
+    private final MeterRegistry meterRegistry;
+
+    // "<operation>/<phase>" → timer
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public Laps start(String operation) {
+        return new Laps(operation);
+    }
+
+    private Timer timer(String operation, String phase) {
+        return timers.computeIfAbsent(operation + "/" + phase,
+                key -> Timer.builder(operation).tag("phase", phase).register(meterRegistry));
+    }
+
+    public final class Laps {
+
+        private final String operation;
+        private long last = System.nanoTime();
+
+        private Laps(String operation) {
+            this.operation = operation;
+        }
+
+        public void lap(String phase) {
+            long now = System.nanoTime();
+            timer(operation, phase).record(now - last, TimeUnit.NANOSECONDS);
+            last = now;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.liquorshop.inventory.service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the SQL statements each request prepared as {@code inventory.http.db.statements},
+ * tagged like {@code http.server.requests} by method and URI pattern, so a handler whose
+ * statement count grows with its result size stands out.
+ * <p>
+ * Runs ahead of the security chain so the user lookup is counted too. Only the request thread is
+ * counted: rows streamed from an async dispatch (exports, the live feed) are not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("inventory.http.db.statements")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                        // Histogram buckets stop here instead of at Long.MAX_VALUE
+                        .maximumExpectedValue(1_000.0)
+                        .register(meterRegistry)
+                        .record(scope.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.liquorshop.inventory.service.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements a handler may run, from the handler call to the end of the request
+ * (counted as in {@link SqlStatementCounter}). Checked by {@link SqlBudgetInterceptor}; on a
+ * controller class it applies to every handler without its own.
+ * <p>
+ * Budgets are for handlers whose statement count should not depend on the size of the data
+ * they return. Writes that run statements per input line (sales, purchases, imports) declare
+ * none and are left to the repeated-query check.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SqlBudget {
+
+    int value();
+}
@@ -0,0 +1,12 @@
+package com.liquorshop.inventory.service.metrics;
+
+/**
+ * Thrown at the first statement over a handler's {@link SqlBudget} when
+ * {@code inventory.sql-budget.fail-on-exceed} is set.
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(int budget, String sql) {
+        super("SQL statement budget of " + budget + " exceeded by: " + sql);
+    }
+}
@@ -0,0 +1,80 @@
+package com.liquorshop.inventory.service.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of each handler call and warns when a handler goes over its
+ * {@link SqlBudget} or runs the same SELECT {@code repeated-select-warning} times, the usual
+ * shape of an N+1. With {@code fail-on-exceed} (meant for development and tests) the statement
+ * over budget fails the request instead, so the regression cannot go unnoticed.
+ */
+@Slf4j
+@Component
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".scope";
+    private static final int MAX_LOGGED_SQL = 300;
+
+    @Value("${inventory.sql-budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    @Value("${inventory.sql-budget.repeated-select-warning:10}")
+    private int repeatedSelectWarning;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            SqlBudget budget = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), SqlBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), SqlBudget.class);
+            }
+            request.setAttribute(SCOPE_ATTRIBUTE, SqlStatementCounter.open(
+                    budget != null ? budget.value() : 0, failOnExceed, repeatedSelectWarning > 0));
+        }
+        return true;
+    }
+
+    // Streamed responses: the handler thread is done, the rest runs on another thread
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof SqlStatementCounter.Scope scope)) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (scope.budget() > 0 && scope.count() > scope.budget()) {
+            log.warn("{} {} ran {} SQL statements, over its budget of {}",
+                    request.getMethod(), pattern, scope.count(), scope.budget());
+        }
+        if (repeatedSelectWarning > 0) {
+            for (Map.Entry<String, Integer> repeated : scope.repeatedSelects(repeatedSelectWarning).entrySet()) {
+                String sql = repeated.getKey().replaceAll("\\s+", " ");
+                log.warn("{} {} ran the same query {} times (N+1?): {}", request.getMethod(), pattern,
+                        repeated.getValue(), sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql);
+            }
+        }
+    }
+}
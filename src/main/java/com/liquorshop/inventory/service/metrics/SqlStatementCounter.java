@@ -0,0 +1,108 @@
+package com.liquorshop.inventory.service.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a {@link Scope} is
+ * open: entity loads and flushes, JPQL and native queries. A JDBC batch counts once, however
+ * many rows it carries. Work done through the raw connection (e.g. session.doWork) is not seen.
+ * <p>
+ * Registered as Hibernate's statement inspector in MetricsConfig; RequestSqlMetricsFilter opens
+ * a scope per request and SqlBudgetInterceptor a nested one per handler, which can also enforce a
+ * budget and tally repeated SELECTs.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.count++;
+            if (scope.selects != null && isSelect(sql)) {
+                scope.selects.merge(sql, 1, Integer::sum);
+            }
+            if (scope.failOnExceed && scope.count == scope.budget + 1) {
+                throw new SqlBudgetExceededException(scope.budget, sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Starts counting on this thread; closing the scope restores the one it replaced.
+     */
+    public static Scope open() {
+        return open(0, false, false);
+    }
+
+    /**
+     * Starts counting on this thread. With {@code failOnExceed}, the statement that goes over
+     * {@code budget} throws {@link SqlBudgetExceededException} instead of running; with
+     * {@code trackSelects}, each distinct SELECT is tallied for {@link Scope#repeatedSelects}.
+     */
+    public static Scope open(int budget, boolean failOnExceed, boolean trackSelects) {
+        Scope scope = new Scope(CURRENT.get(), budget, failOnExceed && budget > 0,
+                trackSelects ? new HashMap<>() : null);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    private static boolean isSelect(String sql) {
+        int i = 0;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) i++;
+        return sql.regionMatches(true, i, "select", 0, 6) || sql.regionMatches(true, i, "with", 0, 4);
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope previous;
+        private final int budget;
+        private final boolean failOnExceed;
+        private final Map<String, Integer> selects;
+        private int count;
+
+        private Scope(Scope previous, int budget, boolean failOnExceed, Map<String, Integer> selects) {
+            this.previous = previous;
+            this.budget = budget;
+            this.failOnExceed = failOnExceed;
+            this.selects = selects;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int budget() {
+            return budget;
+        }
+
+        /**
+         * SELECTs run at least {@code times} times in this scope, by SQL text. Identical queries
+         * repeated per row are the usual sign of an N+1.
+         */
+        public Map<String, Integer> repeatedSelects(int times) {
+            Map<String, Integer> repeated = new HashMap<>();
+            if (selects != null) {
+                selects.forEach((sql, n) -> {
+                    if (n >= times) repeated.put(sql, n);
+                });
+            }
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                previous.count += count;
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.liquorshop.inventory.service.outbox;
+
+import com.liquorshop.inventory.entity.OutboxEventEntity;
+import com.liquorshop.inventory.repository.OutboxEventRepository;
+import com.liquorshop.inventory.service.support.TransactionScoped;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records work to be done after a sale or purchase commits, in the same transaction, so that
+ * derived data (rollups, dashboard, live feed) no longer lengthens checkout. The dispatcher is
+ * woken as soon as the transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    public static final String SALE_CREATED = "SALE_CREATED";
+    public static final String PURCHASE_CREATED = "PURCHASE_CREATED";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher dispatcher;
+
+    // The dispatcher is woken once per transaction, not per event
+    private final TransactionScoped<Boolean> wake =
+            TransactionScoped.of(() -> Boolean.TRUE).afterCommit(woken -> wakeDispatcher());
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String eventType, Long aggregateId) {
+        OutboxEventEntity event = new OutboxEventEntity();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        outboxEventRepository.save(event);
+        wake.get();
+    }
+
+    private void wakeDispatcher() {
+        dispatcher.wakeUp();
+    }
+}
@@ -0,0 +1,183 @@
+package com.liquorshop.inventory.service.outbox;
+
+import com.liquorshop.inventory.entity.OutboxEventEntity;
+import com.liquorshop.inventory.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains outbox_events on a virtual thread.
+ * <p>
+ * Each round claims up to {@code batch-size} due events with FOR UPDATE SKIP LOCKED, hands each
+ * to the handlers of its type and marks it dispatched, all in one transaction: handlers that only write to the database see their writes
+ * commit exactly with the mark. If the batch fails it is retried one event per transaction, and
+ * an event that still fails is pushed back by {@code retry-delay}; after {@code max-attempts} it
+ * is left undispatched, with its last error, for someone to look at.
+ * <p>
+ * The thread sleeps until a publishing transaction commits or {@code poll-interval} passes, which
+ * also picks up events left behind by a crash or a restart.
+ * <p>
+ * A single application instance is assumed. Some handlers feed in-memory state of the instance
+ * that dispatches (the live feed, the dashboard snapshot); with several instances each would
+ * only see the events it happened to claim.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, List<OutboxHandler>> handlers;
+
+    @Value("${inventory.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${inventory.outbox.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${inventory.outbox.retry-delay:30s}")
+    private Duration retryDelay;
+
+    @Value("${inventory.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${inventory.outbox.retention:7d}")
+    private Duration retention;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private Thread thread;
+    private LocalDateTime nextPurge = LocalDateTime.now();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, TransactionTemplate transactionTemplate,
+                            List<OutboxHandler> handlers) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.handlers = handlers.stream().collect(Collectors.groupingBy(OutboxHandler::eventType));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = Thread.ofVirtual().name("outbox-dispatcher").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(Duration.ofSeconds(10));
+        }
+    }
+
+    /**
+     * Makes the dispatcher look for events now instead of at the next poll.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void run() {
+        while (running) {
+            try {
+                int dispatched = dispatchBatch();
+                purgeIfDue();
+                // A full batch means more are probably waiting
+                if (dispatched < batchSize) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox dispatch failed; retrying in {}", pollInterval, e);
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        List<Long> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (OutboxEventEntity event : outboxEventRepository.claimBatch(LocalDateTime.now(), maxAttempts, batchSize)) {
+                    claimed.add(event.getId());
+                    deliver(event);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            log.debug("Outbox batch of {} failed; dispatching one by one", claimed.size(), e);
+            claimed.forEach(this::dispatchOne);
+        }
+        return claimed.size();
+    }
+
+    private void dispatchOne(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.claim(id).ifPresent(this::deliver));
+        } catch (RuntimeException e) {
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.recordFailure(id,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                    LocalDateTime.now().plus(retryDelay)));
+            log.warn("Outbox event {} failed; retrying in {}", id, retryDelay, e);
+        }
+    }
+
+    private void deliver(OutboxEventEntity event) {
+        for (OutboxHandler handler : handlers.getOrDefault(event.getEventType(), List.of())) {
+            handler.handle(event);
+        }
+        event.setDispatchedAt(LocalDateTime.now());
+    }
+
+    private void purgeIfDue() {
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(nextPurge)) {
+            return;
+        }
+        nextPurge = now.plus(PURGE_INTERVAL);
+        Integer purged = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteDispatchedBefore(now.minus(retention)));
+        long parked = outboxEventRepository.countParked(maxAttempts);
+        log.debug("Purged {} dispatched outbox events", purged);
+        if (parked > 0) {
+            log.error("{} outbox events failed {} times and are no longer retried", parked, maxAttempts);
+        }
+    }
+}
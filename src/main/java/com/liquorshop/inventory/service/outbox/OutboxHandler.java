@@ -0,0 +1,19 @@
+package com.liquorshop.inventory.service.outbox;
+
+import com.liquorshop.inventory.entity.OutboxEventEntity;
+
+/**
+ * Consumer of one outbox event type, called by {@link OutboxDispatcher}.
+ * <p>
+ * Delivery is at least once: an event is handed over until a dispatch transaction commits with it
+ * marked dispatched, and a batch that fails is retried event by event. Handlers therefore must be
+ * idempotent. The simplest way is to write only to the database in the dispatch transaction, so
+ * the writes commit or roll back together with the mark, and to defer anything else to after
+ * commit.
+ */
+public interface OutboxHandler {
+
+    String eventType();
+
+    void handle(OutboxEventEntity event);
+}
@@ -0,0 +1,35 @@
+package com.liquorshop.inventory.service.outbox;
+
+import com.liquorshop.inventory.entity.OutboxEventEntity;
+import com.liquorshop.inventory.entity.PurchaseEntity;
+import com.liquorshop.inventory.entity.PurchaseLineEntity;
+import com.liquorshop.inventory.exception.ResourceNotFoundException;
+import com.liquorshop.inventory.repository.PurchaseRepository;
+import com.liquorshop.inventory.service.live.LiveFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns the live feed about received batches that are close to expiry.
+ */
+@Component
+@RequiredArgsConstructor
+public class PurchaseCreatedHandler implements OutboxHandler {
+
+    private final PurchaseRepository purchaseRepository;
+    private final LiveFeed liveFeed;
+
+    @Override
+    public String eventType() {
+        return Outbox.PURCHASE_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEventEntity event) {
+        PurchaseEntity purchase = purchaseRepository.findByIdWithDetails(event.getAggregateId())
+                .orElseThrow(() -> new ResourceNotFoundException("Purchase not found: " + event.getAggregateId()));
+        for (PurchaseLineEntity line : purchase.getPurchaseLines()) {
+            liveFeed.batchReceived(line.getBatch());
+        }
+    }
+}
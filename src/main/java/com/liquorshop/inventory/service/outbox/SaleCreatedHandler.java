@@ -0,0 +1,36 @@
+package com.liquorshop.inventory.service.outbox;
+
+import com.liquorshop.inventory.entity.OutboxEventEntity;
+import com.liquorshop.inventory.entity.SaleEntity;
+import com.liquorshop.inventory.exception.ResourceNotFoundException;
+import com.liquorshop.inventory.repository.SaleRepository;
+import com.liquorshop.inventory.service.SalesRollupService;
+import com.liquorshop.inventory.service.live.LiveFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds a committed sale to the rollups and the dashboard, and announces it on the live feed. The
+ * rollup writes commit with the event's dispatched mark, and the rest happens after that commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class SaleCreatedHandler implements OutboxHandler {
+
+    private final SaleRepository saleRepository;
+    private final SalesRollupService salesRollupService;
+    private final LiveFeed liveFeed;
+
+    @Override
+    public String eventType() {
+        return Outbox.SALE_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEventEntity event) {
+        SaleEntity sale = saleRepository.findByIdWithDetails(event.getAggregateId())
+                .orElseThrow(() -> new ResourceNotFoundException("Sale not found: " + event.getAggregateId()));
+        salesRollupService.record(sale);
+        liveFeed.saleCommitted(sale);
+    }
+}
@@ -0,0 +1,77 @@
+package com.liquorshop.inventory.service.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A value bound to the current transaction: created on the first {@link #get()}, handed to the
+ * commit callbacks, and unbound when the transaction completes. Services use it to collect what
+ * a transaction did (deltas, postings, events) and act on all of it once, just before or just
+ * after commit. The instance is its own resource key, so each purpose keeps one in a field.
+ */
+public final class TransactionScoped<T> {
+
+    private final Supplier<T> factory;
+    private final Consumer<T> beforeCommit;
+    private final Consumer<T> afterCommit;
+
+    private TransactionScoped(Supplier<T> factory, Consumer<T> beforeCommit, Consumer<T> afterCommit) {
+        this.factory = factory;
+        this.beforeCommit = beforeCommit;
+        this.afterCommit = afterCommit;
+    }
+
+    public static <T> TransactionScoped<T> of(Supplier<T> factory) {
+        return new TransactionScoped<>(factory, null, null);
+    }
+
+    /**
+     * Also runs {@code action} with the value when the transaction is about to commit; what it
+     * writes to the database commits with the transaction.
+     */
+    public TransactionScoped<T> beforeCommit(Consumer<T> action) {
+        return new TransactionScoped<>(factory, action, afterCommit);
+    }
+
+    /**
+     * Also runs {@code action} with the value once the transaction has committed.
+     */
+    public TransactionScoped<T> afterCommit(Consumer<T> action) {
+        return new TransactionScoped<>(factory, beforeCommit, action);
+    }
+
+    /**
+     * The current transaction's value, created on first use.
+     *
+     * @throws IllegalStateException if transaction synchronization is not active
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        T value = (T) TransactionSynchronizationManager.getResource(this);
+        if (value == null) {
+            T created = factory.get();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (beforeCommit != null) beforeCommit.accept(created);
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (afterCommit != null) afterCommit.accept(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScoped.this);
+                }
+            });
+            TransactionSynchronizationManager.bindResource(this, created);
+            value = created;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,4 @@
+-- Row version of products, bumped by Hibernate on every write. Orders the product snapshots
+-- published after commit (ProductsChangedEvent).
+
+alter table products add column version bigint default 0 not null;
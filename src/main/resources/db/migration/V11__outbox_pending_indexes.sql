@@ -0,0 +1,13 @@
+-- Outbox indexes cover only undispatched events: dispatched rows are kept for the retention
+-- period and would otherwise make up nearly all of both indexes.
+
+-- OutboxDispatcher claim: due events in id order
+drop index idx_outbox_events_pending;
+create index idx_outbox_events_pending
+   on outbox_events (available_at, id)
+   where dispatched_at is null;
+
+-- Sales rollup rebuild/check: "is this sale's event still pending" per sale (NOT_PENDING)
+create index idx_outbox_events_pending_aggregate
+   on outbox_events (event_type, aggregate_id)
+   where dispatched_at is null;
@@ -0,0 +1,252 @@
+-- Baseline: the schema as Hibernate's ddl-auto created it before migrations took over.
+-- Databases that already have these tables are baselined at version 1 instead
+-- (spring.flyway.baseline-on-migrate) and continue from V2.
+
+create table batches (
+    current_quantity integer not null check ((current_quantity>=0)),
+    expiry_date date,
+    original_quantity integer not null check ((original_quantity>=0)),
+    purchase_date date not null,
+    purchase_price numeric(10,2) not null check ((purchase_price>=0)),
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    batch_code varchar(255),
+    location varchar(255),
+    primary key (id)
+);
+
+create table customer_price_templates (
+    selling_price numeric(10,2) not null,
+    customer_id bigint not null,
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    primary key (id),
+    unique (customer_id, product_id)
+);
+
+create table customers (
+    credit_limit numeric(10,2) not null,
+    outstanding_balance numeric(10,2) not null,
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    address TEXT,
+    name varchar(255) not null,
+    phone varchar(255),
+    primary key (id)
+);
+
+create table products (
+    average_cost numeric(10,2) not null,
+    current_stock integer,
+    deleted boolean not null,
+    min_stock integer not null check ((min_stock>=0)),
+    percentage numeric(38,2),
+    selling_price numeric(10,2) not null,
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    barcode varchar(255) unique,
+    brand varchar(255),
+    category varchar(255),
+    mrp varchar(255),
+    name varchar(255) not null,
+    status varchar(255) not null,
+    type varchar(255),
+    volume_ml varchar(255),
+    primary key (id)
+);
+
+comment on column products.current_stock is
+    'Remaining Stock';
+
+comment on column products.percentage is
+    'Alcohol percentage';
+
+comment on column products.mrp is
+    'Maximum Retail Price';
+
+comment on column products.type is
+    'Contains details like a Full, Half or Quarter';
+
+create table purchase_lines (
+    purchase_price numeric(10,2) not null check ((purchase_price>=0)),
+    quantity integer not null,
+    vat_percent numeric(5,2),
+    batch_id bigint not null,
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    purchase_id bigint not null,
+    primary key (id)
+);
+
+create table purchase_payments (
+    amount numeric(10,2) not null,
+    id bigint generated by default as identity,
+    payment_date timestamp(6) not null,
+    purchase_id bigint not null,
+    supplier_id bigint not null,
+    notes TEXT,
+    payment_method varchar(255) not null,
+    reference_number varchar(255),
+    primary key (id)
+);
+
+create table purchases (
+    discount numeric(10,2),
+    invoice_amount numeric(10,2),
+    purchase_date date not null,
+    vat_amount numeric(10,2),
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    supplier_id bigint not null,
+    remarks TEXT,
+    vat_bill_number varchar(255) unique,
+    primary key (id)
+);
+
+create table refresh_tokens (
+    created_at timestamp(6) with time zone not null,
+    expiry_at timestamp(6) with time zone not null,
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    token varchar(255) not null unique,
+    primary key (id)
+);
+
+create table sale_lines (
+    cost_price_at_sale numeric(10,2) not null,
+    line_total numeric(10,2) not null,
+    quantity integer not null check ((quantity>=1)),
+    unit_price numeric(10,2) not null,
+    batch_id bigint not null,
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    sale_id bigint not null,
+    primary key (id)
+);
+
+create table sale_payments (
+    amount numeric(10,2) not null,
+    customer_id bigint not null,
+    id bigint generated by default as identity,
+    payment_date timestamp(6) not null,
+    sale_id bigint,
+    notes TEXT,
+    payment_method varchar(255) not null,
+    reference_number varchar(255),
+    primary key (id)
+);
+
+create table sales (
+    discount numeric(10,2),
+    total_amount numeric(10,2) not null,
+    vat_amount numeric(10,2),
+    created_at timestamp(6) not null,
+    customer_id bigint,
+    id bigint generated by default as identity,
+    sale_date timestamp(6) not null,
+    invoice_number varchar(255) not null unique,
+    notes TEXT,
+    payment_status varchar(255) not null,
+    primary key (id)
+);
+
+create table suppliers (
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    address TEXT,
+    contact_person varchar(255),
+    name varchar(255) not null,
+    phone varchar(255),
+    status varchar(255) not null,
+    vat_pan_number varchar(255),
+    primary key (id)
+);
+
+create table users (
+    enabled boolean not null,
+    id bigint generated by default as identity,
+    username varchar(50) not null unique,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+alter table if exists batches
+   add constraint FKjb38v1mk479a6t6ay2mewo03m
+   foreign key (product_id)
+   references products;
+
+alter table if exists customer_price_templates
+   add constraint FKnijk0wc43gway5vd8caofuvv4
+   foreign key (customer_id)
+   references customers;
+
+alter table if exists customer_price_templates
+   add constraint FKkm910l91m47e87h0qmdxrinfx
+   foreign key (product_id)
+   references products;
+
+alter table if exists purchase_lines
+   add constraint FK6v8y6fisbcpiv925tvn709ti2
+   foreign key (batch_id)
+   references batches;
+
+alter table if exists purchase_lines
+   add constraint FKgm8ptmjl3xm9pkwvv5wgymryr
+   foreign key (product_id)
+   references products;
+
+alter table if exists purchase_lines
+   add constraint FK6g7pnc6oq338s465fh8ym425w
+   foreign key (purchase_id)
+   references purchases;
+
+alter table if exists purchase_payments
+   add constraint FKf1ch0q85yggs8y7nmpe5fpbc9
+   foreign key (purchase_id)
+   references purchases;
+
+alter table if exists purchase_payments
+   add constraint FKbk2h210qf52kmorn5istq6iqt
+   foreign key (supplier_id)
+   references suppliers;
+
+alter table if exists purchases
+   add constraint FK9ho3w23v5du4x0hrp6rqs1wmh
+   foreign key (supplier_id)
+   references suppliers;
+
+alter table if exists refresh_tokens
+   add constraint FK1lih5y2npsf8u5o3vhdb9y0os
+   foreign key (user_id)
+   references users;
+
+alter table if exists sale_lines
+   add constraint FKkoeakyu2lbpbdsl675dh4teuw
+   foreign key (batch_id)
+   references batches;
+
+alter table if exists sale_lines
+   add constraint FKrv7cdt02ykk0w12tw35fr3w71
+   foreign key (product_id)
+   references products;
+
+alter table if exists sale_lines
+   add constraint FKkpwprnqql44yb12xdig9909u5
+   foreign key (sale_id)
+   references sales;
+
+alter table if exists sale_payments
+   add constraint FKaxexrbh23yyfbxtaf5xlqrdkh
+   foreign key (customer_id)
+   references customers;
+
+alter table if exists sale_payments
+   add constraint FKe7xb7mroghqarotk8c0rryqgm
+   foreign key (sale_id)
+   references sales;
+
+alter table if exists sales
+   add constraint FKd94vrikapjd2ews1k4lb71sfg
+   foreign key (customer_id)
+   references customers;
@@ -0,0 +1,8 @@
+-- Per-year invoice counter (InvoiceNumberAllocator). A year's row is created on its first
+-- invoice, seeded from the invoices already numbered for that year.
+
+create table invoice_sequences (
+    seq_year integer not null,
+    last_value bigint not null,
+    primary key (seq_year)
+);
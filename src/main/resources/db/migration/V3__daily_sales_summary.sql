@@ -0,0 +1,13 @@
+-- Daily sales rollup behind the daily-sales report and the dashboard (SalesRollupService).
+-- Filled from existing sales by the rollup backfill on first start.
+
+create table daily_sales_summary (
+    customer_sales numeric(14,2) not null,
+    summary_date date not null,
+    total_profit numeric(14,2) not null,
+    total_sales numeric(14,2) not null,
+    total_vat numeric(14,2) not null,
+    walk_in_sales numeric(14,2) not null,
+    invoice_count bigint not null,
+    primary key (summary_date)
+);
@@ -0,0 +1,18 @@
+-- Per product per day sales rollup for the product reports, and each product's last sale date
+-- for dead stock. Both are filled from existing sales by the rollup backfill.
+
+create table product_daily_sales (
+    cost numeric(14,2) not null,
+    profit numeric(14,2) not null,
+    revenue numeric(14,2) not null,
+    sale_date date not null,
+    product_id bigint not null,
+    quantity bigint not null,
+    primary key (sale_date, product_id)
+);
+
+create index idx_product_daily_sales_date
+   on product_daily_sales (sale_date);
+
+alter table products
+   add column last_sold_date date;
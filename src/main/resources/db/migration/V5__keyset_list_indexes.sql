@@ -0,0 +1,17 @@
+-- Keyset pagination of the sales and purchases lists: each filter's columns followed by the
+-- (date, id) sort key, so a page is one index range scan.
+
+create index idx_sales_date_id
+   on sales (sale_date, id);
+
+create index idx_sales_customer_date_id
+   on sales (customer_id, sale_date, id);
+
+create index idx_sales_status_date_id
+   on sales (payment_status, sale_date, id);
+
+create index idx_purchases_date_id
+   on purchases (purchase_date, id);
+
+create index idx_purchases_supplier_date_id
+   on purchases (supplier_id, purchase_date, id);
@@ -0,0 +1,27 @@
+-- Customer ledger with monthly balance checkpoints (CustomerLedgerService). Rebuilt from
+-- sales and sale_payments on first start.
+
+create table customer_ledger (
+    credit numeric(14,2) not null,
+    debit numeric(14,2) not null,
+    customer_id bigint not null,
+    entry_date timestamp(6) not null,
+    id bigint generated by default as identity,
+    payment_id bigint,
+    sale_id bigint,
+    entry_type varchar(255) not null,
+    payment_method varchar(255),
+    reference varchar(255) not null,
+    reference_number varchar(255),
+    primary key (id)
+);
+
+create index idx_customer_ledger_customer_date_id
+   on customer_ledger (customer_id, entry_date, id);
+
+create table customer_balance_checkpoints (
+    as_of date not null,
+    balance numeric(14,2) not null,
+    customer_id bigint not null,
+    primary key (as_of, customer_id)
+);
@@ -0,0 +1,32 @@
+-- Supplier ledger, balance checkpoints and running totals (SupplierLedgerService). Rebuilt
+-- from purchases and purchase_payments on first start.
+
+create table supplier_ledger (
+    credit numeric(14,2) not null,
+    debit numeric(14,2) not null,
+    entry_date timestamp(6) not null,
+    id bigint generated by default as identity,
+    payment_id bigint,
+    purchase_id bigint,
+    supplier_id bigint not null,
+    entry_type varchar(255) not null,
+    payment_method varchar(255),
+    reference varchar(255) not null,
+    reference_number varchar(255),
+    primary key (id)
+);
+
+create index idx_supplier_ledger_supplier_date_id
+   on supplier_ledger (supplier_id, entry_date, id);
+
+create table supplier_balance_checkpoints (
+    as_of date not null,
+    balance numeric(14,2) not null,
+    supplier_id bigint not null,
+    primary key (as_of, supplier_id)
+);
+
+alter table suppliers
+   add column purchase_count integer default 0 not null,
+   add column total_paid numeric(14,2) default 0 not null,
+   add column total_purchased numeric(14,2) default 0 not null;
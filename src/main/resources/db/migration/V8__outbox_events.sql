@@ -0,0 +1,16 @@
+-- Transactional outbox for the post-commit work of sales and purchases (OutboxDispatcher)
+
+create table outbox_events (
+    attempts integer default 0 not null,
+    aggregate_id bigint not null,
+    available_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    dispatched_at timestamp(6),
+    id bigint generated by default as identity,
+    event_type varchar(40) not null,
+    last_error varchar(500),
+    primary key (id)
+);
+
+create index idx_outbox_events_pending
+   on outbox_events (dispatched_at, available_at, id);
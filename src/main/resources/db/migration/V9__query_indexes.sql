@@ -0,0 +1,62 @@
+-- Indexes for the allocation, detail and report queries. PostgreSQL does not index foreign
+-- keys by itself, so before this every sale/purchase detail read scanned its line table.
+
+-- Sale allocation (BatchRepository.findAvailableByProductIds): only batches with stock left,
+-- in allocation order per product. Most batches are used up, so the partial index stays small.
+create index idx_batches_available
+   on batches (product_id, expiry_date, created_at)
+   where current_quantity > 0;
+
+-- Expiring stock (findExpiringWithStock, dashboard count); product_id included for index-only counts
+create index idx_batches_expiring
+   on batches (expiry_date) include (product_id)
+   where current_quantity > 0 and expiry_date is not null;
+
+-- Sale detail fetch and rollup recomputes join lines by sale
+create index idx_sale_lines_sale
+   on sale_lines (sale_id);
+
+-- Stock movement report: one product's lines, joined to their sales
+create index idx_sale_lines_product_sale
+   on sale_lines (product_id, sale_id) include (quantity);
+
+-- Invoice numbering counts a year's invoices by prefix (LIKE 'INV-2026-%'). The unique index
+-- only serves LIKE under the C collation; this one does under any locale.
+create index idx_sales_invoice_number_prefix
+   on sales (invoice_number text_pattern_ops);
+
+create index idx_sale_payments_sale
+   on sale_payments (sale_id);
+
+create index idx_sale_payments_customer_date
+   on sale_payments (customer_id, payment_date);
+
+-- Purchase detail fetch
+create index idx_purchase_lines_purchase
+   on purchase_lines (purchase_id);
+
+-- Stock movement report: one product's purchase lines
+create index idx_purchase_lines_product
+   on purchase_lines (product_id) include (batch_id, purchase_id, quantity);
+
+-- Purchase report payment totals and a purchase's payments
+create index idx_purchase_payments_purchase
+   on purchase_payments (purchase_id) include (amount);
+
+create index idx_purchase_payments_supplier
+   on purchase_payments (supplier_id);
+
+-- Live catalogue in name order (ProductRepository.findAllByDeletedFalse..., inventory lists)
+create index idx_products_live_name
+   on products (name)
+   where deleted = false;
+
+-- Dashboard low-stock count
+create index idx_products_low_stock
+   on products (id)
+   where deleted = false and current_stock < min_stock;
+
+-- Dead-stock report, in its output order
+create index idx_products_dead_stock
+   on products (last_sold_date nulls first, name)
+   where deleted = false and current_stock > 0;
@@ -1,13 +1,11 @@
 package com.liquorshop.inventory;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-//
-//@SpringBootTest
-//class InventoryApiApplicationTests {
-//
-//	@Test
-//	void contextLoads() {
-//	}
-//
-//}
+
+class InventoryApiApplicationTests extends PostgresTest {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.liquorshop.inventory;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Base of the tests that need the real schema: the whole application on PostgreSQL, migrated by
+ * Flyway. The database is {@code -Dtest.db.url} (with {@code -Dtest.db.user} and
+ * {@code -Dtest.db.password}, default inventory / inventory) when given, otherwise a throwaway
+ * container when Docker is available; without either the tests are skipped.
+ * <p>
+ * A given database is not emptied between runs, so tests create their own products, customers and
+ * suppliers and only assert on those.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"
+})
+public abstract class PostgresTest {
+
+    private static final String URL = System.getProperty("test.db.url");
+
+    private static PostgreSQLContainer container;
+
+    @BeforeAll
+    static void requireDatabase() {
+        Assumptions.assumeTrue(URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "needs -Dtest.db.url or Docker");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (URL != null) {
+            registry.add("spring.datasource.url", () -> URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("test.db.user", "inventory"));
+            registry.add("spring.datasource.password", () -> System.getProperty("test.db.password", "inventory"));
+            return;
+        }
+        PostgreSQLContainer postgres = container();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    // One container for the whole run, shared by every cached application context
+    private static synchronized PostgreSQLContainer container() {
+        if (container == null) {
+            container = new PostgreSQLContainer("postgres:16.1");
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,79 @@
+package com.liquorshop.inventory;
+
+import com.liquorshop.inventory.dto.CustomerRequest;
+import com.liquorshop.inventory.dto.ProductRequest;
+import com.liquorshop.inventory.dto.PurchaseInput;
+import com.liquorshop.inventory.dto.PurchaseLineInput;
+import com.liquorshop.inventory.dto.SupplierRequest;
+import com.liquorshop.inventory.service.CustomerService;
+import com.liquorshop.inventory.service.ProductService;
+import com.liquorshop.inventory.service.PurchaseService;
+import com.liquorshop.inventory.service.SupplierService;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fresh suppliers, customers and products for tests on a shared database. Names and barcodes carry
+ * a per-run tag, so nothing collides with rows left by earlier runs.
+ */
+public final class TestFixtures {
+
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    private TestFixtures() {
+    }
+
+    public static String unique(String prefix) {
+        return prefix + "-" + RUN + "-" + SEQ.incrementAndGet();
+    }
+
+    public static Long supplier(ApplicationContext context) {
+        SupplierRequest request = new SupplierRequest();
+        request.setName(unique("Test Supplier"));
+        return context.getBean(SupplierService.class).create(request).getId();
+    }
+
+    public static Long customer(ApplicationContext context, BigDecimal creditLimit) {
+        CustomerRequest request = new CustomerRequest();
+        request.setName(unique("Test Customer"));
+        request.setCreditLimit(creditLimit);
+        return context.getBean(CustomerService.class).create(request).getId();
+    }
+
+    /**
+     * A new product with {@code stock} units bought in one batch at 60 from a new supplier.
+     */
+    public static Long product(ApplicationContext context, int stock) {
+        ProductRequest request = new ProductRequest();
+        String barcode = unique("TEST");
+        request.setName("Product " + barcode);
+        request.setCategory("Test");
+        request.setBarcode(barcode);
+        request.setSellingPrice(BigDecimal.valueOf(100));
+        Long id = context.getBean(ProductService.class).create(request).getId();
+        if (stock > 0) {
+            context.getBean(PurchaseService.class).create(
+                    purchase(supplier(context), LocalDate.now(), BigDecimal.ZERO, id, stock));
+        }
+        return id;
+    }
+
+    public static PurchaseInput purchase(Long supplierId, LocalDate date, BigDecimal amount, Long productId, int quantity) {
+        PurchaseLineInput line = new PurchaseLineInput();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        line.setPurchasePrice(BigDecimal.valueOf(60));
+
+        PurchaseInput input = new PurchaseInput();
+        input.setSupplierId(supplierId);
+        input.setPurchaseDate(date);
+        input.setInvoiceAmount(amount);
+        input.setLines(List.of(line));
+        return input;
+    }
+}
@@ -0,0 +1,199 @@
+package com.liquorshop.inventory.controller;
+
+import com.liquorshop.inventory.PostgresTest;
+import com.liquorshop.inventory.TestFixtures;
+import com.liquorshop.inventory.dto.PurchaseInput;
+import com.liquorshop.inventory.dto.PurchaseLineInput;
+import com.liquorshop.inventory.dto.SaleInput;
+import com.liquorshop.inventory.dto.SaleItemInput;
+import com.liquorshop.inventory.service.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements per endpoint, counted around the whole MockMvc call, against the counts the
+ * endpoints run today. Budgets are enforced as well (fail-on-exceed), so an endpoint over its
+ * {@code @SqlBudget} fails its request. Each endpoint is called once before it is counted, so
+ * caches and month checkpoints filled by a first call do not show up in the count.
+ * <p>
+ * List and detail endpoints must not depend on how many rows they return; the shared database
+ * holds plenty from the other tests. Sale and purchase creation insert their lines one by one
+ * (identity keys), so they are counted at one and three lines.
+ */
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "inventory.sql-budget.fail-on-exceed=true")
+class SqlBudgetTest extends PostgresTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private Long supplierId;
+    private Long customerId;
+    private List<Long> products;
+
+    @BeforeEach
+    void createRows() {
+        supplierId = TestFixtures.supplier(context);
+        customerId = TestFixtures.customer(context, BigDecimal.ZERO);
+        products = List.of(TestFixtures.product(context, 50), TestFixtures.product(context, 50),
+                TestFixtures.product(context, 50));
+    }
+
+    @Test
+    void saleCreate() throws Exception {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("walk-in, 1 line", steady(createSale(null, 1)));
+        counts.put("walk-in, 3 lines", steady(createSale(null, 3)));
+        counts.put("on credit, 1 line", steady(createSale(customerId, 1)));
+
+        assertThat(counts).isEqualTo(Map.of(
+                "walk-in, 1 line", 10,
+                "walk-in, 3 lines", 12,
+                "on credit, 1 line", 16));
+    }
+
+    @Test
+    void purchaseCreate() throws Exception {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("1 line", steady(createPurchase(1)));
+        counts.put("3 lines", steady(createPurchase(3)));
+
+        assertThat(counts).isEqualTo(Map.of(
+                "1 line", 14,
+                "3 lines", 18));
+    }
+
+    @Test
+    void listEndpoints() throws Exception {
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("/api/sales", 1);
+        expected.put("/api/purchases", 1);
+        expected.put("/api/products", 1);
+        expected.put("/api/products/search?q=Product", 0);
+        expected.put("/api/customers", 1);
+        expected.put("/api/suppliers", 1);
+        expected.put("/api/suppliers/active", 1);
+        expected.put("/api/inventory", 1);
+        expected.put("/api/inventory/low-stock", 1);
+        expected.put("/api/inventory/expiring", 1);
+        expected.put("/api/reports/daily-sales", 1);
+        expected.put("/api/reports/profit-loss", 1);
+        expected.put("/api/reports/purchase-report", 1);
+        expected.put("/api/reports/vat-report", 2);
+        expected.put("/api/reports/stock-movement?productId=" + products.getFirst(), 1);
+        expected.put("/api/reports/fast-moving-products", 1);
+        expected.put("/api/reports/dead-stock", 1);
+        expected.put("/api/reports/supplier-outstanding", 1);
+        expected.put("/api/reports/category-sales", 1);
+
+        assertThat(countAll(expected.keySet())).containsExactlyEntriesOf(expected);
+    }
+
+    @Test
+    void detailEndpoints() throws Exception {
+        Long saleId = id(createSale(customerId, 3));
+        Long purchaseId = id(createPurchase(3));
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("/api/sales/" + saleId, 2);
+        expected.put("/api/sales/" + saleId + "/payments", 2);
+        expected.put("/api/purchases/" + purchaseId, 2);
+        expected.put("/api/purchases/" + purchaseId + "/payments", 2);
+        expected.put("/api/products/" + products.getFirst(), 1);
+        expected.put("/api/customers/" + customerId, 1);
+        expected.put("/api/customers/" + customerId + "/statement", 4);
+        expected.put("/api/customers/" + customerId + "/price-template", 2);
+        expected.put("/api/customers/" + customerId + "/payments", 2);
+        expected.put("/api/suppliers/" + supplierId, 1);
+        expected.put("/api/suppliers/" + supplierId + "/statement", 4);
+
+        assertThat(countAll(expected.keySet())).containsExactlyEntriesOf(expected);
+    }
+
+    private Map<String, Integer> countAll(Iterable<String> urls) throws Exception {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String url : urls) {
+            counts.put(url, steady(get(url)));
+        }
+        return counts;
+    }
+
+    // Statements of the second of two identical calls
+    private int steady(MockHttpServletRequestBuilder request) throws Exception {
+        count(request);
+        return count(request);
+    }
+
+    private int count(MockHttpServletRequestBuilder request) throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+            return scope.count();
+        }
+    }
+
+    private Long id(MockHttpServletRequestBuilder create) throws Exception {
+        String body = mockMvc.perform(create)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return jsonMapper.readTree(body).get("id").asLong();
+    }
+
+    private MockHttpServletRequestBuilder createSale(Long customerId, int lines) throws Exception {
+        SaleInput input = new SaleInput();
+        input.setCustomerId(customerId);
+        input.setPaymentStatus(customerId != null ? "CREDIT" : "PAID");
+        input.setItems(new ArrayList<>());
+        for (int i = 0; i < lines; i++) {
+            SaleItemInput item = new SaleItemInput();
+            item.setProductId(products.get(i));
+            item.setQuantity(1);
+            input.getItems().add(item);
+        }
+        return json(post("/api/sales"), input);
+    }
+
+    private MockHttpServletRequestBuilder createPurchase(int lines) throws Exception {
+        PurchaseInput input = TestFixtures.purchase(supplierId, LocalDate.now(), BigDecimal.valueOf(100), products.getFirst(), 2);
+        input.setLines(new ArrayList<>(input.getLines()));
+        for (int i = 1; i < lines; i++) {
+            PurchaseLineInput line = new PurchaseLineInput();
+            line.setProductId(products.get(i));
+            line.setQuantity(2);
+            line.setPurchasePrice(BigDecimal.valueOf(60));
+            input.getLines().add(line);
+        }
+        return json(post("/api/purchases"), input);
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(jsonMapper.writeValueAsString(body));
+    }
+}
@@ -0,0 +1,376 @@
+package com.liquorshop.inventory.repository;
+
+import com.liquorshop.inventory.PostgresTest;
+import com.liquorshop.inventory.service.ReportService;
+import com.liquorshop.inventory.service.metrics.SqlStatementCounter;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each query the migrations index for is run through its repository or report method, and the
+ * SQL Hibernate issued is EXPLAINed with the same parameter values.
+ * <p>
+ * The plans are made in a schema of their own, migrated by the same Flyway migrations and filled
+ * with generated rows of a fixed shape (three years of a shop's sales and purchases), then
+ * ANALYZEd. They therefore do not depend on what other tests have written to the database.
+ * Sequential scans are still switched off, so the small tables (suppliers, customers) show
+ * whether the intended index can serve the query rather than what is cheapest on a few rows.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest extends PostgresTest {
+
+    private static final String SCHEMA = "query_plan_fixture";
+
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 1, 31);
+
+    // 2024-01-01 .. 2026-12-31; ids start at 1, so the 1L parameters below always exist
+    private static final List<String> FIXTURE = List.of("""
+            insert into suppliers (id, name, status, created_at)
+            select i, 'Supplier ' || i, 'ACTIVE', timestamp '2024-01-01'
+            from generate_series(1, 50) i
+            """, """
+            insert into customers (id, name, credit_limit, outstanding_balance, created_at)
+            select i, 'Customer ' || i, 10000, 0, timestamp '2024-01-01'
+            from generate_series(1, 200) i
+            """, """
+            insert into products (id, name, barcode, category, status, deleted, current_stock, min_stock,
+                                  average_cost, selling_price, created_at, last_sold_date)
+            select i, 'Product ' || lpad(i::text, 5, '0'), 'B' || i, 'Category ' || (i % 20), 'ACTIVE',
+                   i % 20 = 0, i % 40, 5, 100, 150, timestamp '2024-01-01',
+                   case when i % 25 = 0 then null
+                        when i % 25 = 1 then date '2024-06-01'
+                        else date '2026-12-31' - (i % 30) end
+            from generate_series(1, 2000) i
+            """, """
+            insert into batches (id, product_id, purchase_date, expiry_date, original_quantity, current_quantity,
+                                 purchase_price, created_at)
+            select i, i % 2000 + 1, date '2024-01-01' + (i % 1096),
+                   case when i % 2 = 1 then date '2024-06-01' + (i % 1096) end,
+                   10, case when i % 5 = 0 then 10 else 0 end, 100,
+                   timestamp '2024-01-01' + (i % 1096) * interval '1 day'
+            from generate_series(1, 10000) i
+            """, """
+            insert into purchases (id, supplier_id, purchase_date, vat_bill_number, invoice_amount, vat_amount,
+                                   discount, created_at)
+            select i, i % 50 + 1, date '2024-01-01' + (i % 1096), 'VAT-' || i, 1000, 130, 0, timestamp '2024-01-01'
+            from generate_series(1, 5000) i
+            """, """
+            insert into purchase_lines (id, purchase_id, product_id, batch_id, quantity, purchase_price)
+            select i, (i + 1) / 2, i % 2000 + 1, i, 10, 100
+            from generate_series(1, 10000) i
+            """, """
+            insert into purchase_payments (id, purchase_id, supplier_id, amount, payment_date, payment_method)
+            select i, i, i % 50 + 1, 500, timestamp '2024-01-01' + (i % 1096) * interval '1 day', 'CASH'
+            from generate_series(1, 3000) i
+            """, """
+            insert into sales (id, sale_date, customer_id, invoice_number, payment_status, total_amount, vat_amount,
+                               discount, created_at)
+            select i, timestamp '2024-01-01' + (i % 1096) * interval '1 day' + (i % 600) * interval '1 minute',
+                   case when i % 10 < 3 then i % 200 + 1 end,
+                   'INV-' || (2024 + (i % 1096) / 366) || '-' || lpad(i::text, 6, '0'),
+                   case i % 10 when 0 then 'UNPAID' when 1 then 'CREDIT' else 'PAID' end,
+                   300, 0, 0, timestamp '2024-01-01'
+            from generate_series(1, 50000) i
+            """, """
+            insert into sale_lines (id, sale_id, batch_id, product_id, quantity, unit_price, cost_price_at_sale,
+                                    line_total)
+            select i, (i + 1) / 2, (i - 1) % 10000 + 1, ((i - 1) % 10000 + 1) % 2000 + 1, 1, 150, 100, 150
+            from generate_series(1, 100000) i
+            """, """
+            insert into sale_payments (id, sale_id, customer_id, amount, payment_date, payment_method)
+            select i, i * 5, i % 200 + 1, 150, timestamp '2024-01-01' + (i % 1096) * interval '1 day', 'CASH'
+            from generate_series(1, 10000) i
+            """, """
+            insert into daily_sales_summary (summary_date, invoice_count, total_sales, total_vat, walk_in_sales,
+                                             customer_sales, total_profit)
+            select date '2024-01-01' + d, 45, 13500, 0, 9450, 4050, 4500
+            from generate_series(0, 1095) d
+            """, """
+            insert into product_daily_sales (product_id, sale_date, quantity, revenue, cost, profit)
+            select p, date '2024-01-01' + d, 3, 450, 300, 150
+            from generate_series(0, 1095) d, generate_series(1, 2000) p
+            where (p + d) % 30 = 0
+            """);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private SalePaymentRepository salePaymentRepository;
+
+    @Autowired
+    private PurchasePaymentRepository purchasePaymentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @BeforeAll
+    void createFixture() throws SQLException {
+        dropFixture();
+        Flyway.configure().dataSource(dataSource).schemas(SCHEMA).load().migrate();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path = " + SCHEMA);
+            for (String insert : FIXTURE) {
+                statement.execute(insert);
+            }
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT tablename FROM pg_tables WHERE schemaname = '" + SCHEMA + "'")) {
+                while (rows.next()) {
+                    tables.add(rows.getString(1));
+                }
+            }
+            for (String table : tables) {
+                statement.execute("ANALYZE " + table);
+            }
+            statement.execute("RESET search_path");
+        }
+    }
+
+    @AfterAll
+    void dropFixture() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    // ─── Batches ───────────────────────────────────────────────────────────────
+
+    @Test
+    void saleAllocationReadsAvailableBatches() throws SQLException {
+        String sql = selectOf(() -> batchRepository.findAvailableByProductIds(List.of(1L, 2L)), "batches");
+        assertThat(explain(sql, 1L, 2L)).contains("idx_batches_available");
+
+        sql = selectOf(() -> batchRepository.findAvailableByProductId(1L), "batches");
+        assertThat(explain(sql, 1L)).contains("idx_batches_available");
+    }
+
+    @Test
+    void expiringBatchesReadExpiryIndex() throws SQLException {
+        String sql = selectOf(() -> batchRepository.findExpiringWithStock(TO), "batches");
+        assertThat(explain(sql, TO)).contains("idx_batches_expiring");
+    }
+
+    // ─── Sales ─────────────────────────────────────────────────────────────────
+
+    @Test
+    void saleDetailJoinsLinesBySale() throws SQLException {
+        String sql = selectOf(() -> saleRepository.findByIdWithDetails(1L), "sale_lines");
+        assertThat(explain(sql, 1L)).contains("sales_pkey", "idx_sale_lines_sale");
+    }
+
+    @Test
+    void customerSalesReadCustomerDateIndex() throws SQLException {
+        String sql = selectOf(() -> saleRepository.findByCustomerIdOrderBySaleDateDesc(1L), "sales");
+        assertThat(explain(sql, 1L)).contains("idx_sales_customer_date_id");
+    }
+
+    @Test
+    void invoicePrefixCountReadsPatternIndex() throws SQLException {
+        String sql = selectOf(() -> saleRepository.countByInvoiceNumberPrefix("INV-2026-"), "sales");
+        assertThat(explain(sql, "INV-2026-")).contains("idx_sales_invoice_number_prefix");
+    }
+
+    @Test
+    void salesListPagesReadKeysetIndexes() throws SQLException {
+        String sql = selectOf(() -> saleRepository.findPage(null, null, null, null, null, 20), "sales");
+        assertThat(explain(sql, 20)).contains("idx_sales_date_id");
+
+        sql = selectOf(() -> saleRepository.findPage(null, null, 1L, null, null, 20), "sales");
+        assertThat(explain(sql, 1L, 20)).contains("idx_sales_customer_date_id");
+
+        sql = selectOf(() -> saleRepository.findPage(null, null, null, "UNPAID", null, 20), "sales");
+        assertThat(explain(sql, "UNPAID", 20)).contains("idx_sales_status_date_id");
+    }
+
+    @Test
+    void salePaymentsReadSaleAndCustomerIndexes() throws SQLException {
+        String sql = selectOf(() -> salePaymentRepository.sumAmountBySaleId(1L), "sale_payments");
+        assertThat(explain(sql, 1L)).contains("idx_sale_payments_sale");
+
+        sql = selectOf(() -> salePaymentRepository.findByCustomerIdOrderByPaymentDateDesc(1L), "sale_payments");
+        assertThat(explain(sql, 1L)).contains("idx_sale_payments_customer_date");
+    }
+
+    // ─── Purchases ─────────────────────────────────────────────────────────────
+
+    @Test
+    void purchaseDetailJoinsLinesByPurchase() throws SQLException {
+        String sql = selectOf(() -> purchaseRepository.findByIdWithDetails(1L), "purchase_lines");
+        assertThat(explain(sql, 1L)).contains("purchases_pkey", "idx_purchase_lines_purchase");
+    }
+
+    @Test
+    void purchasesListPagesReadKeysetIndexes() throws SQLException {
+        String sql = selectOf(() -> purchaseRepository.findPage(null, null, null, null, 20), "purchases");
+        assertThat(explain(sql, 20)).contains("idx_purchases_date_id");
+
+        sql = selectOf(() -> purchaseRepository.findPage(null, null, 1L, null, 20), "purchases");
+        assertThat(explain(sql, 1L, 20)).contains("idx_purchases_supplier_date_id");
+    }
+
+    @Test
+    void purchasePaymentsReadPurchaseIndex() throws SQLException {
+        String sql = selectOf(() -> purchasePaymentRepository.sumAmountByPurchaseId(1L), "purchase_payments");
+        assertThat(explain(sql, 1L)).contains("idx_purchase_payments_purchase");
+    }
+
+    // ─── Products ──────────────────────────────────────────────────────────────
+
+    @Test
+    void liveCatalogueReadsLiveNameIndex() throws SQLException {
+        String sql = selectOf(productRepository::findAllByDeletedFalseOrderByNameAsc, "products");
+        assertThat(explain(sql)).contains("idx_products_live_name");
+    }
+
+    // ─── Reports ───────────────────────────────────────────────────────────────
+
+    @Test
+    void dailySalesReadsSummaryByDate() throws SQLException {
+        String sql = selectOf(() -> reportService.getDailySales(FROM, TO), "daily_sales_summary");
+        assertThat(explain(sql, FROM, TO)).contains("daily_sales_summary_pkey");
+    }
+
+    @Test
+    void productReportsReadProductDaysByDate() throws SQLException {
+        Set<String> dateIndexes = Set.of("idx_product_daily_sales_date", "product_daily_sales_pkey");
+
+        String sql = selectOf(() -> reportService.getProfitLoss(FROM, TO), "product_daily_sales");
+        assertThat(explain(sql, FROM, TO)).containsAnyOf(dateIndexes.toArray(String[]::new));
+
+        sql = selectOf(() -> reportService.getFastMovingProducts(FROM, TO, 10), "product_daily_sales");
+        assertThat(explain(sql, FROM, TO, 10)).containsAnyOf(dateIndexes.toArray(String[]::new));
+
+        sql = selectOf(() -> reportService.getCategorySales(FROM, TO), "product_daily_sales");
+        assertThat(explain(sql, FROM, TO)).containsAnyOf(dateIndexes.toArray(String[]::new));
+    }
+
+    @Test
+    void purchaseReportReadsPurchasesByDate() throws SQLException {
+        String sql = selectOf(() -> reportService.getPurchaseReport(FROM, TO, null), "purchases");
+        assertThat(explain(sql, FROM, TO)).contains("idx_purchases_date_id");
+
+        sql = selectOf(() -> reportService.getPurchaseReport(FROM, TO, 1L), "purchases");
+        assertThat(explain(sql, FROM, TO, 1L)).contains("idx_purchases_supplier_date_id");
+    }
+
+    @Test
+    void vatReportReadsSalesAndPurchasesByDate() throws SQLException {
+        List<String> sqls = selectsOf(() -> reportService.getVatReport(FROM, TO));
+        LocalDateTime fromTs = FROM.atStartOfDay();
+        LocalDateTime toTs = TO.plusDays(1).atStartOfDay();
+
+        assertThat(explain(pick(sqls, "from sales"), fromTs, toTs)).contains("idx_sales_date_id");
+        assertThat(explain(pick(sqls, "from purchases"), FROM, TO)).contains("idx_purchases_date_id");
+    }
+
+    @Test
+    void stockMovementReadsProductLines() throws SQLException {
+        String sql = selectOf(() -> reportService.getStockMovement(1L, FROM, TO), "purchase_lines");
+        LocalDateTime fromTs = FROM.atStartOfDay();
+        LocalDateTime toTs = TO.plusDays(1).atStartOfDay();
+
+        assertThat(explain(sql, 1L, FROM, TO, 1L, fromTs, toTs))
+                .contains("idx_purchase_lines_product", "idx_sale_lines_product_sale");
+    }
+
+    @Test
+    void deadStockReadsDeadStockIndex() throws SQLException {
+        String sql = selectOf(() -> reportService.getDeadStock(90), "products");
+        assertThat(explain(sql, LocalDate.now().minusDays(90))).contains("idx_products_dead_stock");
+    }
+
+    @Test
+    void dashboardCountsReadPartialIndexes() throws SQLException {
+        List<String> sqls = selectsOf(reportService::getDashboard);
+
+        assertThat(explain(pick(sqls, "from daily_sales_summary"), LocalDate.now()))
+                .contains("daily_sales_summary_pkey");
+        assertThat(explain(pick(sqls, "current_stock < min_stock"))).contains("idx_products_low_stock");
+        assertThat(explain(pick(sqls, "from batches"))).contains("idx_batches_expiring");
+    }
+
+    // ─── Helpers ───────────────────────────────────────────────────────────────
+
+    /**
+     * The SELECTs Hibernate prepared while {@code call} ran.
+     */
+    private static List<String> selectsOf(Runnable call) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open(0, false, true)) {
+            call.run();
+            return List.copyOf(scope.repeatedSelects(1).keySet());
+        }
+    }
+
+    private static String selectOf(Runnable call, String table) {
+        return pick(selectsOf(call), table);
+    }
+
+    private static String pick(List<String> sqls, String fragment) {
+        List<String> matching = sqls.stream()
+                .filter(sql -> sql.replaceAll("\\s+", " ").toLowerCase().contains(fragment))
+                .toList();
+        assertThat(matching).as("queries containing '%s' in %s", fragment, sqls).hasSize(1);
+        return matching.getFirst();
+    }
+
+    // The plan over the fixture schema, with sequential scans switched off
+    private String explain(String sql, Object... params) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL search_path = " + SCHEMA);
+                statement.execute("SET LOCAL enable_seqscan = off");
+            }
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    explain.setObject(i + 1, params[i] instanceof LocalDateTime ts ? Timestamp.valueOf(ts) : params[i]);
+                }
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return plan.toString();
+        }
+    }
+}
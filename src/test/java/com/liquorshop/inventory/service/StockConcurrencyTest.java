@@ -0,0 +1,160 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.PostgresTest;
+import com.liquorshop.inventory.TestFixtures;
+import com.liquorshop.inventory.dto.ProductRequest;
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.dto.SaleInput;
+import com.liquorshop.inventory.dto.SaleItemInput;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hundreds of sales of the same product from as many tills as the connection pool allows, alongside
+ * purchases and edits of that product: every unit must be accounted for in the product's stock
+ * and in its batches.
+ */
+class StockConcurrencyTest extends PostgresTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockAllocator stockAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void concurrentSalesOfOneProductAddUp() throws Exception {
+        Long productId = TestFixtures.product(context, 500);
+        Long supplierId = TestFixtures.supplier(context);
+        ProductResponse original = productService.getById(productId);
+        // As many tills as the connection pool can serve at once; the purchase and edit threads
+        // below queue for connections along with them
+        int tills = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        int sales = 240;
+        int purchases = 10;
+
+        ExecutorService tillPool = Executors.newFixedThreadPool(tills);
+        ExecutorService backOffice = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < sales; i++) {
+            futures.add(tillPool.submit(() -> {
+                start.await();
+                saleService.create(sale(productId, 2));
+                return null;
+            }));
+        }
+        futures.add(backOffice.submit(() -> {
+            start.await();
+            for (int i = 0; i < purchases; i++) {
+                purchaseService.create(TestFixtures.purchase(supplierId, LocalDate.now(), BigDecimal.ZERO, productId, 5));
+            }
+            return null;
+        }));
+        // Edits write the whole row back; they must not undo the stock the tills take
+        futures.add(backOffice.submit(() -> {
+            start.await();
+            for (int i = 0; i < 20; i++) {
+                ProductRequest request = new ProductRequest();
+                request.setName(original.getName());
+                request.setCategory(original.getCategory());
+                request.setBarcode(original.getBarcode());
+                request.setSellingPrice(BigDecimal.valueOf(100 + i));
+                productService.update(productId, request);
+                productService.toggleStatus(productId);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        tillPool.shutdown();
+        backOffice.shutdown();
+
+        assertStock(productId, 500 - sales * 2 + purchases * 5);
+    }
+
+    @Test
+    void lockingAProductAlreadyLoadedRereadsIt() throws Exception {
+        Long productId = TestFixtures.product(context, 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ProductEntity loaded = productRepository.findById(productId).orElseThrow();
+            assertThat(loaded.getCurrentStock()).isEqualTo(10);
+
+            // Another till sells while this transaction holds the product unlocked
+            CompletableFuture.runAsync(() -> saleService.create(sale(productId, 3))).join();
+
+            StockAllocator.Allocation allocation = stockAllocator.load(List.of(productId));
+            assertThat(allocation.product(productId)).isSameAs(loaded);
+            assertThat(loaded.getCurrentStock()).isEqualTo(7);
+            allocation.take(loaded, 2);
+        });
+
+        assertStock(productId, 5);
+    }
+
+    private void assertStock(Long productId, int expected) {
+        Number stock = (Number) em.createNativeQuery("SELECT current_stock FROM products WHERE id = ?1")
+                .setParameter(1, productId)
+                .getSingleResult();
+        Number batches = (Number) em.createNativeQuery(
+                        "SELECT COALESCE(SUM(current_quantity), 0) FROM batches WHERE product_id = ?1")
+                .setParameter(1, productId)
+                .getSingleResult();
+        assertThat(stock.intValue()).isEqualTo(expected);
+        assertThat(batches.intValue()).isEqualTo(expected);
+    }
+
+    private static SaleInput sale(Long productId, int quantity) {
+        SaleItemInput item = new SaleItemInput();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        SaleInput input = new SaleInput();
+        input.setItems(List.of(item));
+        return input;
+    }
+}
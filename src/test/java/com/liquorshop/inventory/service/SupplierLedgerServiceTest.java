@@ -0,0 +1,187 @@
+package com.liquorshop.inventory.service;
+
+import com.liquorshop.inventory.PostgresTest;
+import com.liquorshop.inventory.TestFixtures;
+import com.liquorshop.inventory.dto.PaymentRequest;
+import com.liquorshop.inventory.dto.StatementEntry;
+import com.liquorshop.inventory.dto.SupplierResponse;
+import com.liquorshop.inventory.dto.SupplierStatementResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Postings out of date order, checked against the checkpoints they should leave behind and the
+ * statement pages built from them, before and after a rebuild from purchases and payments; and
+ * concurrent purchases from one supplier, which only meet on the supplier row at commit.
+ */
+class SupplierLedgerServiceTest extends PostgresTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private SupplierLedgerService supplierLedgerService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void backDatedPostingsKeepCheckpointsAndStatementsExact() {
+        Long supplierId = TestFixtures.supplier(context);
+        Long productId = TestFixtures.product(context, 0);
+
+        Long march = purchase(supplierId, productId, LocalDate.of(2026, 3, 10), 100);
+        purchase(supplierId, productId, LocalDate.of(2026, 5, 5), 50);
+        purchase(supplierId, productId, LocalDate.of(2026, 2, 20), 30);
+        PaymentRequest payment = new PaymentRequest();
+        payment.setAmount(BigDecimal.valueOf(40));
+        payment.setPaymentMethod("CASH");
+        payment.setPaymentDate(LocalDate.of(2026, 4, 1).atTime(10, 0));
+        purchaseService.addPayment(march, payment);
+
+        Map<LocalDate, BigDecimal> expectedCheckpoints = Map.of(
+                LocalDate.of(2026, 2, 1), BigDecimal.valueOf(0),
+                LocalDate.of(2026, 3, 1), BigDecimal.valueOf(30),
+                LocalDate.of(2026, 4, 1), BigDecimal.valueOf(130),
+                LocalDate.of(2026, 5, 1), BigDecimal.valueOf(90));
+        assertCheckpoints(supplierId, expectedCheckpoints);
+        assertStatements(supplierId);
+
+        supplierLedgerService.rebuild();
+
+        assertCheckpoints(supplierId, expectedCheckpoints);
+        assertStatements(supplierId);
+        assertThat(supplierLedgerService.check().getMismatches())
+                .noneMatch(m -> m.getSupplierId().equals(supplierId));
+    }
+
+    @Test
+    void concurrentPurchasesFromOneSupplierAddUp() throws Exception {
+        Long supplierId = TestFixtures.supplier(context);
+        int threads = 8;
+        int perThread = 6;
+        List<Long> products = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            products.add(TestFixtures.product(context, 0));
+        }
+
+        // Every thread buys its own product, so only the supplier is shared; dates go back and forth
+        // across months so that checkpoints are created and shifted by overlapping transactions
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Long productId = products.get(t);
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    LocalDate date = LocalDate.of(2025, 1 + (seed * 5 + i * 7) % 12, 1 + i);
+                    purchase(supplierId, productId, date, 10 + seed);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        SupplierResponse supplier = supplierService.getById(supplierId);
+        int expectedTotal = 0;
+        for (int t = 0; t < threads; t++) {
+            expectedTotal += perThread * (10 + t);
+        }
+        assertThat(supplier.getPurchaseCount()).isEqualTo(threads * perThread);
+        assertThat(supplier.getTotalPurchased()).isEqualByComparingTo(BigDecimal.valueOf(expectedTotal));
+        assertThat(supplierLedgerService.check().getMismatches())
+                .noneMatch(m -> m.getSupplierId().equals(supplierId));
+        assertCheckpoints(supplierId, recomputedCheckpoints(supplierId));
+    }
+
+    private void assertStatements(Long supplierId) {
+        // Two rows a page: the opening balance of each page carries on from the last
+        List<BigDecimal> balances = new ArrayList<>();
+        String cursor = null;
+        BigDecimal carried = BigDecimal.ZERO;
+        do {
+            SupplierStatementResponse page = supplierService.getStatement(supplierId, null, null, cursor, 2);
+            assertThat(page.getOpeningBalance()).isEqualByComparingTo(carried);
+            for (StatementEntry entry : page.getEntries()) {
+                balances.add(entry.getBalance());
+                carried = entry.getBalance();
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(balances).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(30), BigDecimal.valueOf(130),
+                        BigDecimal.valueOf(90), BigDecimal.valueOf(140));
+
+        SupplierStatementResponse april = supplierService.getStatement(
+                supplierId, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 30), null, 10);
+        assertThat(april.getOpeningBalance()).isEqualByComparingTo("130");
+        assertThat(april.getEntries()).singleElement()
+                .satisfies(e -> assertThat(e.getBalance()).isEqualByComparingTo("90"));
+        assertThat(april.getNextCursor()).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertCheckpoints(Long supplierId, Map<LocalDate, BigDecimal> expected) {
+        Map<LocalDate, BigDecimal> actual = new LinkedHashMap<>();
+        for (Object[] row : (List<Object[]>) em.createNativeQuery(
+                        "SELECT as_of, balance FROM supplier_balance_checkpoints WHERE supplier_id = ?1")
+                .setParameter(1, supplierId)
+                .getResultList()) {
+            actual.put(ReportService.toLocalDate(row[0]), ((BigDecimal) row[1]).stripTrailingZeros());
+        }
+        Map<LocalDate, BigDecimal> normalised = new LinkedHashMap<>();
+        expected.forEach((day, balance) -> normalised.put(day, balance.stripTrailingZeros()));
+        assertThat(actual).isEqualTo(normalised);
+    }
+
+    // Balance before each month the supplier has ledger rows in, summed straight from the rows
+    @SuppressWarnings("unchecked")
+    private Map<LocalDate, BigDecimal> recomputedCheckpoints(Long supplierId) {
+        Map<LocalDate, BigDecimal> checkpoints = new LinkedHashMap<>();
+        for (Object[] row : (List<Object[]>) em.createNativeQuery("""
+                        SELECT m.as_of, (SELECT COALESCE(SUM(l.debit - l.credit), 0) FROM supplier_ledger l
+                                         WHERE l.supplier_id = ?1 AND l.entry_date < m.as_of)
+                        FROM (SELECT DISTINCT CAST(date_trunc('month', entry_date) AS DATE) AS as_of
+                              FROM supplier_ledger WHERE supplier_id = ?1) m
+                        """)
+                .setParameter(1, supplierId)
+                .getResultList()) {
+            checkpoints.put(ReportService.toLocalDate(row[0]), (BigDecimal) row[1]);
+        }
+        assertThat(checkpoints).hasSizeGreaterThan(1);
+        return checkpoints;
+    }
+
+    private Long purchase(Long supplierId, Long productId, LocalDate date, int amount) {
+        return purchaseService.create(
+                TestFixtures.purchase(supplierId, date, BigDecimal.valueOf(amount), productId, 1)).getId();
+    }
+}
@@ -0,0 +1,175 @@
+package com.liquorshop.inventory.service.bulk;
+
+import com.liquorshop.inventory.PostgresTest;
+import com.liquorshop.inventory.TestFixtures;
+import com.liquorshop.inventory.dto.ImportResult;
+import com.liquorshop.inventory.service.ProductService;
+import com.liquorshop.inventory.service.SupplierService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The same purchases and sales files imported serially and in parallel, each run against its
+ * own fresh products and supplier, must leave identical invoices, batch allocations, stock and
+ * average costs. The invoices pair products up, so the parallel run writes several partitions
+ * at once and each partition depends on file order for its costs and allocations.
+ */
+class ParallelImportDeterminismTest extends PostgresTest {
+
+    private static final int PRODUCTS = 6;
+    private static final int PURCHASES = 18;
+    private static final int SALES = 24;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private BulkPurchasesService bulkPurchasesService;
+
+    @Autowired
+    private BulkSalesService bulkSalesService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void parallelImportMatchesSerialImport() throws Exception {
+        List<String> serial = importAndDescribe(false);
+        List<String> parallel = importAndDescribe(true);
+
+        assertThat(serial).hasSizeGreaterThan(PURCHASES + SALES);
+        assertThat(parallel).isEqualTo(serial);
+    }
+
+    private List<String> importAndDescribe(boolean parallel) throws Exception {
+        String tag = TestFixtures.unique("IMP");
+        Long supplierId = TestFixtures.supplier(context);
+        String supplierName = supplierService.getById(supplierId).getName();
+        List<Long> products = new ArrayList<>();
+        List<String> barcodes = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Long id = TestFixtures.product(context, 0);
+            products.add(id);
+            barcodes.add(productService.getById(id).getBarcode());
+        }
+
+        // Purchase i buys products 2k and 2k+1 (k = i % 3) at prices and expiries that vary with i
+        StringBuilder purchases = new StringBuilder("supplier_name,vat_bill_number,purchase_date,invoice_amount,"
+                + "vat_amount,discount,remarks,product_barcode,quantity,purchase_price,vat_percent,expiry_date\n");
+        for (int i = 0; i < PURCHASES; i++) {
+            int pair = i % 3;
+            for (int j = 0; j < 2; j++) {
+                purchases.append(String.join(",", supplierName, tag + "-P" + i, "2026-02-" + (10 + i % 9),
+                        "", "", "", "", barcodes.get(2 * pair + j), Integer.toString(5 + (i * 7 + j) % 11),
+                        (50 + (i * 13 + j * 5) % 40) + ".25", "", "2027-0" + (1 + (i * 5 + j) % 9) + "-01")).append('\n');
+            }
+        }
+        // Sale i sells from both products of one pair, enough to cross batch boundaries
+        StringBuilder sales = new StringBuilder("sale_date,customer_name,payment_status,product_code,quantity,"
+                + "unit_price,discount,notes\n");
+        for (int i = 0; i < SALES; i++) {
+            int pair = (i * 2) % 3;
+            String saleDate = String.format("2026-03-01 10:%02d:00", i);
+            for (int j = 0; j < 2; j++) {
+                sales.append(String.join(",", saleDate, "", "PAID", barcodes.get(2 * pair + j),
+                        Integer.toString(1 + (i + j) % 6), "", "", "")).append('\n');
+            }
+        }
+
+        List<ImportResult> results = new ArrayList<>();
+        MockMultipartFile purchasesFile = csv("purchases.csv", purchases);
+        MockMultipartFile salesFile = csv("sales.csv", sales);
+        if (parallel) {
+            results.addAll(bulkPurchasesService.importPurchasesParallel(List.of(purchasesFile)));
+            results.addAll(bulkSalesService.importSalesParallel(List.of(salesFile)));
+        } else {
+            results.add(bulkPurchasesService.importPurchases(purchasesFile));
+            results.add(bulkSalesService.importSales(salesFile));
+        }
+        for (ImportResult result : results) {
+            assertThat(result.getErrors()).isEmpty();
+        }
+        return describe(tag, supplierId, products);
+    }
+
+    // Everything the imports wrote, with ids replaced by product and batch positions
+    @SuppressWarnings("unchecked")
+    private List<String> describe(String tag, Long supplierId, List<Long> products) {
+        Map<Long, String> productNames = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            productNames.put(products.get(i), "product" + i);
+        }
+
+        List<String> lines = new ArrayList<>();
+        Map<Long, String> batchNames = new HashMap<>();
+        for (Long productId : products) {
+            Object[] product = (Object[]) em.createNativeQuery(
+                            "SELECT current_stock, average_cost FROM products WHERE id = ?1")
+                    .setParameter(1, productId)
+                    .getSingleResult();
+            lines.add(productNames.get(productId) + " stock=" + product[0] + " cost=" + product[1]);
+
+            // A product's batches are written in file order in both modes
+            List<Object[]> batches = em.createNativeQuery("""
+                            SELECT id, purchase_price, original_quantity, current_quantity, expiry_date
+                            FROM batches WHERE product_id = ?1 ORDER BY id
+                            """)
+                    .setParameter(1, productId)
+                    .getResultList();
+            for (int b = 0; b < batches.size(); b++) {
+                Object[] batch = batches.get(b);
+                String name = productNames.get(productId) + "/batch" + b;
+                batchNames.put(((Number) batch[0]).longValue(), name);
+                lines.add(name + " price=" + batch[1] + " qty=" + batch[2] + " left=" + batch[3] + " expiry=" + batch[4]);
+            }
+        }
+
+        for (Object[] row : (List<Object[]>) em.createNativeQuery("""
+                        SELECT pu.vat_bill_number, pu.purchase_date, pu.invoice_amount, pl.batch_id, pl.quantity
+                        FROM purchases pu JOIN purchase_lines pl ON pl.purchase_id = pu.id
+                        WHERE pu.supplier_id = ?1
+                        ORDER BY pu.vat_bill_number, pl.id
+                        """)
+                .setParameter(1, supplierId)
+                .getResultList()) {
+            lines.add(((String) row[0]).substring(tag.length()) + " " + row[1] + " amount=" + row[2]
+                    + " " + batchNames.get(((Number) row[3]).longValue()) + " qty=" + row[4]);
+        }
+
+        for (Object[] row : (List<Object[]>) em.createNativeQuery("""
+                        SELECT s.sale_date, s.total_amount, sl.batch_id, sl.quantity, sl.unit_price, sl.cost_price_at_sale
+                        FROM sales s JOIN sale_lines sl ON sl.sale_id = s.id
+                        WHERE s.id IN (SELECT sale_id FROM sale_lines WHERE product_id IN (?1))
+                        ORDER BY s.sale_date, sl.id
+                        """)
+                .setParameter(1, products)
+                .getResultList()) {
+            lines.add("sale " + row[0] + " total=" + ((BigDecimal) row[1]).stripTrailingZeros()
+                    + " " + batchNames.get(((Number) row[2]).longValue()) + " qty=" + row[3]
+                    + " price=" + row[4] + " cost=" + row[5]);
+        }
+        return lines;
+    }
+
+    private static MockMultipartFile csv(String name, CharSequence content) {
+        return new MockMultipartFile("file", name, "text/csv", content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
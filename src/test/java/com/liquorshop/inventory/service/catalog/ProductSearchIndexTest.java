@@ -0,0 +1,141 @@
+package com.liquorshop.inventory.service.catalog;
+
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.dto.ProductSearchResponse;
+import com.liquorshop.inventory.entity.ProductEntity;
+import com.liquorshop.inventory.mapper.ProductMapper;
+import com.liquorshop.inventory.mapper.ProductMapperImpl;
+import com.liquorshop.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking and paging of the search index, over a base loaded from a stubbed repository and an
+ * overlay fed by {@link ProductsChangedEvent}s.
+ */
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository, productMapper);
+
+    @BeforeEach
+    void loadBase() {
+        when(productRepository.findAllByDeletedFalseOrderByNameAsc()).thenReturn(List.of(
+                product(1L, "731 Lager", null, "4006381333931"),
+                product(2L, "Agin Special", null, null),
+                product(3L, "Gin Tonic", "Tanqueray", "5010677850209"),
+                product(4L, "Gordon's Dry Gin", "Gordon's", null),
+                product(5L, "Old Monk Rum", "Mohan Meakin", "8901234567890"),
+                product(6L, "Smirnoff Vodka", "Diageo", null),
+                product(7L, "Tonic Water", null, "7312040017072")));
+        index.load();
+    }
+
+    @Test
+    void prefixHitsRankAboveFuzzyHits() {
+        // First word of the name, then another word, then a word sharing two of three trigrams
+        assertThat(names("gin")).containsExactly("Gin Tonic", "Gordon's Dry Gin", "Agin Special");
+    }
+
+    @Test
+    void barcodeHitsRankFirst() {
+        assertThat(names("8901234567890")).containsExactly("Old Monk Rum");
+        // A barcode prefix outranks a first-word prefix that comes earlier in name order
+        assertThat(names("731")).containsExactly("Tonic Water", "731 Lager");
+    }
+
+    @Test
+    void fuzzyHitsNeedHalfTheTrigrams() {
+        changed(product(10L, "Magic Vodka", null, null), 0L);
+
+        // "wodka" shares 3 of its 5 trigrams with "vodka", "vidka" only 2
+        assertThat(names("wodka")).containsExactly("Magic Vodka", "Smirnoff Vodka");
+        assertThat(names("vidka")).isEmpty();
+    }
+
+    @Test
+    void overlayHitsMergeWithBaseHits() {
+        changed(product(10L, "Gin Fizz", null, null), 0L);
+        changed(product(11L, "Bombay Gin", null, null), 0L);
+        changed(product(7L, "Ginger Tonic", null, "7312040017072"), 1L);
+
+        assertThat(names("gin")).containsExactly(
+                "Gin Fizz", "Gin Tonic", "Ginger Tonic", "Bombay Gin", "Gordon's Dry Gin", "Agin Special");
+        // The base still holds the old name of the renamed product
+        assertThat(names("water")).isEmpty();
+        assertThat(names(null)).containsExactly("731 Lager", "Agin Special", "Bombay Gin", "Gin Fizz", "Gin Tonic",
+                "Ginger Tonic", "Gordon's Dry Gin", "Old Monk Rum", "Smirnoff Vodka");
+    }
+
+    @Test
+    void pagesFollowTheMergedOrder() {
+        changed(product(10L, "Gin Fizz", null, null), 0L);
+        changed(product(11L, "Bombay Gin", null, null), 0L);
+        List<String> all = names("gin");
+
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            ProductSearchResponse response = index.search("gin", null, null, false, page, 2);
+            assertThat(response.getTotal()).isEqualTo(all.size());
+            response.getItems().forEach(p -> paged.add(p.getName()));
+        }
+        assertThat(paged).isEqualTo(all);
+
+        ProductSearchResponse beyond = index.search("gin", null, null, false, 3, 2);
+        assertThat(beyond.getItems()).isEmpty();
+        assertThat(beyond.getTotal()).isEqualTo(all.size());
+    }
+
+    @Test
+    void rebuildFoldsTheOverlayIntoTheBase() {
+        changed(product(10L, "Gin Fizz", null, null), 0L);
+        changed(product(11L, "Bombay Gin", null, null), 0L);
+        changed(product(7L, "Ginger Tonic", null, "7312040017072"), 1L);
+        List<String> ranked = names("gin");
+        List<String> listed = names(null);
+
+        // Reloading rebuilds the base; the stubbed rows are older than the snapshots held
+        index.load();
+        assertThat(names("gin")).isEqualTo(ranked);
+        assertThat(names(null)).isEqualTo(listed);
+        assertThat(names("water")).isEmpty();
+
+        // Products folded into the base can still be renamed and removed
+        changed(product(10L, "Fizz Royale", null, null), 1L);
+        index.onProductsChanged(new ProductsChangedEvent(List.of(), Set.of(11L), Map.of(11L, 1L)));
+        assertThat(names("gin")).containsExactly("Gin Tonic", "Ginger Tonic", "Gordon's Dry Gin", "Agin Special");
+        assertThat(names("fizz")).containsExactly("Fizz Royale");
+    }
+
+    private List<String> names(String query) {
+        return index.search(query, null, null, false, 0, 50).getItems().stream()
+                .map(ProductResponse::getName)
+                .toList();
+    }
+
+    private void changed(ProductEntity product, long version) {
+        product.setVersion(version);
+        index.onProductsChanged(new ProductsChangedEvent(List.of(productMapper.toResponse(product)), Set.of(),
+                Map.of(product.getId(), version)));
+    }
+
+    private static ProductEntity product(Long id, String name, String brand, String barcode) {
+        ProductEntity product = new ProductEntity();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setBarcode(barcode);
+        product.setVersion(0L);
+        return product;
+    }
+}
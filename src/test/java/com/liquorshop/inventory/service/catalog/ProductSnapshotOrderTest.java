@@ -0,0 +1,67 @@
+package com.liquorshop.inventory.service.catalog;
+
+import com.liquorshop.inventory.PostgresTest;
+import com.liquorshop.inventory.TestFixtures;
+import com.liquorshop.inventory.dto.ProductRequest;
+import com.liquorshop.inventory.dto.ProductResponse;
+import com.liquorshop.inventory.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A product snapshot delivered after a newer one (two commits publishing in the opposite order)
+ * must leave the barcode cache and the search index on the newer one.
+ */
+class ProductSnapshotOrderTest extends PostgresTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BarcodeCache barcodeCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void olderSnapshotsAreIgnored() {
+        Long id = TestFixtures.product(context, 0);
+        ProductResponse original = productService.getById(id);
+
+        ProductRequest request = new ProductRequest();
+        request.setName(original.getName());
+        request.setCategory(original.getCategory());
+        request.setBarcode(original.getBarcode());
+        request.setSellingPrice(BigDecimal.valueOf(150));
+        productService.update(id, request);
+        assertCurrentPrice(original.getBarcode(), "150");
+
+        // The snapshot of the insert, arriving late; then a removal from before the update
+        eventPublisher.publishEvent(new ProductsChangedEvent(List.of(original), Set.of(), Map.of(id, 0L)));
+        assertCurrentPrice(original.getBarcode(), "150");
+        eventPublisher.publishEvent(new ProductsChangedEvent(List.of(), Set.of(id), Map.of(id, 0L)));
+        assertCurrentPrice(original.getBarcode(), "150");
+    }
+
+    private void assertCurrentPrice(String barcode, String price) {
+        assertThat(barcodeCache.find(barcode).getSellingPrice()).isEqualByComparingTo(price);
+        assertThat(productSearchIndex.search(barcode, null, null, false, 0, 10).getItems())
+                .singleElement()
+                .satisfies(p -> assertThat(p.getSellingPrice()).isEqualByComparingTo(price));
+    }
+}